@@ -0,0 +1,76 @@
+package com.example.elevator.config;
+
+import com.example.elevator.model.Elevator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one cached elevator lookup costs in the JVM, leaving out the network round trip to Redis:
+ * decoding the value with JDK serialization (before) or JSON (now), against a hit in the local tier of the
+ * {@link NearCache}, which decodes nothing. Run with -prof gc to compare allocation as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NearCacheBenchmark {
+
+    private JdkSerializationRedisSerializer jdk;
+    private Jackson2JsonRedisSerializer<Elevator> json;
+    private byte[] jdkBytes;
+    private byte[] jsonBytes;
+    private NearCache nearCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Elevator elevator = new Elevator();
+        elevator.setId(17L);
+        elevator.setCurrentFloor(12);
+        elevator.setLastMaintenanceDate(LocalDateTime.of(2024, 3, 1, 9, 30));
+        elevator.setVersion(42L);
+
+        jdk = new JdkSerializationRedisSerializer();
+        json = new Jackson2JsonRedisSerializer<>(new ObjectMapper().registerModule(new JavaTimeModule()), Elevator.class);
+        jdkBytes = jdk.serialize(elevator);
+        jsonBytes = json.serialize(elevator);
+
+        nearCache = new NearCache(new ConcurrentMapCache("elevators"), new LocalCache(10_000, Duration.ofMinutes(10)),
+                (cache, key) -> { });
+        nearCache.put(17L, elevator);
+    }
+
+    @Benchmark
+    public Object decodeJdk() {
+        return jdk.deserialize(jdkBytes);
+    }
+
+    @Benchmark
+    public Elevator decodeJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object localHit() {
+        return nearCache.get(17L).get();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of choosing elevators for a queue of pending requests, i.e. one scheduler cycle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+
+    @Param({"8", "64", "512"})
+    public int fleetSize;
+
+    @Param({"10", "100", "1000"})
+    public int pendingRequests;
+
+    private SchedulerService schedulerService;
+    private SchedulerService indexedScheduler;
+    private List<ElevatorState> fleet;
+    private List<ElevatorRequest> pending;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        schedulerService = new SchedulerService();
+        fleet = FleetFixtures.fleet(fleetSize, 42);
+        pending = FleetFixtures.pending(pendingRequests, 7);
+        indexedScheduler = FleetFixtures.schedulerOver(fleet);
+    }
+
+    @Benchmark
+    public void calculateCost(Blackhole blackhole) {
+        for (ElevatorRequest request : pending) {
+            for (ElevatorState elevator : fleet) {
+                blackhole.consume(schedulerService.calculateCost(elevator, request));
+            }
+        }
+    }
+
+    @Benchmark
+    public void costKernel(Blackhole blackhole) {
+        CostKernel kernel = CostKernel.of(fleet);
+        int[] scores = new int[fleet.size()];
+        for (ElevatorRequest request : pending) {
+            kernel.scoreAll(request.getSourceFloor(), request.getDestinationFloor(), scores);
+            blackhole.consume(scores);
+        }
+    }
+
+    @Benchmark
+    public void findBestElevator(Blackhole blackhole) {
+        for (ElevatorRequest request : pending) {
+            blackhole.consume(schedulerService.findBestElevator(request, fleet));
+        }
+    }
+
+    @Benchmark
+    public void findNearbyBestElevator(Blackhole blackhole) {
+        for (ElevatorRequest request : pending) {
+            blackhole.consume(indexedScheduler.findNearbyBestElevator(request));
+        }
+    }
+
+    @Benchmark
+    public int[] batchAssignment() {
+        int[][] cost = new int[pending.size()][fleet.size()];
+        int[] slots = new int[fleet.size()];
+        for (int c = 0; c < fleet.size(); c++) {
+            ElevatorState elevator = fleet.get(c);
+            slots[c] = elevator.isDispatchable() ? elevator.getCapacity() - elevator.getCurrentLoad() : 0;
+        }
+        CostKernel kernel = CostKernel.of(fleet);
+        for (int r = 0; r < pending.size(); r++) {
+            kernel.scoreAll(pending.get(r).getSourceFloor(), pending.get(r).getDestinationFloor(), cost[r]);
+        }
+        return BatchAssignmentSolver.solve(cost, slots);
+    }
+}
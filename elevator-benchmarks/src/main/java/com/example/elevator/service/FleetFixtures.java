@@ -0,0 +1,91 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic fleets and request queues for the benchmarks, so runs are comparable across commits.
+ */
+final class FleetFixtures {
+
+    static final int FLOORS = 60;
+
+    private FleetFixtures() {
+    }
+
+    static List<ElevatorState> fleet(int size, long seed) {
+        Random random = new Random(seed);
+        List<ElevatorState> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int floor = random.nextInt(FLOORS);
+            ElevatorStatus status = ElevatorStatus.values()[random.nextInt(3)]; // IDLE, MOVING_UP, MOVING_DOWN
+            Direction direction = status == ElevatorStatus.MOVING_UP ? Direction.UP
+                    : status == ElevatorStatus.MOVING_DOWN ? Direction.DOWN : Direction.STOPPED;
+            ElevatorState.ElevatorStateBuilder car = ElevatorState.builder()
+                    .id((long) i + 1)
+                    .currentFloor(floor)
+                    .status(status)
+                    .direction(direction)
+                    .capacity(10)
+                    .currentLoad(random.nextInt(11))
+                    .operational(random.nextInt(20) != 0)
+                    .ecoMode(false)
+                    .lastHeartbeat(LocalDateTime.now());
+            if (status != ElevatorStatus.IDLE) {
+                int a = random.nextInt(FLOORS);
+                int b = random.nextInt(FLOORS);
+                car.stopCount(2).lowestStop(Math.min(a, b)).highestStop(Math.max(a, b));
+            }
+            fleet.add(car.build());
+        }
+        return fleet;
+    }
+
+    /**
+     * A scheduler backed by a real fleet store holding the given cars, so index-based lookups can be measured.
+     */
+    static SchedulerService schedulerOver(List<ElevatorState> fleet) {
+        FleetStateService fleetStateService = new FleetStateService();
+        for (ElevatorState car : fleet) {
+            fleetStateService.put(car);
+        }
+        ElevatorService elevatorService = new ElevatorService();
+        inject(elevatorService, "fleetStateService", fleetStateService);
+        SchedulerService schedulerService = new SchedulerService();
+        inject(schedulerService, "elevatorService", elevatorService);
+        return schedulerService;
+    }
+
+    static void inject(Object target, String field, Object value) {
+        try {
+            Field declared = target.getClass().getDeclaredField(field);
+            declared.setAccessible(true);
+            declared.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static List<ElevatorRequest> pending(int size, long seed) {
+        Random random = new Random(seed);
+        List<ElevatorRequest> requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ElevatorRequest request = new ElevatorRequest();
+            request.setId((long) i + 1);
+            // Skew pickups towards the lobby, like real traffic
+            request.setSourceFloor(random.nextInt(4) == 0 ? 0 : random.nextInt(FLOORS));
+            int destination = random.nextInt(FLOORS);
+            request.setDestinationFloor(destination == request.getSourceFloor() ? (destination + 1) % FLOORS : destination);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
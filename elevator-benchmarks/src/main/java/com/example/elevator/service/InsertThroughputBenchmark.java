@@ -0,0 +1,129 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.model.ElevatorRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows inserted per second through JPA, i.e. through the bulk-ingest path, for log entries and requests.
+ * jdbcBatchSize 1 is the service without JDBC batching; 50 is the configured batch size.
+ * Runs against an in-memory H2 database by default. Point it at PostgreSQL with
+ * -Dbench.db.url=jdbc:postgresql://localhost:5432/bench?reWriteBatchedInserts=true -Dbench.db.user=... -Dbench.db.password=...
+ * The schema is created and dropped by Hibernate, so use a scratch database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertThroughputBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"LOG", "REQUEST"})
+    private String entity;
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private HikariDataSource dataSource;
+
+    private LocalContainerEntityManagerFactoryBean factory;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private BulkIngestService ingest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.db.url", "jdbc:h2:mem:inserts;DB_CLOSE_DELAY=-1"));
+        dataSource.setUsername(System.getProperty("bench.db.user", "sa"));
+        dataSource.setPassword(System.getProperty("bench.db.password", ""));
+        factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.example.elevator.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.jdbc.batch_size", String.valueOf(jdbcBatchSize),
+                "hibernate.order_inserts", "true"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        ingest = new BulkIngestService();
+        FleetFixtures.inject(ingest, "batchSize", jdbcBatchSize);
+    }
+
+    // Keeps table and index size, and with them insert cost, comparable from one iteration to the next
+    @Setup(Level.Iteration)
+    public void truncate() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            entityManager.createQuery("LOG".equals(entity) ? "delete from ElevatorLog" : "delete from ElevatorRequest")
+                    .executeUpdate();
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.destroy();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int insert() {
+        List<Object> rows = new ArrayList<>(ROWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            if ("LOG".equals(entity)) {
+                rows.add(new ElevatorLog((long) (i % 16) + 1, "Stopped at floor " + (i % 60)));
+            } else {
+                ElevatorRequest request = new ElevatorRequest();
+                request.setSourceFloor(i % 60);
+                request.setDestinationFloor((i + 7) % 60);
+                request.setRequestTime(now);
+                rows.add(request);
+            }
+        }
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            FleetFixtures.inject(ingest, "entityManager", entityManager);
+            entityManager.getTransaction().begin();
+            int inserted = ingest.persistAll(rows);
+            entityManager.getTransaction().commit();
+            return inserted;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
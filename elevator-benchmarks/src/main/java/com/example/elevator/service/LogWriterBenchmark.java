@@ -0,0 +1,88 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
+import com.example.elevator.repository.ElevatorLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost to the caller (movement engine, watchdog, dispatcher) of recording one elevator log entry.
+ * With the DATABASE backend the repository does no I/O, so this is the buffer hand-off alone; the database write
+ * happens on the writer thread. With the JOURNAL backend it is the whole write into a memory-mapped segment in a
+ * temporary directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogWriterBenchmark {
+
+    private static final ElevatorEvent EVENT = ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 7L, 12);
+
+    @Param({"DATABASE", "JOURNAL"})
+    private LogBackend backend;
+
+    private ElevatorLogWriter writer;
+
+    private Path journalDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journalDir = Files.createTempDirectory("journal-bench");
+        ElevatorLogRepository repository = (ElevatorLogRepository) Proxy.newProxyInstance(
+                ElevatorLogRepository.class.getClassLoader(),
+                new Class<?>[]{ElevatorLogRepository.class},
+                (proxy, method, args) -> args != null && args.length == 1 ? args[0] : null);
+        writer = new ElevatorLogWriter();
+        FleetFixtures.inject(writer, "logRepository", repository);
+        FleetFixtures.inject(writer, "meterRegistry", new SimpleMeterRegistry());
+        FleetFixtures.inject(writer, "backend", backend);
+        FleetFixtures.inject(writer, "journalDir", journalDir.toString());
+        writer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+        writer.stop();
+        try (Stream<Path> files = Files.walk(journalDir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean log() {
+        return writer.log(EVENT);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean logContended() {
+        return writer.log(EVENT);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pending-request bookkeeping behind {@link ElevatorService#optimizeRoutes()} and the scheduler sweep:
+ * hotspot detection and queue updates. Independent of fleet size, so only the queue size is varied.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteOptimizationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int pendingRequests;
+
+    private List<ElevatorRequest> pending;
+    private PendingRequestQueue queue;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pending = FleetFixtures.pending(pendingRequests, 7);
+        queue = new PendingRequestQueue();
+        for (ElevatorRequest request : pending) {
+            queue.add(request);
+        }
+    }
+
+    @Benchmark
+    public int busiestFloor() {
+        Map<Integer, Integer> ridersByFloor = queue.ridersBySourceFloor(Elevator.DEFAULT_BANK);
+        return ElevatorService.busiestFloor(ridersByFloor);
+    }
+
+    // One request assigned and a new one arriving, as happens on every dispatch
+    @Benchmark
+    public boolean assignAndAccept() {
+        ElevatorRequest request = pending.get(next++ % pending.size());
+        queue.remove(request.getId());
+        return queue.add(request);
+    }
+}
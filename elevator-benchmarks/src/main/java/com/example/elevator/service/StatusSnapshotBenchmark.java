@@ -0,0 +1,91 @@
+package com.example.elevator.service;
+
+import com.example.elevator.dto.ElevatorStatusDTO;
+import com.example.elevator.model.ElevatorState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Building the fleet status view served by GET /status and pushed over WebSocket on every change:
+ * reading the fleet store, mapping to DTOs and serializing to JSON.
+ * The payload only depends on the fleet, so only the fleet size is varied.
+ * readPrecomputed is what a read costs with the {@link FleetStatusView}; moveOneCar is what the view pays per car change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatusSnapshotBenchmark {
+
+    @Param({"8", "64", "512"})
+    public int fleetSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FleetStateService fleetStateService;
+    private List<ElevatorStatusDTO> statuses;
+    private FleetStatusView fleetStatusView;
+    private int moves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleetStateService = new FleetStateService();
+        for (ElevatorState elevator : FleetFixtures.fleet(fleetSize, 42)) {
+            fleetStateService.put(elevator);
+        }
+        statuses = toStatusDTOs();
+        fleetStatusView = new FleetStatusView();
+        FleetFixtures.inject(fleetStatusView, "fleetStateService", fleetStateService);
+        FleetFixtures.inject(fleetStatusView, "objectMapper", objectMapper);
+        fleetStatusView.start();
+    }
+
+    @Benchmark
+    public List<ElevatorStatusDTO> mapStatusDTOs() {
+        return toStatusDTOs();
+    }
+
+    @Benchmark
+    public byte[] serializeStatusDTOs() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(statuses);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(toStatusDTOs());
+    }
+
+    @Benchmark
+    public byte[] readPrecomputed() {
+        return fleetStatusView.getSnapshot().getJson();
+    }
+
+    @Benchmark
+    public byte[] moveOneCar() {
+        long id = moves++ % fleetSize + 1;
+        int floor = moves % FleetFixtures.FLOORS;
+        fleetStateService.transition(id, current -> current.withCurrentFloor(floor));
+        return fleetStatusView.getSnapshot().getJson();
+    }
+
+    private List<ElevatorStatusDTO> toStatusDTOs() {
+        return fleetStateService.getAll().stream().map(FleetStatusView::toStatusDTO).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.elevator.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thin client for the parts of the elevator service REST API the load generator exercises.
+ */
+public class ElevatorApiClient {
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private String token;
+
+    public ElevatorApiClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public void login(String username, String password) throws IOException, InterruptedException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("password", password);
+        HttpResponse<String> response = httpClient.send(post("/api/auth/login", body, false), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        token = response.body().trim();
+    }
+
+    /**
+     * Registers a simulated car and returns its id.
+     */
+    public long createElevator(int floor) throws IOException, InterruptedException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("currentFloor", floor);
+        body.put("capacity", 10);
+        HttpResponse<String> response = httpClient.send(post("/api/elevators", body, true), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Creating an elevator failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return readTree(response.body()).get("id").asLong();
+    }
+
+    public CompletableFuture<HttpResponse<String>> requestElevator(int sourceFloor, int destinationFloor) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sourceFloor", sourceFloor);
+        body.put("destinationFloor", destinationFloor);
+        return httpClient.sendAsync(post("/api/elevators/request", body, true), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public CompletableFuture<HttpResponse<String>> getRequest(long requestId) {
+        HttpRequest request = authorized(HttpRequest.newBuilder(URI.create(baseUrl + "/api/elevators/requests/" + requestId)))
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    public CompletableFuture<HttpResponse<String>> heartbeat(long elevatorId) {
+        HttpRequest request = authorized(HttpRequest.newBuilder(URI.create(baseUrl + "/api/elevators/" + elevatorId + "/heartbeat")))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    public JsonNode readTree(String json) throws IOException {
+        return objectMapper.readTree(json);
+    }
+
+    private HttpRequest post(String path, Object body, boolean authenticated) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json));
+        return (authenticated ? authorized(builder) : builder).build();
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+        return builder.header("Authorization", "Bearer " + token).timeout(Duration.ofSeconds(30));
+    }
+}
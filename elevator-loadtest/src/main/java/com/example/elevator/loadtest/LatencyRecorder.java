@@ -0,0 +1,52 @@
+package com.example.elevator.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples (in microseconds) from many threads and reports exact percentiles.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long sum;
+
+    public synchronized void record(long micros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = micros;
+        sum += micros;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    public synchronized double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile e.g. 99.9
+     * @return the nearest-rank percentile, or 0 if nothing was recorded.
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        // The small tolerance keeps e.g. 99.9% of 5000 at rank 4995 despite floating point error
+        int rank = (int) Math.ceil(percentile / 100.0 * count - 1e-9);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    public synchronized long max() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+}
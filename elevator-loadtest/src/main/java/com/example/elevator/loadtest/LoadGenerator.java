@@ -0,0 +1,276 @@
+package com.example.elevator.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the elevator service through its public REST API and reports request-to-assignment latency,
+ * throughput and error rates.
+ * <p>
+ * Start the service with {@code --spring.profiles.active=dev,loadtest} (H2, no Redis or Kafka, no API
+ * rate limit), then run e.g. {@code java -jar elevator-loadtest/target/loadtest.jar --rate=200 --pattern=up_peak}.
+ */
+public class LoadGenerator {
+
+    private static final long MAX_POLL_INTERVAL_MS = 1000;
+
+    private final LoadTestConfig config;
+    private final ElevatorApiClient client;
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "loadtest-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LatencyRecorder submitLatency = new LatencyRecorder();
+    private final LatencyRecorder serverAssignmentLatency = new LatencyRecorder();
+    private final LatencyRecorder clientAssignmentLatency = new LatencyRecorder();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder assigned = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder heartbeatsSent = new LongAdder();
+    private final LongAdder heartbeatsFailed = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private long measureFromNanos;
+    private long measureUntilNanos;
+
+    public LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+        this.client = new ElevatorApiClient(config.baseUrl);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        new LoadGenerator(config).run();
+    }
+
+    public void run() throws Exception {
+        client.login(config.username, config.password);
+        List<Long> cars = new ArrayList<>(config.cars);
+        Random random = new Random(config.seed);
+        for (int i = 0; i < config.cars; i++) {
+            cars.add(client.createElevator(random.nextInt(config.floors)));
+        }
+        scheduler.scheduleAtFixedRate(() -> sendHeartbeats(cars), 0, config.heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        measureFromNanos = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+        measureUntilNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+
+        if (config.mode == LoadTestConfig.Mode.OPEN) {
+            runOpenLoop(random);
+        } else {
+            runClosedLoop();
+        }
+
+        // Give requests still in flight a chance to be assigned before reporting
+        long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.assignmentTimeoutMs);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(config.pollIntervalMs);
+        }
+        scheduler.shutdownNow();
+        report();
+    }
+
+    private void runOpenLoop(Random random) {
+        // Poisson arrivals: exponentially distributed gaps with mean 1 / rate
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.rate;
+        long next = System.nanoTime();
+        while (next < measureUntilNanos) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int[] trip = config.pattern.nextTrip(random, config.floors);
+            submit(trip, null);
+            next += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        }
+    }
+
+    private void runClosedLoop() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(config.users);
+        for (int u = 0; u < config.users; u++) {
+            Random random = new Random(config.seed + u);
+            Thread user = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < measureUntilNanos) {
+                        CountDownLatch done = new CountDownLatch(1);
+                        submit(config.pattern.nextTrip(random, config.floors), done);
+                        done.await();
+                        if (config.thinkMs > 0) {
+                            Thread.sleep(config.thinkMs);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            }, "loadtest-user-" + u);
+            user.setDaemon(true);
+            user.start();
+        }
+        finished.await();
+    }
+
+    /**
+     * Posts one hall call and tracks it until it is assigned.
+     *
+     * @param done counted down once the request is assigned, failed or timed out (closed loop only)
+     */
+    private void submit(int[] trip, CountDownLatch done) {
+        long submittedAt = System.nanoTime();
+        boolean measured = submittedAt >= measureFromNanos;
+        if (measured) {
+            sent.increment();
+        }
+        outstanding.incrementAndGet();
+        client.requestElevator(trip[0], trip[1]).whenComplete((response, failure) -> {
+            if (measured) {
+                submitLatency.record(micros(System.nanoTime() - submittedAt));
+            }
+            Long requestId = null;
+            if (failure != null) {
+                recordError(measured, failure.getClass().getSimpleName());
+            } else if (response.statusCode() != 200) {
+                recordError(measured, "HTTP " + response.statusCode());
+            } else {
+                try {
+                    requestId = client.readTree(response.body()).get("id").asLong();
+                    if (measured) {
+                        accepted.increment();
+                    }
+                } catch (Exception e) {
+                    recordError(measured, "unreadable response");
+                }
+            }
+            if (requestId == null) {
+                finish(done);
+            } else {
+                poll(requestId, submittedAt, measured, done, config.pollIntervalMs);
+            }
+        });
+    }
+
+    private void poll(long requestId, long submittedAt, boolean measured, CountDownLatch done, long delayMs) {
+        client.getRequest(requestId).whenComplete((response, failure) -> {
+            if (failure == null && response.statusCode() == 200 && isAssigned(response, submittedAt, measured)) {
+                finish(done);
+                return;
+            }
+            if (System.nanoTime() - submittedAt > TimeUnit.MILLISECONDS.toNanos(config.assignmentTimeoutMs)) {
+                if (measured) {
+                    timedOut.increment();
+                }
+                finish(done);
+                return;
+            }
+            // Back off while the request waits, so polling a large backlog does not become the dominant load
+            long nextDelayMs = Math.min(delayMs * 2, MAX_POLL_INTERVAL_MS);
+            scheduler.schedule(() -> poll(requestId, submittedAt, measured, done, nextDelayMs), delayMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private boolean isAssigned(HttpResponse<String> response, long submittedAt, boolean measured) {
+        try {
+            JsonNode request = client.readTree(response.body());
+            if ("PENDING".equals(request.path("status").asText())) {
+                return false;
+            }
+            if (measured) {
+                assigned.increment();
+                clientAssignmentLatency.record(micros(System.nanoTime() - submittedAt));
+                if (request.hasNonNull("requestTime") && request.hasNonNull("assignedTime")) {
+                    Duration serverSide = Duration.between(LocalDateTime.parse(request.get("requestTime").asText()),
+                            LocalDateTime.parse(request.get("assignedTime").asText()));
+                    serverAssignmentLatency.record(Math.max(0, serverSide.toNanos() / 1000));
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void sendHeartbeats(List<Long> cars) {
+        for (Long car : cars) {
+            heartbeatsSent.increment();
+            client.heartbeat(car).whenComplete((response, failure) -> {
+                if (failure != null || response.statusCode() != 200) {
+                    heartbeatsFailed.increment();
+                }
+            });
+        }
+    }
+
+    private void finish(CountDownLatch done) {
+        outstanding.decrementAndGet();
+        if (done != null) {
+            done.countDown();
+        }
+    }
+
+    private void recordError(boolean measured, String kind) {
+        if (measured) {
+            errors.computeIfAbsent(kind, key -> new LongAdder()).increment();
+        }
+    }
+
+    private void report() {
+        double seconds = config.durationSeconds;
+        long errorCount = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        System.out.println();
+        System.out.println("=== Load test: " + config.describe() + " ===");
+        System.out.printf(Locale.ROOT, "Requests sent          : %d (%.1f req/s offered)%n", sent.sum(), sent.sum() / seconds);
+        System.out.printf(Locale.ROOT, "Accepted               : %d (%.1f req/s)%n", accepted.sum(), accepted.sum() / seconds);
+        System.out.printf(Locale.ROOT, "Assigned               : %d (%.1f req/s)%n", assigned.sum(), assigned.sum() / seconds);
+        System.out.printf(Locale.ROOT, "Not assigned in %5d ms: %d%n", config.assignmentTimeoutMs, timedOut.sum());
+        System.out.printf(Locale.ROOT, "Errors                 : %d (%.2f%%) %s%n", errorCount,
+                sent.sum() == 0 ? 0 : 100.0 * errorCount / sent.sum(), errorBreakdown());
+        System.out.printf(Locale.ROOT, "Heartbeats             : %d sent, %d failed%n", heartbeatsSent.sum(), heartbeatsFailed.sum());
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-34s %9s %9s %9s %9s %9s %9s%n", "Latency (ms)", "p50", "p90", "p99", "p99.9", "max", "mean");
+        printLatency("POST /request", submitLatency);
+        printLatency("request->assignment (server)", serverAssignmentLatency);
+        printLatency("request->assignment (client)", clientAssignmentLatency);
+        System.out.println("(client-side assignment latency includes polling delay: " + config.pollIntervalMs
+                + " ms at first, backing off to " + MAX_POLL_INTERVAL_MS + " ms)");
+    }
+
+    private String errorBreakdown() {
+        Map<String, Long> sorted = new TreeMap<>();
+        errors.forEach((kind, count) -> sorted.put(kind, count.sum()));
+        return sorted.isEmpty() ? "" : sorted.toString();
+    }
+
+    private static void printLatency(String name, LatencyRecorder recorder) {
+        System.out.printf(Locale.ROOT, "%-34s %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                recorder.percentile(50) / 1000.0, recorder.percentile(90) / 1000.0, recorder.percentile(99) / 1000.0,
+                recorder.percentile(99.9) / 1000.0, recorder.max() / 1000.0, recorder.mean() / 1000.0);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.elevator.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Command line options of the load generator, given as --name=value.
+ */
+public class LoadTestConfig {
+
+    /** How load is offered. */
+    public enum Mode {
+        /** Requests arrive as a Poisson process at --rate per second, regardless of how the service keeps up. */
+        OPEN,
+        /** --users passengers each wait for their assignment (plus --think-ms) before requesting again. */
+        CLOSED
+    }
+
+    String baseUrl = "http://localhost:8080";
+    String username = "admin";
+    String password = "admin";
+    Mode mode = Mode.OPEN;
+    double rate = 50;
+    int users = 20;
+    long thinkMs = 0;
+    int durationSeconds = 60;
+    int warmupSeconds = 5;
+    int cars = 8;
+    int floors = 20;
+    TrafficPattern pattern = TrafficPattern.UP_PEAK;
+    long heartbeatIntervalMs = 5000;
+    long pollIntervalMs = 20;
+    long assignmentTimeoutMs = 30000;
+    long seed = 42;
+
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "url": config.baseUrl = value; break;
+                case "username": config.username = value; break;
+                case "password": config.password = value; break;
+                case "mode": config.mode = Mode.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "rate": config.rate = Double.parseDouble(value); break;
+                case "users": config.users = Integer.parseInt(value); break;
+                case "think-ms": config.thinkMs = Long.parseLong(value); break;
+                case "duration": config.durationSeconds = Integer.parseInt(value); break;
+                case "warmup": config.warmupSeconds = Integer.parseInt(value); break;
+                case "cars": config.cars = Integer.parseInt(value); break;
+                case "floors": config.floors = Integer.parseInt(value); break;
+                case "pattern": config.pattern = TrafficPattern.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_')); break;
+                case "heartbeat-ms": config.heartbeatIntervalMs = Long.parseLong(value); break;
+                case "poll-ms": config.pollIntervalMs = Long.parseLong(value); break;
+                case "timeout-ms": config.assignmentTimeoutMs = Long.parseLong(value); break;
+                case "seed": config.seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        return config;
+    }
+
+    public String describe() {
+        String load = mode == Mode.OPEN ? String.format(Locale.ROOT, "OPEN %.1f req/s", rate)
+                : "CLOSED " + users + " users, " + thinkMs + " ms think time";
+        return load + ", " + pattern + ", " + cars + " cars, " + floors + " floors, "
+                + durationSeconds + " s (+" + warmupSeconds + " s warm-up)";
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.elevator.loadtest;
+
+import java.util.Random;
+
+/**
+ * Origin/destination distributions for the classic elevator traffic patterns.
+ * Floor 0 is the lobby.
+ */
+public enum TrafficPattern {
+    /** Morning arrivals: almost everyone boards at the lobby and goes up. */
+    UP_PEAK(0.85, 0.05),
+    /** Evening departures: almost everyone travels down to the lobby. */
+    DOWN_PEAK(0.05, 0.85),
+    /** Lunch time: a mix of trips out of and back to the lobby. */
+    LUNCH(0.40, 0.40),
+    /** Daytime traffic between upper floors, uniformly distributed. */
+    INTERFLOOR(0.0, 0.0);
+
+    private final double fromLobby;
+    private final double toLobby;
+
+    TrafficPattern(double fromLobby, double toLobby) {
+        this.fromLobby = fromLobby;
+        this.toLobby = toLobby;
+    }
+
+    /**
+     * @return {sourceFloor, destinationFloor}, never equal.
+     */
+    public int[] nextTrip(Random random, int floors) {
+        if (floors < 2) {
+            throw new IllegalArgumentException("Need at least 2 floors, got " + floors);
+        }
+        double draw = random.nextDouble();
+        if (draw < fromLobby) {
+            return new int[]{0, 1 + random.nextInt(floors - 1)};
+        }
+        if (draw < fromLobby + toLobby) {
+            return new int[]{1 + random.nextInt(floors - 1), 0};
+        }
+        int source = random.nextInt(floors);
+        int destination = random.nextInt(floors - 1);
+        if (destination >= source) {
+            destination++; // skip the source floor
+        }
+        return new int[]{source, destination};
+    }
+}
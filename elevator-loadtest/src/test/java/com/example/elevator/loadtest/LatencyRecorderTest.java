@@ -0,0 +1,30 @@
+package com.example.elevator.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testPercentiles_NearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 5000; i >= 1; i--) {
+            recorder.record(i);
+        }
+
+        assertEquals(5000, recorder.count());
+        assertEquals(2500, recorder.percentile(50));
+        assertEquals(4950, recorder.percentile(99));
+        assertEquals(4995, recorder.percentile(99.9));
+        assertEquals(5000, recorder.max());
+        assertEquals(2500.5, recorder.mean(), 1e-9);
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        assertEquals(0, recorder.percentile(99));
+        assertEquals(0, recorder.max());
+    }
+}
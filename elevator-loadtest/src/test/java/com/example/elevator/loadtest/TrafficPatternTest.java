@@ -0,0 +1,45 @@
+package com.example.elevator.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrafficPatternTest {
+
+    @Test
+    public void testUpPeak_MostTripsLeaveTheLobby() {
+        Random random = new Random(1);
+        int fromLobby = 0;
+        for (int i = 0; i < 10000; i++) {
+            int[] trip = TrafficPattern.UP_PEAK.nextTrip(random, 20);
+            if (trip[0] == 0) fromLobby++;
+        }
+        assertTrue(fromLobby > 8000 && fromLobby < 9500, "from lobby: " + fromLobby);
+    }
+
+    @Test
+    public void testDownPeak_MostTripsEndAtTheLobby() {
+        Random random = new Random(2);
+        int toLobby = 0;
+        for (int i = 0; i < 10000; i++) {
+            int[] trip = TrafficPattern.DOWN_PEAK.nextTrip(random, 20);
+            if (trip[1] == 0) toLobby++;
+        }
+        assertTrue(toLobby > 8000 && toLobby < 9500, "to lobby: " + toLobby);
+    }
+
+    @Test
+    public void testEveryPattern_ProducesValidTrips() {
+        Random random = new Random(3);
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            for (int i = 0; i < 1000; i++) {
+                int[] trip = pattern.nextTrip(random, 5);
+                assertNotEquals(trip[0], trip[1]);
+                assertTrue(trip[0] >= 0 && trip[0] < 5);
+                assertTrue(trip[1] >= 0 && trip[1] < 5);
+            }
+        }
+    }
+}
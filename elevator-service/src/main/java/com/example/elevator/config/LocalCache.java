@@ -0,0 +1,167 @@
+package com.example.elevator.config;
+
+import org.springframework.cache.Cache.ValueWrapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-heap cache tier with least-recently-used eviction and a time-to-live per entry.
+ * Keys are spread over lock-striped segments, each an access-ordered map, so readers of different keys rarely
+ * contend. Every segment counts the writes made to it (its epoch): a reader that loads a value from a slower tier
+ * stores it only if no write or invalidation reached the segment meanwhile, so a value read before an
+ * invalidation is never cached after it.
+ */
+final class LocalCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+    private final LongAdder evictions = new LongAdder();
+
+    LocalCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The local cache must hold at least one entry: " + maxEntries);
+        }
+        int perSegment = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @return the cached value, or null if absent or expired.
+     */
+    ValueWrapper get(String key) {
+        return segmentFor(key).get(key, System.nanoTime());
+    }
+
+    /**
+     * The number of writes made so far to the segment holding the key; pass it to {@link #putIfUnchanged}.
+     */
+    long epoch(String key) {
+        return segmentFor(key).epoch();
+    }
+
+    void put(String key, ValueWrapper value) {
+        segmentFor(key).put(key, value, System.nanoTime(), -1);
+    }
+
+    /**
+     * Stores a value read from a slower tier, unless the key's segment was written to since {@code epoch}.
+     */
+    boolean putIfUnchanged(String key, ValueWrapper value, long epoch) {
+        return segmentFor(key).put(key, value, System.nanoTime(), epoch);
+    }
+
+    void evict(String key) {
+        segmentFor(key).evict(key);
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Entries dropped for lack of room or because they expired.
+     */
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Entry {
+        final ValueWrapper value;
+        final long writtenAt;
+
+        Entry(ValueWrapper value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    private final class Segment {
+
+        private final LinkedHashMap<String, Entry> entries;
+        private long epoch;
+
+        Segment(int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized ValueWrapper get(String key, long now) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.writtenAt >= ttlNanos) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized long epoch() {
+            return epoch;
+        }
+
+        synchronized boolean put(String key, ValueWrapper value, long now, long expectedEpoch) {
+            if (expectedEpoch >= 0 && expectedEpoch != epoch) {
+                return false;
+            }
+            epoch++;
+            entries.put(key, new Entry(value, now));
+            return true;
+        }
+
+        synchronized void evict(String key) {
+            epoch++;
+            entries.remove(key);
+        }
+
+        synchronized void clear() {
+            epoch++;
+            entries.clear();
+        }
+
+        synchronized int size() {
+            // Expired entries are only dropped when read, so leave them out of the count here
+            long now = System.nanoTime();
+            int live = 0;
+            for (Entry entry : entries.values()) {
+                if (now - entry.writtenAt < ttlNanos) {
+                    live++;
+                }
+            }
+            return live;
+        }
+    }
+}
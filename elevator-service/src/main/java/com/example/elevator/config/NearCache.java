@@ -0,0 +1,156 @@
+package com.example.elevator.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * A cache read from local memory first and from the shared (Redis) cache on a local miss.
+ * Writes go to the shared cache, then to the local tier, and are announced to the other nodes so they drop their
+ * local copy of the key. Entries also expire locally after a while, which bounds how stale a node can be if it
+ * misses an announcement.
+ * Values read from the local tier are the same instances for every caller, so they must not be modified.
+ */
+public class NearCache implements Cache {
+
+    private final Cache remote;
+    private final LocalCache local;
+    // Called with the cache name and the key written, or a null key when the whole cache was cleared
+    private final BiConsumer<String, String> invalidation;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+
+    NearCache(Cache remote, LocalCache local, BiConsumer<String, String> invalidation) {
+        this.remote = remote;
+        this.local = local;
+        this.invalidation = invalidation;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public Cache getRemote() {
+        return remote;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper cached = local.get(localKey);
+        if (cached != null) {
+            localHits.increment();
+            return cached;
+        }
+        localMisses.increment();
+        long epoch = local.epoch(localKey);
+        ValueWrapper loaded = remote.get(key);
+        if (loaded != null) {
+            local.putIfUnchanged(localKey, new SimpleValueWrapper(loaded.get()), epoch);
+        }
+        return loaded;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper cached = local.get(localKey);
+        if (cached != null) {
+            localHits.increment();
+            return (T) cached.get();
+        }
+        localMisses.increment();
+        long epoch = local.epoch(localKey);
+        T value = remote.get(key, valueLoader);
+        local.putIfUnchanged(localKey, new SimpleValueWrapper(value), epoch);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        local.put(localKey, new SimpleValueWrapper(value));
+        invalidation.accept(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        String localKey = localKey(key);
+        local.put(localKey, new SimpleValueWrapper(existing != null ? existing.get() : value));
+        if (existing == null) {
+            invalidation.accept(getName(), localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.evict(localKey);
+        invalidation.accept(getName(), localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        invalidation.accept(getName(), null);
+    }
+
+    /**
+     * Drops this node's copy of a key written on another node.
+     */
+    void evictLocal(String localKey) {
+        local.evict(localKey);
+    }
+
+    void clearLocal() {
+        local.clear();
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getLocalMisses() {
+        return localMisses.sum();
+    }
+
+    public int getLocalSize() {
+        return local.size();
+    }
+
+    public long getLocalEvictions() {
+        return local.evictionCount();
+    }
+
+    // The shared cache turns keys into strings the same way, so nodes agree on which entry an announcement means
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
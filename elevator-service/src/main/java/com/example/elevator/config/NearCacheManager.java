@@ -0,0 +1,107 @@
+package com.example.elevator.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Puts a bounded local tier in front of every cache of the shared cache manager, and keeps the tiers of all nodes
+ * coherent over Redis pub/sub: each write to a key is announced on the invalidation channel, and every other node
+ * drops its local copy of that key. Announcements are fire-and-forget, so one missed during a reconnect leaves a
+ * node stale until the local entry expires.
+ */
+public class NearCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheManager.class);
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final int localMaxEntries;
+    private final Duration localTtl;
+
+    // Lets a node skip its own announcements, which it has already applied
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, String channel,
+                            int localMaxEntries, Duration localTtl) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.localMaxEntries = localMaxEntries;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        NearCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache shared = remote.getCache(name);
+        if (shared == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name,
+                n -> new NearCache(shared, new LocalCache(localMaxEntries, localTtl), this::publish));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Drops every node-local entry, e.g. after announcements may have been missed.
+     */
+    public void clearLocal() {
+        for (NearCache cache : caches.values()) {
+            cache.clearLocal();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // nodeId, cache name and, unless the whole cache was cleared, the key; one per line
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        NearCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return; // Never read here, so nothing is held locally
+        }
+        if (parts.length == 3) {
+            cache.evictLocal(parts[2]);
+        } else {
+            cache.clearLocal();
+        }
+    }
+
+    private void publish(String cacheName, String key) {
+        String body = key != null ? nodeId + "\n" + cacheName + "\n" + key : nodeId + "\n" + cacheName;
+        try {
+            redisTemplate.convertAndSend(channel, body);
+        } catch (RuntimeException e) {
+            // The shared cache already holds the write; other nodes catch up when their copy expires
+            logger.warn("Failed to announce write to cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
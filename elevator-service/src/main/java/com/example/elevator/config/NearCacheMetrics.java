@@ -0,0 +1,66 @@
+package com.example.elevator.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+
+/**
+ * Cache metrics for a {@link NearCache}. The standard cache.gets counts a hit from either tier as a hit and a
+ * miss in both as a miss; cache.local.gets shows how many reads the local tier answered without going to Redis.
+ */
+class NearCacheMetrics extends CacheMeterBinder<NearCache> {
+
+    private final NearCache cache;
+
+    NearCacheMetrics(NearCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.cache = cache;
+    }
+
+    @Override
+    protected Long size() {
+        return (long) cache.getLocalSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        CacheStatistics statistics = remoteStatistics();
+        return cache.getLocalHits() + (statistics != null ? statistics.getHits() : 0);
+    }
+
+    @Override
+    protected Long missCount() {
+        CacheStatistics statistics = remoteStatistics();
+        return statistics != null ? statistics.getMisses() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return cache.getLocalEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        CacheStatistics statistics = remoteStatistics();
+        return statistics != null ? statistics.getPuts() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.local.gets", cache, NearCache::getLocalHits)
+                .tags(getTagsWithCacheName()).tag("result", "hit")
+                .description("Reads answered from the local tier")
+                .register(registry);
+        FunctionCounter.builder("cache.local.gets", cache, NearCache::getLocalMisses)
+                .tags(getTagsWithCacheName()).tag("result", "miss")
+                .description("Reads passed on to Redis")
+                .register(registry);
+    }
+
+    private CacheStatistics remoteStatistics() {
+        return cache.getRemote() instanceof RedisCache ? ((RedisCache) cache.getRemote()).getStatistics() : null;
+    }
+}
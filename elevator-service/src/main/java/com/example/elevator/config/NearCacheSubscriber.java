@@ -0,0 +1,71 @@
+package com.example.elevator.config;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Subscribes the near cache manager to its invalidation channel.
+ * The service starts without Redis (cache calls fail until it is reachable), but a listener container cannot
+ * start without a connection, so subscribing is retried in the background instead of failing startup. Once
+ * subscribed, the container reconnects by itself.
+ */
+public class NearCacheSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheSubscriber.class);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final NearCacheManager cacheManager;
+
+    private RedisMessageListenerContainer container;
+
+    public NearCacheSubscriber(RedisConnectionFactory connectionFactory, NearCacheManager cacheManager) {
+        this.connectionFactory = connectionFactory;
+        this.cacheManager = cacheManager;
+    }
+
+    @Scheduled(fixedDelayString = "${elevator.cache.subscribe-retry-ms:5000}")
+    public synchronized void subscribe() {
+        if (container != null) {
+            return;
+        }
+        RedisMessageListenerContainer candidate = new RedisMessageListenerContainer();
+        candidate.setConnectionFactory(connectionFactory);
+        candidate.addMessageListener(cacheManager, new ChannelTopic(cacheManager.getChannel()));
+        try {
+            candidate.afterPropertiesSet();
+            candidate.start();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot subscribe to cache invalidations yet: {}", e.getMessage());
+            destroy(candidate);
+            return;
+        }
+        container = candidate;
+        // Anything written elsewhere before now went unannounced here
+        cacheManager.clearLocal();
+    }
+
+    public synchronized boolean isSubscribed() {
+        return container != null;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (container != null) {
+            destroy(container);
+            container = null;
+        }
+    }
+
+    private static void destroy(RedisMessageListenerContainer container) {
+        try {
+            container.destroy();
+        } catch (Exception e) {
+            logger.debug("Failed to shut down listener container: {}", e.getMessage());
+        }
+    }
+}
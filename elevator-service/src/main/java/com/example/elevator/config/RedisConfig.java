@@ -1,10 +1,94 @@
 package com.example.elevator.config;
 
+import com.example.elevator.model.Elevator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
     // Spring Boot auto-configuration handles Redis connection details from application.properties
-}
\ No newline at end of file
+
+    /**
+     * Two-tier caching: a bounded local tier on each node in front of Redis, kept coherent over pub/sub.
+     * Replaces Spring Boot's Redis cache manager, so the spring.cache.redis.* settings are applied here; with
+     * spring.cache.type set to anything else (the loadtest profile) Spring Boot's own cache manager is used.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "spring.cache", name = "type", havingValue = "redis", matchIfMissing = true)
+    @EnableConfigurationProperties(CacheProperties.class)
+    static class NearCacheConfig {
+
+        @Value("${elevator.cache.local.max-entries:10000}")
+        private int localMaxEntries;
+
+        @Value("${elevator.cache.local.ttl-ms:30000}")
+        private long localTtlMs;
+
+        @Value("${elevator.cache.invalidation-channel:elevator:cache:invalidation}")
+        private String invalidationChannel;
+
+        @Bean
+        public NearCacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate,
+                                             CacheProperties cacheProperties, ObjectMapper objectMapper) {
+            CacheProperties.Redis redis = cacheProperties.getRedis();
+            RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig();
+            if (redis.getTimeToLive() != null) {
+                defaults = defaults.entryTtl(redis.getTimeToLive());
+            }
+            if (redis.getKeyPrefix() != null) {
+                defaults = defaults.prefixCacheNameWith(redis.getKeyPrefix());
+            }
+            if (!redis.isCacheNullValues()) {
+                defaults = defaults.disableCachingNullValues();
+            }
+            if (!redis.isUseKeyPrefix()) {
+                defaults = defaults.disableKeyPrefix();
+            }
+            // Plain JSON of the entity's fields instead of JDK serialization, which also writes out class descriptors
+            RedisCacheConfiguration elevators = defaults.serializeValuesWith(
+                    SerializationPair.fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, Elevator.class)));
+
+            RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                    .cacheDefaults(defaults)
+                    .withCacheConfiguration("elevators", elevators);
+            if (!cacheProperties.getCacheNames().isEmpty()) {
+                builder.initialCacheNames(new LinkedHashSet<>(cacheProperties.getCacheNames()));
+            }
+            if (redis.isEnableStatistics()) {
+                builder.enableStatistics();
+            }
+            RedisCacheManager shared = builder.build();
+            shared.afterPropertiesSet();
+            return new NearCacheManager(shared, redisTemplate, invalidationChannel, localMaxEntries,
+                    Duration.ofMillis(localTtlMs));
+        }
+
+        @Bean
+        public NearCacheSubscriber nearCacheSubscriber(RedisConnectionFactory connectionFactory,
+                                                       NearCacheManager cacheManager) {
+            return new NearCacheSubscriber(connectionFactory, cacheManager);
+        }
+
+        @Bean
+        public CacheMeterBinderProvider<NearCache> nearCacheMeterBinderProvider() {
+            return NearCacheMetrics::new;
+        }
+    }
+}
@@ -50,11 +50,13 @@ public class SecurityConfig {
                 .requestMatchers("/api/elevators/assign").hasRole("ADMIN")
                 .requestMatchers("/api/elevators/*/repair").hasRole("ADMIN")
                 .requestMatchers("/api/elevators/optimise").hasRole("ADMIN")
-                .requestMatchers("/api/elevators/logs").hasRole("ADMIN")
+                .requestMatchers("/api/elevators/logs", "/api/elevators/logs/scroll", "/api/elevators/logs/import").hasRole("ADMIN")
+                .requestMatchers("/api/elevators/requests/import").hasRole("ADMIN")
                 .requestMatchers("/api/elevators/*/fault").hasRole("ADMIN")
                 // Passenger (and Admin) endpoints
                 .requestMatchers("/api/elevators/request").hasAnyRole("PASSENGER", "ADMIN")
                 .requestMatchers("/api/elevators/status").hasAnyRole("PASSENGER", "ADMIN")
+                .requestMatchers("/api/elevators/requests/eta", "/api/elevators/requests/*/eta").hasAnyRole("PASSENGER", "ADMIN")
                 .requestMatchers("/api/elevators/**").authenticated()
                 .anyRequest().authenticated()
             )
@@ -66,7 +68,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public UserDetailsService userDetailsService() {
+    public static UserDetailsService userDetailsService() {
         UserDetails admin = User.builder()
                 .username("admin")
                 .password(passwordEncoder().encode("admin"))
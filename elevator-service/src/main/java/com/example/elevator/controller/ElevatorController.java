@@ -1,29 +1,42 @@
 package com.example.elevator.controller;
 
-import com.example.elevator.dto.ElevatorStatusDTO;
+import com.example.elevator.dto.CursorSliceDTO;
+import com.example.elevator.dto.RequestEtaDTO;
+import com.example.elevator.exception.ResourceNotFoundException;
 import com.example.elevator.model.Elevator;
 import com.example.elevator.model.ElevatorLog;
 import com.example.elevator.model.ElevatorRequest;
 import com.example.elevator.repository.ElevatorRequestRepository;
+import com.example.elevator.service.BulkIngestService;
 import com.example.elevator.service.ElevatorService;
+import com.example.elevator.service.EtaService;
+import com.example.elevator.service.HallCallService;
 import com.example.elevator.service.HealthMonitorService;
 import com.example.elevator.service.KafkaProducerService;
+import com.example.elevator.service.ScrollCursor;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/elevators")
 @RateLimiter(name = "default")
 public class ElevatorController {
 
+    private static final int MAX_SLICE_SIZE = 1000;
+
     @Autowired
     private ElevatorService elevatorService;
 
@@ -36,14 +49,24 @@ public class ElevatorController {
     @Autowired
     private KafkaProducerService kafkaProducerService;
 
+    @Autowired
+    private EtaService etaService;
+
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private HallCallService hallCallService;
+
     @GetMapping
     public List<Elevator> getAllElevators() {
         return elevatorService.getAllElevators();
     }
 
-    @GetMapping("/status")
-    public List<ElevatorStatusDTO> getAllElevatorsStatus() {
-        return elevatorService.getAllElevatorsStatus();
+    // Written out pre-serialized from the status view; no query and no Jackson on this path
+    @GetMapping(value = "/status", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllElevatorsStatus() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(elevatorService.getAllElevatorsStatusJson());
     }
 
     @GetMapping("/{id}")
@@ -63,7 +86,8 @@ public class ElevatorController {
 
     @PostMapping("/request")
     public ElevatorRequest requestElevator(@RequestBody ElevatorRequest request) {
-        return requestRepository.save(request);
+        // Either a new request, dispatched right away, or the hall call this rider joined, with the rider's destination
+        return hallCallService.accept(request);
     }
 
     @PostMapping("/{id}/fault")
@@ -102,22 +126,87 @@ public class ElevatorController {
     public Page<ElevatorLog> getLogs(@RequestParam(defaultValue = "0") int page,
                                      @RequestParam(defaultValue = "10") int size,
                                      @RequestParam(defaultValue = "id") String sortBy,
-                                     @RequestParam(defaultValue = "desc") String sortDir) {
+                                     @RequestParam(defaultValue = "desc") String sortDir,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return elevatorService.getLogs(pageable);
+        return elevatorService.getLogs(from, to, pageable);
+    }
+
+    @PostMapping("/logs/import")
+    public ResponseEntity<String> importLogs(@RequestBody List<ElevatorLog> logs) {
+        int imported = bulkIngestService.importLogs(logs);
+        return ResponseEntity.ok("Imported " + imported + " log entries");
+    }
+
+    // Keyset paging: costs the same at any depth and runs no count query, e.g. for operators scrolling far back
+    @GetMapping("/logs/scroll")
+    public CursorSliceDTO<ElevatorLog> scrollLogs(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int size,
+                                                  @RequestParam(required = false) Long elevatorId,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Slice<ElevatorLog> slice = elevatorService.getLogSlice(elevatorId, from, to, cursor, sliceSize(size));
+        return toCursorSlice(slice, log -> new ScrollCursor(log.getTimestamp(), log.getId()));
+    }
+
+    @GetMapping("/requests/{id}")
+    public ElevatorRequest getRequest(@PathVariable Long id) {
+        return requestRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Request", "id", id));
+    }
+
+    @GetMapping("/requests/{id}/eta")
+    public RequestEtaDTO getRequestEta(@PathVariable Long id, @RequestParam(required = false) Integer destinationFloor) {
+        return etaService.getEta(id, destinationFloor);
+    }
+
+    // Batch variant for lobby displays, e.g. /requests/eta?ids=1,2,3
+    @GetMapping("/requests/eta")
+    public List<RequestEtaDTO> getRequestEtas(@RequestParam List<Long> ids) {
+        return etaService.getEtas(ids);
     }
 
     @GetMapping("/requests/history")
     public Page<ElevatorRequest> getRequestHistory(@RequestParam(defaultValue = "0") int page,
                                                    @RequestParam(defaultValue = "10") int size,
                                                    @RequestParam(defaultValue = "requestTime") String sortBy,
-                                                   @RequestParam(defaultValue = "desc") String sortDir) {
+                                                   @RequestParam(defaultValue = "desc") String sortDir,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return requestRepository.findAll(pageable);
+        return elevatorService.getRequestHistory(from, to, pageable);
+    }
+
+    // Completed trips recorded elsewhere, e.g. to seed traffic prediction; they are stored, not dispatched
+    @PostMapping("/requests/import")
+    public ResponseEntity<String> importRequests(@RequestBody List<ElevatorRequest> requests) {
+        int imported = bulkIngestService.importRequests(requests);
+        return ResponseEntity.ok("Imported " + imported + " requests");
+    }
+
+    @GetMapping("/requests/history/scroll")
+    public CursorSliceDTO<ElevatorRequest> scrollRequestHistory(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "50") int size,
+                                                                @RequestParam(required = false) Long elevatorId,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Slice<ElevatorRequest> slice = elevatorService.getRequestHistorySlice(elevatorId, from, to, cursor, sliceSize(size));
+        return toCursorSlice(slice, request -> new ScrollCursor(request.getRequestTime(), request.getId()));
+    }
+
+    private static int sliceSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_SLICE_SIZE));
+    }
+
+    private static <T> CursorSliceDTO<T> toCursorSlice(Slice<T> slice, Function<T, ScrollCursor> cursorOf) {
+        List<T> content = slice.getContent();
+        String next = slice.hasNext() ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorSliceDTO<>(content, slice.hasNext(), next);
     }
 
     @GetMapping("/optimise")
@@ -0,0 +1,16 @@
+package com.example.elevator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorSliceDTO<T> {
+    private List<T> content;
+    private boolean hasNext;
+    private String nextCursor; // Pass back as cursor, with the same filters, for the next slice; null on the last one
+}
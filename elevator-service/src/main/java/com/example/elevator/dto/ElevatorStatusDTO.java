@@ -15,4 +15,5 @@ public class ElevatorStatusDTO {
     private ElevatorStatus status;
     private Direction direction;
     private boolean isOperational;
+    private String bank;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.elevator.dto;
+
+import com.example.elevator.model.RequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RequestEtaDTO {
+
+    public enum Basis {
+        ROUTE,         // From the assigned car's queued stops
+        DISPATCH_COST, // Not assigned yet; from the car the dispatcher would pick right now
+        UNAVAILABLE    // No car can serve the request at the moment
+    }
+
+    private Long requestId;
+    private RequestStatus status;
+    private Long elevatorId;
+    private Integer destinationFloor;   // The drop-off the times are for; a joined rider's may differ from the request's
+    private LocalDateTime pickupTime;   // Null once the car has reached the pickup floor
+    private LocalDateTime dropoffTime;  // Null once the car has reached the destination floor
+    private Long pickupInSeconds;
+    private Long dropoffInSeconds;
+    private Basis basis;
+}
@@ -0,0 +1,12 @@
+package com.example.elevator.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class LogImportNotSupportedException extends RuntimeException {
+
+    public LogImportNotSupportedException() {
+        super("Log entries cannot be imported while the log is kept in the event journal (elevator.log.backend=JOURNAL)");
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.elevator.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class NotLeaderException extends RuntimeException {
+
+    public NotLeaderException() {
+        super("This node is on standby; changes to the fleet are made by the leader");
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.elevator.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -14,10 +18,20 @@ import java.time.LocalDateTime;
 @Entity
 @Data
 public class Elevator implements Serializable {
+    // Bank of cars and requests that have no bank set, e.g. everything created before banks existed
+    public static final String DEFAULT_BANK = "main";
+
+    // Pooled sequence like the other entities; a small block, as cars are few and ids are shown to operators
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "elevator_seq")
+    @SequenceGenerator(name = "elevator_seq", sequenceName = "elevator_seq", allocationSize = 10)
     private Long id;
     private int currentFloor;
+
+    // Building or bank of cars sharing the same floors; dispatch is sharded by it
+    @Column(nullable = false)
+    @ColumnDefault("'" + DEFAULT_BANK + "'")
+    private String bank;
     
     @Enumerated(EnumType.STRING)
     private ElevatorStatus status; 
@@ -32,8 +46,13 @@ public class Elevator implements Serializable {
     private LocalDateTime lastHeartbeat; // For health monitoring
     private boolean ecoMode = false; // For energy optimization
 
+    // Optimistic locking: a write based on an outdated copy of the row fails instead of overwriting newer state
+    @Version
+    private Long version;
+
     public Elevator() {
         this.currentFloor = 0;
+        this.bank = DEFAULT_BANK;
         this.status = ElevatorStatus.IDLE;
         this.direction = Direction.STOPPED;
         this.capacity = 10; // Default capacity
@@ -41,4 +60,12 @@ public class Elevator implements Serializable {
         this.isOperational = true;
         this.lastHeartbeat = LocalDateTime.now();
     }
+
+    public void setBank(String bank) {
+        this.bank = bankOrDefault(bank);
+    }
+
+    public static String bankOrDefault(String bank) {
+        return bank == null || bank.isBlank() ? DEFAULT_BANK : bank;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.elevator.model;
+
+import lombok.Value;
+import lombok.With;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One entry of the elevator audit log in structured form.
+ * The database backend stores it as an {@link ElevatorLog} with a rendered message; the journal backend stores the
+ * fields themselves as a fixed-size binary record, which is why everything but {@code detail} is a number.
+ */
+@Value
+@With
+public class ElevatorEvent {
+    long timestamp;        // Epoch millis
+    Long elevatorId;
+    ElevatorEventType type;
+    int floor;
+    Long requestId;
+    long value;            // Type-specific number, see ElevatorEventType
+    String detail;         // Free text kept by the database backend only, e.g. an error message
+
+    public static ElevatorEvent of(ElevatorEventType type, Long elevatorId) {
+        return new ElevatorEvent(System.currentTimeMillis(), elevatorId, type, 0, null, 0, null);
+    }
+
+    public static ElevatorEvent atFloor(ElevatorEventType type, Long elevatorId, int floor) {
+        return of(type, elevatorId).withFloor(floor);
+    }
+
+    public static ElevatorEvent forRequest(ElevatorEventType type, Long elevatorId, Long requestId) {
+        return of(type, elevatorId).withRequestId(requestId);
+    }
+
+    public String getMessage() {
+        return type.describe(this);
+    }
+
+    public ElevatorLog toLog() {
+        ElevatorLog log = new ElevatorLog(elevatorId, getMessage());
+        log.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()));
+        return log;
+    }
+}
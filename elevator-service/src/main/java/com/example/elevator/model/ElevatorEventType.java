@@ -0,0 +1,65 @@
+package com.example.elevator.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Function;
+
+/**
+ * Kinds of elevator events recorded in the audit log, each with a stable numeric code for the binary journal
+ * and the message shown for it in GET /logs.
+ * Codes are persisted: never renumber a constant, only add new ones.
+ */
+public enum ElevatorEventType {
+    MOVING(1, e -> "Moving to floor " + e.getFloor()),
+    STOPPED(2, e -> "Stopped at floor " + e.getFloor()),
+    SIMULATION_STARTED(3, e -> "Simulation started to floor " + e.getFloor()),
+    ASSIGNED(4, e -> "Assigned request ID: " + e.getRequestId()),
+    MANUALLY_ASSIGNED(5, e -> "Manually assigned request ID: " + e.getRequestId()),
+    ASSIGNMENT_FAILED(6, e -> "Failed to assign request ID: " + e.getRequestId() + ". Circuit Breaker Open."
+            + (e.getDetail() != null ? " Error: " + e.getDetail() : "")),
+    FAULT_REPORTED(7, e -> "Reported fault. Status: OUT_OF_SERVICE"),
+    REPAIRED(8, e -> "Elevator repaired. Status: IDLE"),
+    // value: epoch millis of the last heartbeat, 0 if there never was one
+    HEARTBEAT_LOST(9, e -> "Watchdog: Elevator marked OUT_OF_SERVICE due to missing heartbeat. Last heartbeat: "
+            + (e.getValue() == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(e.getValue()), ZoneId.systemDefault()))),
+    RESTART_ATTEMPTED(10, e -> "Watchdog: Attempting to restart elevator..."),
+    RESTARTED(11, e -> "Watchdog: Elevator successfully restarted and is now IDLE."),
+    RECOVERED(12, e -> "Health Monitor: Elevator recovered. Back online."),
+    ECO_MODE_ON(13, e -> "Energy Optimization: Enabled Eco Mode (Parked)."),
+    ECO_MODE_OFF(14, e -> "Energy Optimization: Disabled Eco Mode (Active)."),
+    // value: number of pending requests the car was sent to serve
+    MOVED_TO_HOTSPOT(15, e -> "Traffic Optimization: Moved to hotspot floor " + e.getFloor()
+            + " to serve " + e.getValue() + " pending requests.");
+
+    private static final ElevatorEventType[] BY_CODE = new ElevatorEventType[16];
+
+    static {
+        for (ElevatorEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final Function<ElevatorEvent, String> message;
+
+    ElevatorEventType(int code, Function<ElevatorEvent, String> message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String describe(ElevatorEvent event) {
+        return message.apply(event);
+    }
+
+    /**
+     * @return the type with this code, or null for an unknown code (e.g. a journal written by a newer version).
+     */
+    public static ElevatorEventType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
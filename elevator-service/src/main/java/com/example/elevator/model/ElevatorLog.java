@@ -4,17 +4,28 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Entity
+// Time-range queries, keyset paging and retention go by (timestamp, id); on PostgreSQL the table is also
+// partitioned by month on timestamp
+@Table(indexes = {
+        @Index(name = "idx_elevator_log_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_elevator_log_elevator_timestamp_id", columnList = "elevatorId, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 public class ElevatorLog {
+    // Pooled sequence rather than IDENTITY: ids are known before the insert, so entries can be written in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "elevator_log_seq")
+    @SequenceGenerator(name = "elevator_log_seq", sequenceName = "elevator_log_seq", allocationSize = 50)
     private Long id;
     private Long elevatorId;
     private String message;
@@ -1,32 +1,76 @@
 package com.example.elevator.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_elevator_request_status", columnList = "status"),
+        // History queries, keyset paging and retention go by (requestTime, id); on PostgreSQL the table is also
+        // partitioned by month on requestTime
+        @Index(name = "idx_elevator_request_request_time_id", columnList = "requestTime, id"),
+        @Index(name = "idx_elevator_request_elevator_request_time_id", columnList = "assignedElevatorId, requestTime, id")
+})
 @Data
 public class ElevatorRequest {
+    // Pooled sequence rather than IDENTITY: ids are known before the insert, so requests can be written in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "elevator_request_seq")
+    @SequenceGenerator(name = "elevator_request_seq", sequenceName = "elevator_request_seq", allocationSize = 50)
     private Long id;
     private int sourceFloor;
     private int destinationFloor;
+
+    // Bank whose cars serve the request; only they are considered for it
+    @Column(nullable = false)
+    @ColumnDefault("'" + Elevator.DEFAULT_BANK + "'")
+    private String bank;
+
     private LocalDateTime requestTime;
+
+    @ColumnDefault("0")
+    private int priority; // Higher is dispatched first, e.g. fire service or accessibility calls
+
+    @ColumnDefault("1")
+    private int riderCount; // Presses merged into this hall call, including the first
+
+    // Drop-off floors of riders who joined the call going elsewhere; queued on its car along with the destination.
+    // Written with each join, so a restarted or new leader still stops there
+    @Convert(converter = FloorSetConverter.class)
+    @JsonIgnore
+    private Set<Integer> additionalDestinations = new TreeSet<>();
     
     @Enumerated(EnumType.STRING)
     private RequestStatus status; 
     
     private Long assignedElevatorId; // Track which elevator is assigned
+    private LocalDateTime assignedTime; // When the dispatcher committed to a car
+    private Long fencingToken; // Leadership term the assignment was made in; a later term's assignment wins
 
     public ElevatorRequest() {
+        this.bank = Elevator.DEFAULT_BANK;
         this.requestTime = LocalDateTime.now();
         this.status = RequestStatus.PENDING;
+        this.riderCount = 1;
+    }
+
+    public void setBank(String bank) {
+        this.bank = Elevator.bankOrDefault(bank);
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.example.elevator.model;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable in-memory snapshot of a single elevator.
+ * The fleet state store keeps one of these per car so that hot paths never touch the database.
+ * {@code version} counts the snapshots the store has installed for the car and is what its compare-and-set checks;
+ * {@code rowVersion} is the entity's optimistic-locking version as last read from or written to the database.
+ */
+@Value
+@With
+@Builder(toBuilder = true)
+public class ElevatorState {
+    Long id;
+    @Builder.Default
+    String bank = Elevator.DEFAULT_BANK;
+    int currentFloor;
+    ElevatorStatus status;
+    Direction direction;
+    int capacity;
+    int currentLoad;
+    boolean operational;
+    boolean ecoMode;
+    LocalDateTime lastHeartbeat;
+    LocalDateTime lastMaintenanceDate;
+
+    // Extent of the car's queued stops; lowestStop/highestStop are only meaningful when stopCount > 0
+    int stopCount;
+    int lowestStop;
+    int highestStop;
+
+    long version;
+    Long rowVersion;
+
+    public static ElevatorState from(Elevator elevator) {
+        return ElevatorState.builder()
+                .id(elevator.getId())
+                .bank(elevator.getBank())
+                .currentFloor(elevator.getCurrentFloor())
+                .status(elevator.getStatus())
+                .direction(elevator.getDirection())
+                .capacity(elevator.getCapacity())
+                .currentLoad(elevator.getCurrentLoad())
+                .operational(elevator.isOperational())
+                .ecoMode(elevator.isEcoMode())
+                .lastHeartbeat(elevator.getLastHeartbeat())
+                .lastMaintenanceDate(elevator.getLastMaintenanceDate())
+                .rowVersion(elevator.getVersion())
+                .build();
+    }
+
+    /**
+     * Creates a detached entity carrying this snapshot, for write-through persistence.
+     */
+    public Elevator toEntity() {
+        Elevator elevator = new Elevator();
+        elevator.setId(id);
+        elevator.setBank(bank);
+        elevator.setCurrentFloor(currentFloor);
+        elevator.setStatus(status);
+        elevator.setDirection(direction);
+        elevator.setCapacity(capacity);
+        elevator.setCurrentLoad(currentLoad);
+        elevator.setOperational(operational);
+        elevator.setEcoMode(ecoMode);
+        elevator.setLastHeartbeat(lastHeartbeat);
+        elevator.setLastMaintenanceDate(lastMaintenanceDate);
+        elevator.setVersion(rowVersion);
+        return elevator;
+    }
+
+    public boolean hasStops() {
+        return stopCount > 0;
+    }
+
+    /**
+     * Direction the car is travelling in. A stopped car with queued stops counts as heading for the nearer end.
+     */
+    public Direction getTravelDirection() {
+        if (status == ElevatorStatus.MOVING_UP) return Direction.UP;
+        if (status == ElevatorStatus.MOVING_DOWN) return Direction.DOWN;
+        if (stopCount > 0) {
+            if (lowestStop >= currentFloor && highestStop > currentFloor) return Direction.UP;
+            if (highestStop <= currentFloor && lowestStop < currentFloor) return Direction.DOWN;
+            if (lowestStop < currentFloor && highestStop > currentFloor) {
+                return highestStop - currentFloor <= currentFloor - lowestStop ? Direction.UP : Direction.DOWN;
+            }
+        }
+        return Direction.STOPPED;
+    }
+
+    /**
+     * Whether the scheduler may hand this car a new request (operational, not full, not parked).
+     */
+    public boolean isDispatchable() {
+        return operational && currentLoad < capacity && !ecoMode;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.elevator.model;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Cars bucketed by floor, in one sorted map per direction of travel plus one for all cars, for "which cars are
+ * near floor f" queries.
+ * A nearest-car lookup starts at the bucket for f and walks outwards one occupied floor at a time, so it costs
+ * O(log floors) plus the cars it actually looks at, however large the fleet is.
+ */
+public class FloorIndex {
+
+    private final NavigableMap<Integer, Set<Long>> all = new TreeMap<>();
+    private final Map<Direction, NavigableMap<Integer, Set<Long>>> byDirection = new EnumMap<>(Direction.class);
+
+    public FloorIndex() {
+        for (Direction direction : Direction.values()) {
+            byDirection.put(direction, new TreeMap<>());
+        }
+    }
+
+    public synchronized void add(Long id, int floor, Direction travel) {
+        all.computeIfAbsent(floor, key -> new TreeSet<>()).add(id);
+        byDirection.get(travel).computeIfAbsent(floor, key -> new TreeSet<>()).add(id);
+    }
+
+    public synchronized void remove(Long id, int floor, Direction travel) {
+        removeFrom(all, id, floor);
+        removeFrom(byDirection.get(travel), id, floor);
+    }
+
+    /**
+     * Up to {@code limit} accepted cars closest to the floor, nearest first. Equally distant cars are
+     * returned lower floor first, then by id.
+     *
+     * @param travel only cars travelling this way, or null for any direction
+     * @param accept filter applied to each car before it counts towards the limit
+     */
+    public synchronized List<Long> nearest(int floor, Direction travel, int limit, Predicate<Long> accept) {
+        return walk(floors(travel), floor, Integer.MAX_VALUE, limit, accept);
+    }
+
+    /**
+     * All accepted cars within {@code radius} floors, nearest first.
+     */
+    public synchronized List<Long> within(int floor, int radius, Direction travel, Predicate<Long> accept) {
+        return walk(floors(travel), floor, radius, Integer.MAX_VALUE, accept);
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (Set<Long> ids : all.values()) {
+            size += ids.size();
+        }
+        return size;
+    }
+
+    private NavigableMap<Integer, Set<Long>> floors(Direction travel) {
+        return travel == null ? all : byDirection.get(travel);
+    }
+
+    // Visits occupied floors in order of distance, alternating between the nearest one below and above
+    private static List<Long> walk(NavigableMap<Integer, Set<Long>> floors, int floor, int radius, int limit,
+                                   Predicate<Long> accept) {
+        List<Long> result = new ArrayList<>();
+        if (limit <= 0 || radius < 0) {
+            return result;
+        }
+        Map.Entry<Integer, Set<Long>> below = floors.floorEntry(floor);
+        Map.Entry<Integer, Set<Long>> above = floors.higherEntry(floor);
+        while (true) {
+            boolean belowInRange = below != null && (long) floor - below.getKey() <= radius;
+            boolean aboveInRange = above != null && (long) above.getKey() - floor <= radius;
+            if (!belowInRange && !aboveInRange) {
+                return result;
+            }
+            Map.Entry<Integer, Set<Long>> next;
+            if (!aboveInRange || (belowInRange && floor - below.getKey() <= above.getKey() - floor)) {
+                next = below;
+                below = floors.lowerEntry(below.getKey());
+            } else {
+                next = above;
+                above = floors.higherEntry(above.getKey());
+            }
+            for (Long id : next.getValue()) {
+                if (accept.test(id)) {
+                    result.add(id);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void removeFrom(NavigableMap<Integer, Set<Long>> floors, Long id, int floor) {
+        Set<Long> ids = floors.get(floor);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            floors.remove(floor);
+        }
+    }
+}
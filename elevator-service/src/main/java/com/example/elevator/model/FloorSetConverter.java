@@ -0,0 +1,38 @@
+package com.example.elevator.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+
+/**
+ * Stores a set of floors as one comma-separated column, e.g. "3,7,9", so it is read and written with its row.
+ */
+@Converter
+public class FloorSetConverter implements AttributeConverter<Set<Integer>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Set<Integer> floors) {
+        if (floors == null || floors.isEmpty()) {
+            return null;
+        }
+        StringJoiner column = new StringJoiner(",");
+        for (Integer floor : floors) {
+            column.add(floor.toString());
+        }
+        return column.toString();
+    }
+
+    @Override
+    public Set<Integer> convertToEntityAttribute(String column) {
+        Set<Integer> floors = new TreeSet<>();
+        if (column != null && !column.isEmpty()) {
+            for (String floor : column.split(",")) {
+                floors.add(Integer.valueOf(floor.trim()));
+            }
+        }
+        return floors;
+    }
+}
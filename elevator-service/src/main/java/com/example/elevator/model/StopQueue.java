@@ -0,0 +1,208 @@
+package com.example.elevator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted set of floors a single car still has to stop at, split into an up sweep and a down sweep.
+ * Stops are served in LOOK order: keep going in the current direction while there is anything
+ * left ahead, then turn around. All operations are O(log n) in the number of queued stops.
+ * Each stop counts the riders that asked for it, so taking one request off the car leaves a stop
+ * another rider still needs.
+ */
+public class StopQueue {
+
+    // Floor -> number of riders waiting for that stop
+    private final NavigableMap<Integer, Integer> upSweep = new TreeMap<>();
+    private final NavigableMap<Integer, Integer> downSweep = new TreeMap<>();
+
+    /**
+     * Queues the pickup and drop-off floors of a request on the sweep matching its travel direction.
+     */
+    public synchronized void addRequest(int sourceFloor, int destinationFloor) {
+        Direction sweep = destinationFloor < sourceFloor ? Direction.DOWN : Direction.UP;
+        add(sourceFloor, sweep);
+        add(destinationFloor, sweep);
+    }
+
+    public synchronized void add(int floor, Direction sweep) {
+        sweep(sweep).merge(floor, 1, Integer::sum);
+    }
+
+    /**
+     * Takes back the pickup and drop-off queued by {@link #addRequest}, e.g. when the request moves to another car.
+     */
+    public synchronized void removeRequest(int sourceFloor, int destinationFloor) {
+        Direction sweep = destinationFloor < sourceFloor ? Direction.DOWN : Direction.UP;
+        remove(sourceFloor, sweep);
+        remove(destinationFloor, sweep);
+    }
+
+    /**
+     * Takes back one rider's stop; the car still stops there if others asked for it too.
+     *
+     * @return true if the floor was queued on that sweep.
+     */
+    public synchronized boolean remove(int floor, Direction sweep) {
+        NavigableMap<Integer, Integer> stops = sweep(sweep);
+        Integer riders = stops.get(floor);
+        if (riders == null) {
+            return false;
+        }
+        if (riders > 1) {
+            stops.put(floor, riders - 1);
+        } else {
+            stops.remove(floor);
+        }
+        return true;
+    }
+
+    /**
+     * The floor the car should head for next, or null if there is nothing left to serve.
+     *
+     * @param currentFloor the car's floor
+     * @param travel       the car's current direction of travel
+     */
+    public synchronized Integer next(int currentFloor, Direction travel) {
+        if (isEmpty()) {
+            return null;
+        }
+        if (travel == Direction.UP) {
+            Integer ahead = nextGoingUp(currentFloor);
+            return ahead != null ? ahead : nextGoingDown(currentFloor);
+        }
+        if (travel == Direction.DOWN) {
+            Integer ahead = nextGoingDown(currentFloor);
+            return ahead != null ? ahead : nextGoingUp(currentFloor);
+        }
+        // A stopped car starts towards whichever stop is closer
+        Integer up = nextGoingUp(currentFloor);
+        Integer down = nextGoingDown(currentFloor);
+        if (up == null) return down;
+        if (down == null) return up;
+        return up - currentFloor <= currentFloor - down ? up : down;
+    }
+
+    /**
+     * Clears the stop at the given floor on the sweep the car is serving. A stop on the other sweep stays queued for
+     * when the car comes back the other way, unless the car turns around here anyway.
+     *
+     * @param floor  the floor reached
+     * @param travel the direction the car reached it in
+     * @return true if the car had a stop there.
+     */
+    public synchronized boolean arrive(int floor, Direction travel) {
+        if (travel == Direction.STOPPED) {
+            travel = departure(floor);
+        }
+        boolean served = sweep(travel).remove(floor) != null;
+        if (!hasAhead(floor, travel)) {
+            served |= sweep(travel == Direction.UP ? Direction.DOWN : Direction.UP).remove(floor) != null;
+        }
+        return served;
+    }
+
+    /**
+     * Whether a stop is queued at the floor on the given sweep.
+     */
+    public synchronized boolean has(int floor, Direction sweep) {
+        return sweep(sweep).containsKey(floor);
+    }
+
+    /**
+     * Every queued stop in the order the car will reach them if nothing else is queued, without changing the queue.
+     *
+     * @param currentFloor the car's floor
+     * @param travel       the car's current direction of travel
+     */
+    public synchronized List<Integer> route(int currentFloor, Direction travel) {
+        StopQueue remaining = new StopQueue();
+        remaining.upSweep.putAll(upSweep);
+        remaining.downSweep.putAll(downSweep);
+        List<Integer> route = new ArrayList<>(size());
+        int floor = currentFloor;
+        Integer stop;
+        while ((stop = remaining.next(floor, travel)) != null) {
+            route.add(stop);
+            if (stop != floor) {
+                // A car keeps its direction after serving a stop, as the movement engine does
+                travel = stop > floor ? Direction.UP : Direction.DOWN;
+            }
+            remaining.arrive(stop, travel);
+            floor = stop;
+        }
+        return route;
+    }
+
+    public synchronized boolean isEmpty() {
+        return upSweep.isEmpty() && downSweep.isEmpty();
+    }
+
+    public synchronized int size() {
+        return upSweep.size() + downSweep.size();
+    }
+
+    public synchronized int lowest() {
+        if (upSweep.isEmpty()) return downSweep.firstKey();
+        if (downSweep.isEmpty()) return upSweep.firstKey();
+        return Math.min(upSweep.firstKey(), downSweep.firstKey());
+    }
+
+    public synchronized int highest() {
+        if (upSweep.isEmpty()) return downSweep.lastKey();
+        if (downSweep.isEmpty()) return upSweep.lastKey();
+        return Math.max(upSweep.lastKey(), downSweep.lastKey());
+    }
+
+    private NavigableMap<Integer, Integer> sweep(Direction direction) {
+        return direction == Direction.DOWN ? downSweep : upSweep;
+    }
+
+    private Integer nextGoingUp(int currentFloor) {
+        Integer stop = upSweep.ceilingKey(currentFloor);
+        if (stop != null) {
+            return stop;
+        }
+        // Nothing more on the up sweep: climb to the top of the down sweep and turn there
+        if (!downSweep.isEmpty() && downSweep.lastKey() >= currentFloor) {
+            return downSweep.lastKey();
+        }
+        return null;
+    }
+
+    private Integer nextGoingDown(int currentFloor) {
+        Integer stop = downSweep.floorKey(currentFloor);
+        if (stop != null) {
+            return stop;
+        }
+        if (!upSweep.isEmpty() && upSweep.firstKey() <= currentFloor) {
+            return upSweep.firstKey();
+        }
+        return null;
+    }
+
+    // Whether the car still has somewhere to go past this floor before it has to turn around
+    private boolean hasAhead(int floor, Direction travel) {
+        if (travel == Direction.UP) {
+            return upSweep.higherKey(floor) != null || (!downSweep.isEmpty() && downSweep.lastKey() > floor);
+        }
+        return downSweep.lowerKey(floor) != null || (!upSweep.isEmpty() && upSweep.firstKey() < floor);
+    }
+
+    // Which way a car standing at the floor sets off, so its riders board in that direction
+    private Direction departure(int floor) {
+        boolean up = upSweep.containsKey(floor);
+        boolean down = downSweep.containsKey(floor);
+        if (up != down) {
+            return up ? Direction.UP : Direction.DOWN;
+        }
+        Integer above = nextGoingUp(floor + 1);
+        Integer below = nextGoingDown(floor - 1);
+        if (above == null || below == null) {
+            return below != null ? Direction.DOWN : Direction.UP;
+        }
+        return above - floor <= floor - below ? Direction.UP : Direction.DOWN;
+    }
+}
@@ -1,7 +1,35 @@
 package com.example.elevator.repository;
 
 import com.example.elevator.model.ElevatorLog;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 public interface ElevatorLogRepository extends JpaRepository<ElevatorLog, Long> {
-}
\ No newline at end of file
+
+    // from inclusive, to exclusive; a bounded range lets PostgreSQL skip partitions outside it
+    Page<ElevatorLog> findByTimestampGreaterThanEqualAndTimestampLessThan(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    // Keyset page, newest first: entries in [from, before) plus those at exactly beforeTime with an id below beforeId.
+    // Served from the (timestamp, id) or (elevatorId, timestamp, id) index however deep the page; no count query.
+    @Query("select l from ElevatorLog l where (:elevatorId is null or l.elevatorId = :elevatorId)"
+            + " and l.timestamp >= :from and l.timestamp <= :beforeTime"
+            + " and (l.timestamp < :beforeTime or l.id < :beforeId)"
+            + " order by l.timestamp desc, l.id desc")
+    Slice<ElevatorLog> findSliceBefore(@Param("elevatorId") Long elevatorId, @Param("from") LocalDateTime from,
+                                       @Param("beforeTime") LocalDateTime beforeTime, @Param("beforeId") long beforeId,
+                                       Pageable pageable);
+
+    // Retention where the table is not partitioned
+    @Modifying
+    @Transactional
+    @Query("delete from ElevatorLog l where l.timestamp < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,7 +1,34 @@
 package com.example.elevator.repository;
 
+import com.example.elevator.model.Direction;
 import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface ElevatorRepository extends JpaRepository<Elevator, Long> {
-}
\ No newline at end of file
+
+    // Write-behind of a car's movement: touches only the movement columns, and only while the car is in service, so a
+    // late flush never overwrites a fault or undoes taking the car out of service
+    @Modifying
+    @Query("update Elevator e set e.currentFloor = :floor, e.status = :status, e.direction = :direction"
+            + " where e.id = :id and e.isOperational = true")
+    int updatePosition(@Param("id") Long id, @Param("floor") int floor, @Param("status") ElevatorStatus status,
+                       @Param("direction") Direction direction);
+
+    // A heartbeat taken by a standby node, recorded for the leader's watchdog without touching the rest of the row
+    @Modifying
+    @Transactional
+    @Query("update Elevator e set e.lastHeartbeat = :at where e.id = :id")
+    int recordHeartbeat(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    // Each car's id and last heartbeat, for the leader to pick up heartbeats recorded by standbys
+    @Query("select e.id, e.lastHeartbeat from Elevator e")
+    List<Object[]> findHeartbeats();
+}
@@ -2,9 +2,65 @@ package com.example.elevator.repository;
 
 import com.example.elevator.model.ElevatorRequest;
 import com.example.elevator.model.RequestStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 public interface ElevatorRequestRepository extends JpaRepository<ElevatorRequest, Long> {
     List<ElevatorRequest> findByStatus(RequestStatus status);
-}
\ No newline at end of file
+
+    List<ElevatorRequest> findByStatusAndAssignedTimeGreaterThanEqual(RequestStatus status, LocalDateTime since);
+
+    // Writes an assignment decided under the given fencing token. Refused (0 rows) once a leader with a later token
+    // has written the request and, unless reassigning, when it is no longer pending in the current term.
+    // The rider count only ever grows, so a count read before a rider joined cannot undo updateRiders()
+    @Modifying
+    @Transactional
+    @Query("update ElevatorRequest r set r.status = com.example.elevator.model.RequestStatus.ASSIGNED,"
+            + " r.assignedElevatorId = :elevatorId, r.assignedTime = :assignedTime,"
+            + " r.riderCount = case when r.riderCount < :riderCount then :riderCount else r.riderCount end,"
+            + " r.priority = :priority, r.fencingToken = :token"
+            + " where r.id = :id and (r.fencingToken is null or r.fencingToken <= :token)"
+            + " and (r.status = com.example.elevator.model.RequestStatus.PENDING or r.fencingToken < :token or :reassign = true)")
+    int assign(@Param("id") Long id, @Param("elevatorId") Long elevatorId, @Param("assignedTime") LocalDateTime assignedTime,
+               @Param("riderCount") int riderCount, @Param("priority") int priority, @Param("token") long token,
+               @Param("reassign") boolean reassign);
+
+    // Records riders who joined a hall call and their drop-offs, fenced like assign(). Touches nothing else on the
+    // request, so it cannot overwrite an assignment written meanwhile, and never lowers the count
+    @Modifying
+    @Transactional
+    @Query("update ElevatorRequest r set r.riderCount = :riderCount, r.additionalDestinations = :additionalDestinations"
+            + " where r.id = :id and (r.fencingToken is null or r.fencingToken <= :token) and r.riderCount < :riderCount")
+    int updateRiders(@Param("id") Long id, @Param("riderCount") int riderCount,
+                     @Param("additionalDestinations") Set<Integer> additionalDestinations, @Param("token") long token);
+
+    // from inclusive, to exclusive; a bounded range lets PostgreSQL skip partitions outside it
+    Page<ElevatorRequest> findByRequestTimeGreaterThanEqualAndRequestTimeLessThan(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    // Keyset page, newest first: requests in [from, before) plus those at exactly beforeTime with an id below beforeId.
+    // Served from the (requestTime, id) or (assignedElevatorId, requestTime, id) index however deep the page; no count query.
+    @Query("select r from ElevatorRequest r where (:elevatorId is null or r.assignedElevatorId = :elevatorId)"
+            + " and r.requestTime >= :from and r.requestTime <= :beforeTime"
+            + " and (r.requestTime < :beforeTime or r.id < :beforeId)"
+            + " order by r.requestTime desc, r.id desc")
+    Slice<ElevatorRequest> findSliceBefore(@Param("elevatorId") Long elevatorId, @Param("from") LocalDateTime from,
+                                           @Param("beforeTime") LocalDateTime beforeTime, @Param("beforeId") long beforeId,
+                                           Pageable pageable);
+
+    // Retention where the table is not partitioned; requests still waiting or riding are kept however old
+    @Modifying
+    @Transactional
+    @Query("delete from ElevatorRequest r where r.requestTime < :cutoff"
+            + " and r.status not in (com.example.elevator.model.RequestStatus.PENDING, com.example.elevator.model.RequestStatus.ASSIGNED)")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
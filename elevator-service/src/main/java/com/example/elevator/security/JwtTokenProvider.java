@@ -18,10 +18,24 @@ public class JwtTokenProvider {
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpirationDate;
 
+    // Building a parser scans the classpath for JSON/crypto providers, so build it once and share it (it is immutable)
+    private volatile JwtParser parser;
+
     private Key key() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
 
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder()
+                    .setSigningKey(key())
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
     public String generateToken(Authentication authentication) {
         String username = authentication.getName();
         Date currentDate = new Date();
@@ -36,9 +50,7 @@ public class JwtTokenProvider {
     }
 
     public String getUsername(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
+        Claims claims = parser()
                 .parseClaimsJws(token)
                 .getBody();
         return claims.getSubject();
@@ -46,10 +58,7 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parse(token);
+            parser().parse(token);
             return true;
         } catch (MalformedJwtException | ExpiredJwtException | UnsupportedJwtException | IllegalArgumentException e) {
             return false;
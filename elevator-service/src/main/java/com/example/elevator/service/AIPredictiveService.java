@@ -1,5 +1,6 @@
 package com.example.elevator.service;
 
+import com.example.elevator.model.Elevator;
 import com.example.elevator.model.ElevatorRequest;
 import com.example.elevator.repository.ElevatorRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,9 +8,9 @@ import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -23,30 +24,33 @@ public class AIPredictiveService {
     private ElevatorRequestRepository requestRepository;
 
     /**
-     * Predicts the next likely high-traffic floor (hotspot) based on historical data.
+     * Predicts the next likely high-traffic floor (hotspot) of each bank based on historical data.
      *
-     * @return An Optional containing the predicted hotspot floor, or empty if no prediction.
+     * @return The predicted hotspot floor per bank; banks without enough history to go on are left out.
      */
-    public Optional<Integer> predictHotspotFloor() {
+    public Map<String, Integer> predictHotspotFloors() {
         LocalDateTime now = LocalDateTime.now();
         DayOfWeek day = now.getDayOfWeek();
         int hour = now.getHour();
 
-        // Fetch historical requests for the same day of the week and hour
-        List<ElevatorRequest> historicalRequests = requestRepository.findAll().stream()
+        // Fetch historical requests for the same day of the week and hour, per bank
+        Map<String, List<ElevatorRequest>> historicalRequests = requestRepository.findAll().stream()
                 .filter(req -> req.getRequestTime().getDayOfWeek() == day && req.getRequestTime().getHour() == hour)
-                .collect(Collectors.toList());
-
-        if (historicalRequests.size() < 10) {
-            // Not enough data to make a confident prediction
-            return Optional.empty();
-        }
-
-        // Find the most requested source floor in this historical data slice
-        return historicalRequests.stream()
-                .collect(Collectors.groupingBy(ElevatorRequest::getSourceFloor, Collectors.counting()))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey);
+                .collect(Collectors.groupingBy(req -> Elevator.bankOrDefault(req.getBank())));
+
+        Map<String, Integer> hotspots = new HashMap<>();
+        historicalRequests.forEach((bank, requests) -> {
+            if (requests.size() < 10) {
+                // Not enough data to make a confident prediction
+                return;
+            }
+            // Find the most requested source floor in this historical data slice
+            requests.stream()
+                    .collect(Collectors.groupingBy(ElevatorRequest::getSourceFloor, Collectors.counting()))
+                    .entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .ifPresent(hotspot -> hotspots.put(bank, hotspot.getKey()));
+        });
+        return hotspots;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Elevator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Second stage of request assignment: persisting the decision and notifying clients.
+ * The dispatcher makes its decision in memory and hands the slow part (database writes, WebSocket
+ * broadcasts) to a small bounded executor, so a slow write no longer stalls dispatch for the fleet.
+ * Each bank has an executor of its own, a lane, like it has a dispatcher of its own: a bank whose writes back up
+ * only fills its own queue and occupies its own workers, and the other banks' assignments keep being written.
+ * When a lane's queue is full the submitting thread runs the task itself, which throttles dispatch in that bank
+ * instead of dropping writes. Once shut down a lane refuses tasks, which are then handled like failed writes.
+ */
+@Service
+public class AssignmentPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentPipeline.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Per bank
+    @Value("${elevator.assignment.persist-threads:2}")
+    private int persistThreads = 2;
+
+    // Per bank
+    @Value("${elevator.assignment.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    // Requests whose assignment is decided but not yet written; the sweep must not reassign them
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, ThreadPoolExecutor> lanes = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private Timer waitTimer;
+    private Timer persistTimer;
+    private Counter failures;
+    private Counter callerRuns;
+    private Counter rejected;
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.gauge("elevator.assignment.in.flight", inFlight, Set::size);
+        waitTimer = Timer.builder("elevator.assignment.persist.wait")
+                .description("Time an assignment waits for a persist worker")
+                .register(meterRegistry);
+        persistTimer = Timer.builder("elevator.assignment.persist.latency")
+                .description("Time taken to persist an assignment and notify clients")
+                .register(meterRegistry);
+        failures = meterRegistry.counter("elevator.assignment.persist.failures");
+        callerRuns = meterRegistry.counter("elevator.assignment.persist.caller.runs");
+        rejected = meterRegistry.counter("elevator.assignment.persist.rejected");
+        running = true;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        // Let queued writes finish so accepted assignments are not lost on shutdown
+        for (ThreadPoolExecutor lane : lanes.values()) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Map.Entry<String, ThreadPoolExecutor> lane : lanes.entrySet()) {
+            if (!lane.getValue().awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("{} assignment write(s) of bank {} still pending at shutdown",
+                        lane.getValue().getQueue().size(), lane.getKey());
+                lane.getValue().shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Queues the persistence of an assignment that has already been decided in memory, in the default bank's lane.
+     *
+     * @param requestId the request being assigned, tracked as in flight until the task completes
+     * @param task      the writes and notifications to run
+     */
+    public void submit(Long requestId, Runnable task) {
+        submit(Elevator.DEFAULT_BANK, requestId, task, () -> { });
+    }
+
+    /**
+     * Queues the persistence of an assignment in its bank's lane, with what to do if it cannot be written.
+     *
+     * @param bank      the bank of the request, whose lane runs the task
+     * @param onFailure run once the task has failed or been refused by a lane that is shut down, and the request is
+     *                  no longer in flight, e.g. to dispatch it again
+     */
+    public void submit(String bank, Long requestId, Runnable task, Runnable onFailure) {
+        if (requestId != null) {
+            inFlight.add(requestId);
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            lane(bank).execute(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                boolean failed = false;
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // The request stays PENDING in the database
+                    failed = true;
+                    failures.increment();
+                    logger.warn("Persisting assignment of request {} failed: {}", requestId, e.getMessage());
+                } finally {
+                    persistTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    if (requestId != null) {
+                        inFlight.remove(requestId);
+                    }
+                }
+                if (failed) {
+                    onFailure.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Not written either; the request stays PENDING in the database
+            rejected.increment();
+            logger.warn("Assignment of request {} not persisted, bank {} is shutting down", requestId, bank);
+            if (requestId != null) {
+                inFlight.remove(requestId);
+            }
+            onFailure.run();
+        }
+    }
+
+    /**
+     * Whether an assignment for this request has been decided but not yet persisted.
+     */
+    public boolean isInFlight(Long requestId) {
+        return requestId != null && inFlight.contains(requestId);
+    }
+
+    /**
+     * Assignments waiting for a worker, over all banks.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor lane : lanes.values()) {
+            depth += lane.getQueue().size();
+        }
+        return depth;
+    }
+
+    public int getQueueDepth(String bank) {
+        ThreadPoolExecutor lane = lanes.get(Elevator.bankOrDefault(bank));
+        return lane == null ? 0 : lane.getQueue().size();
+    }
+
+    private ThreadPoolExecutor lane(String bank) {
+        return lanes.computeIfAbsent(Elevator.bankOrDefault(bank), this::newLane);
+    }
+
+    private ThreadPoolExecutor newLane(String bank) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor lane = new ThreadPoolExecutor(persistThreads, persistThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "assignment-persist-" + bank + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Assignment lane of bank " + bank + " is shut down");
+                    }
+                    callerRuns.increment();
+                    runnable.run();
+                });
+        if (!running) {
+            lane.shutdown(); // Submitted after stop(): refused like the writes the other lanes get once shut down
+        }
+        Tags tags = Tags.of("bank", bank);
+        meterRegistry.gauge("elevator.assignment.persist.queue.depth", tags, lane, pool -> pool.getQueue().size());
+        meterRegistry.gauge("elevator.assignment.persist.active", tags, lane, ThreadPoolExecutor::getActiveCount);
+        return lane;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.elevator.service;
+
+import java.util.Arrays;
+
+/**
+ * Solves a batch of request-to-elevator assignments as a minimum-cost assignment problem
+ * using Bertsekas' auction algorithm with epsilon scaling.
+ * Each elevator offers as many "slots" as it has free capacity, so no car is handed more
+ * requests than it can carry in one cycle.
+ * A request may stand for several riders (a coalesced hall call). The weighted variant solves the auction with one
+ * slot per free seat and then keeps each car within its seats, in request order, moving a request that no longer
+ * fits to the cheapest car that still has room for all its riders.
+ */
+public final class BatchAssignmentSolver {
+
+    private static final long NO_VALUE = Long.MIN_VALUE / 4;
+
+    // Factor by which epsilon shrinks between scaling phases
+    private static final int EPSILON_SCALING_FACTOR = 5;
+
+    private BatchAssignmentSolver() {
+    }
+
+    /**
+     * @param cost  cost[r][c] of serving request r with car c (lower is better)
+     * @param slots number of requests each car can still take
+     * @return the car index chosen for each request, or -1 if the request was left unassigned.
+     * When there are more requests than slots, the earliest rows win, so callers should pass requests oldest first.
+     */
+    /**
+     * @param cost   cost[r][c] of serving request r with car c (lower is better)
+     * @param seats  free seats of each car
+     * @param demand riders of each request; all of them travel in the same car
+     * @return the car index chosen for each request, or -1 if no car had room for it. Earlier rows win seats first.
+     */
+    public static int[] solve(int[][] cost, int[] seats, int[] demand) {
+        int[] choice = solve(cost, seats);
+        int[] free = new int[seats.length];
+        for (int c = 0; c < seats.length; c++) {
+            free[c] = Math.max(0, seats[c]);
+        }
+        int[] result = new int[choice.length];
+        Arrays.fill(result, -1);
+        // With one rider per request every choice fits and nothing below changes the optimum
+        for (int r = 0; r < choice.length; r++) {
+            int c = choice[r];
+            if (c >= 0 && demand[r] <= free[c]) {
+                result[r] = c;
+                free[c] -= demand[r];
+            }
+        }
+        for (int r = 0; r < choice.length; r++) {
+            if (result[r] >= 0) {
+                continue;
+            }
+            int best = -1;
+            for (int c = 0; c < free.length; c++) {
+                if (demand[r] <= free[c] && (best < 0 || cost[r][c] < cost[r][best])) {
+                    best = c;
+                }
+            }
+            if (best >= 0) {
+                result[r] = best;
+                free[best] -= demand[r];
+            }
+        }
+        return result;
+    }
+
+    public static int[] solve(int[][] cost, int[] slots) {
+        int requests = cost.length;
+        int cars = slots.length;
+        int[] result = new int[requests];
+        Arrays.fill(result, -1);
+
+        // Lay every car's free slots out as individual auction objects
+        int[] carStart = new int[cars + 1];
+        for (int c = 0; c < cars; c++) {
+            carStart[c + 1] = carStart[c] + Math.max(0, slots[c]);
+        }
+        int objects = carStart[cars];
+        int bidders = Math.min(requests, objects);
+        if (bidders == 0) {
+            return result;
+        }
+        // Spare slots are claimed by zero-cost dummy bidders, which keeps the auction square
+        // (the plain forward auction is only exact when every object ends up owned)
+        int persons = objects;
+
+        // Integer benefits scaled by (n + 1) make the final epsilon = 1 phase exactly optimal
+        long scale = persons + 1L;
+        long maxCost = 0;
+        for (int r = 0; r < bidders; r++) {
+            for (int c = 0; c < cars; c++) {
+                maxCost = Math.max(maxCost, Math.abs((long) cost[r][c]));
+            }
+        }
+
+        long[] price = new long[objects];
+        int[] owner = new int[objects];
+        int[] assigned = new int[persons];
+        long[] carMinPrice = new long[cars];
+        int[] carMinObject = new int[cars];
+        int[] unassigned = new int[persons];
+
+        long epsilon = Math.max(1, (maxCost * scale) / EPSILON_SCALING_FACTOR);
+        while (true) {
+            Arrays.fill(owner, -1);
+            Arrays.fill(assigned, -1);
+            for (int c = 0; c < cars; c++) {
+                refreshCarMinimum(c, carStart, price, carMinPrice, carMinObject);
+            }
+            for (int r = 0; r < persons; r++) {
+                unassigned[r] = r;
+            }
+
+            // Gauss-Seidel auction: one bidder at a time, outbid owners go back into the pool
+            int head = 0;
+            int size = persons;
+            while (size > 0) {
+                int person = unassigned[head];
+                head = (head + 1) % persons;
+                size--;
+
+                int[] personCost = person < bidders ? cost[person] : null;
+                long best = NO_VALUE;
+                long second = NO_VALUE;
+                int bestCar = -1;
+                for (int c = 0; c < cars; c++) {
+                    if (carStart[c + 1] == carStart[c]) {
+                        continue;
+                    }
+                    long value = (personCost == null ? 0 : -personCost[c] * scale) - carMinPrice[c];
+                    if (value > best) {
+                        second = best;
+                        best = value;
+                        bestCar = c;
+                    } else if (value > second) {
+                        second = value;
+                    }
+                }
+
+                // Another slot of the same car is also a valid second choice
+                int bestObject = carMinObject[bestCar];
+                for (int o = carStart[bestCar]; o < carStart[bestCar + 1]; o++) {
+                    if (o != bestObject) {
+                        second = Math.max(second, (personCost == null ? 0 : -personCost[bestCar] * scale) - price[o]);
+                    }
+                }
+
+                long increment = second == NO_VALUE ? epsilon : best - second + epsilon;
+                price[bestObject] += increment;
+
+                int previousOwner = owner[bestObject];
+                if (previousOwner >= 0) {
+                    assigned[previousOwner] = -1;
+                    unassigned[(head + size) % persons] = previousOwner;
+                    size++;
+                }
+                owner[bestObject] = person;
+                assigned[person] = bestObject;
+                refreshCarMinimum(bestCar, carStart, price, carMinPrice, carMinObject);
+            }
+
+            if (epsilon == 1) {
+                break;
+            }
+            epsilon = Math.max(1, epsilon / EPSILON_SCALING_FACTOR);
+        }
+
+        for (int c = 0; c < cars; c++) {
+            for (int o = carStart[c]; o < carStart[c + 1]; o++) {
+                if (owner[o] >= 0 && owner[o] < bidders) {
+                    result[owner[o]] = c;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void refreshCarMinimum(int car, int[] carStart, long[] price, long[] carMinPrice, int[] carMinObject) {
+        long min = Long.MAX_VALUE;
+        int minObject = -1;
+        for (int o = carStart[car]; o < carStart[car + 1]; o++) {
+            if (price[o] < min) {
+                min = price[o];
+                minObject = o;
+            }
+        }
+        carMinPrice[car] = min;
+        carMinObject[car] = minObject;
+    }
+}
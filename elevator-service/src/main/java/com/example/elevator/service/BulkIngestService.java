@@ -0,0 +1,83 @@
+package com.example.elevator.service;
+
+import com.example.elevator.exception.LogImportNotSupportedException;
+import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.RequestStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bulk inserts of history, e.g. to import completed trips or audit logs recorded elsewhere.
+ * Ids come from pooled sequences, so Hibernate needs no round trip per row and sends the inserts as JDBC batches of
+ * hibernate.jdbc.batch_size. The persistence context is flushed and cleared after every batch, so memory stays flat
+ * however many rows are imported. Each call is one transaction: either every row is stored or none is.
+ * Rows without a time are stored as of the import, since time-range queries, keyset paging, retention and the
+ * PostgreSQL partitions all go by it.
+ */
+@Service
+public class BulkIngestService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
+
+    @Value("${elevator.log.backend:DATABASE}")
+    private LogBackend logBackend = LogBackend.DATABASE;
+
+    /**
+     * Stores requests as completed trips; they are history and are never dispatched.
+     */
+    @Transactional
+    public int importRequests(List<ElevatorRequest> requests) {
+        LocalDateTime now = LocalDateTime.now();
+        for (ElevatorRequest request : requests) {
+            request.setId(null);
+            request.setStatus(RequestStatus.COMPLETED);
+            if (request.getRequestTime() == null) {
+                request.setRequestTime(now);
+            }
+        }
+        return persistAll(requests);
+    }
+
+    /**
+     * Stores log entries in the elevator_log table. Refused when the log is kept in the event journal instead, whose
+     * records only hold typed events, since /logs would never show them.
+     */
+    @Transactional
+    public int importLogs(List<ElevatorLog> logs) {
+        if (logBackend == LogBackend.JOURNAL) {
+            throw new LogImportNotSupportedException();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ElevatorLog log : logs) {
+            log.setId(null);
+            if (log.getTimestamp() == null) {
+                log.setTimestamp(now);
+            }
+        }
+        return persistAll(logs);
+    }
+
+    int persistAll(List<?> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return entities.size();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorState;
+
+import java.util.List;
+
+/**
+ * Dispatch cost of a request against a whole fleet, laid out as parallel primitive arrays (one slot per car).
+ * Scores are identical to {@link SchedulerService#calculateCost}, but everything that depends only on the car
+ * (travel direction, sweep extent, load penalty, whether it may take a request) is worked out once when the
+ * kernel is built. Scoring a request is then a single branch-light pass over the arrays: no getters, no enum
+ * comparisons, no floating point and no allocation.
+ */
+public final class CostKernel {
+
+    static final byte STOPPED = 0;
+    static final byte UP = 1;
+    static final byte DOWN = 2;
+
+    private final int size;
+    private final int[] floor;
+    private final byte[] travel;
+    // Queued stop extent; MAX_VALUE / MIN_VALUE when the car has no stops, so min()/max() ignore it
+    private final int[] lowestStop;
+    private final int[] highestStop;
+    private final int[] loadPenalty;
+    private final boolean[] dispatchable;
+
+    private CostKernel(int size) {
+        this.size = size;
+        this.floor = new int[size];
+        this.travel = new byte[size];
+        this.lowestStop = new int[size];
+        this.highestStop = new int[size];
+        this.loadPenalty = new int[size];
+        this.dispatchable = new boolean[size];
+    }
+
+    /**
+     * Builds a kernel over a fleet snapshot. Car indexes in the kernel follow the order of the list.
+     */
+    public static CostKernel of(List<ElevatorState> elevators) {
+        CostKernel kernel = new CostKernel(elevators.size());
+        for (int c = 0; c < kernel.size; c++) {
+            ElevatorState elevator = elevators.get(c);
+            Direction direction = elevator.getTravelDirection();
+            kernel.floor[c] = elevator.getCurrentFloor();
+            kernel.travel[c] = direction == Direction.UP ? UP : direction == Direction.DOWN ? DOWN : STOPPED;
+            kernel.lowestStop[c] = elevator.hasStops() ? elevator.getLowestStop() : Integer.MAX_VALUE;
+            kernel.highestStop[c] = elevator.hasStops() ? elevator.getHighestStop() : Integer.MIN_VALUE;
+            kernel.loadPenalty[c] = elevator.getCapacity() > 0
+                    ? (int) (((double) elevator.getCurrentLoad() / elevator.getCapacity()) * 10) : 0;
+            kernel.dispatchable[c] = elevator.isDispatchable();
+        }
+        return kernel;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Cost of serving the request with one car.
+     */
+    public int cost(int car, int sourceFloor, int destinationFloor) {
+        return score(floor[car], travel[car], lowestStop[car], highestStop[car], loadPenalty[car],
+                sourceFloor, destinationFloor);
+    }
+
+    /**
+     * Writes the cost of serving the request with every car into {@code out}, which must hold at least {@link #size()} entries.
+     */
+    public void scoreAll(int sourceFloor, int destinationFloor, int[] out) {
+        for (int c = 0; c < size; c++) {
+            out[c] = score(floor[c], travel[c], lowestStop[c], highestStop[c], loadPenalty[c], sourceFloor, destinationFloor);
+        }
+    }
+
+    /**
+     * Index of the cheapest car that may take the request, or -1 if none may. Ties go to the lower index.
+     */
+    public int argmin(int sourceFloor, int destinationFloor) {
+        int best = -1;
+        int bestCost = Integer.MAX_VALUE;
+        for (int c = 0; c < size; c++) {
+            int cost = score(floor[c], travel[c], lowestStop[c], highestStop[c], loadPenalty[c], sourceFloor, destinationFloor);
+            if (dispatchable[c] && cost < bestCost) {
+                bestCost = cost;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // Same pricing as SchedulerService.calculateCost, with the "has stops" checks folded into the sentinels
+    private static int score(int currentFloor, byte travel, int lowestStop, int highestStop, int loadPenalty,
+                             int requestFloor, int targetFloor) {
+        boolean requestGoingUp = targetFloor > requestFloor;
+        boolean requestGoingDown = targetFloor < requestFloor;
+        int cost;
+        if (travel == UP) {
+            int top = Math.max(currentFloor, highestStop);
+            if (requestFloor >= currentFloor) {
+                int turn = Math.max(top, requestFloor);
+                cost = requestGoingDown ? (turn - currentFloor) + (turn - requestFloor) + 10 : requestFloor - currentFloor;
+            } else {
+                int bottom = requestGoingUp ? Math.min(requestFloor, lowestStop) : requestFloor;
+                cost = (top - currentFloor) + (top - bottom) + (requestFloor - bottom) + 20;
+            }
+        } else if (travel == DOWN) {
+            int bottom = Math.min(currentFloor, lowestStop);
+            if (requestFloor <= currentFloor) {
+                int turn = Math.min(bottom, requestFloor);
+                cost = requestGoingUp ? (currentFloor - turn) + (requestFloor - turn) + 10 : currentFloor - requestFloor;
+            } else {
+                int top = requestGoingDown ? Math.max(requestFloor, highestStop) : requestFloor;
+                cost = (currentFloor - bottom) + (top - bottom) + (top - requestFloor) + 20;
+            }
+        } else {
+            cost = Math.abs(currentFloor - requestFloor);
+        }
+        return cost + loadPenalty;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.elevator.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One lock per bank, held while a decision about the bank's requests is made: by its dispatcher, the sweep and
+ * manual assignment alike. Banks share no cars, so they never wait for each other.
+ */
+@Service
+public class DispatchLocks {
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public Object of(String bank) {
+        return locks.computeIfAbsent(bank, key -> new Object());
+    }
+}
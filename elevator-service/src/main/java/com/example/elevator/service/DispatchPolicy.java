@@ -0,0 +1,11 @@
+package com.example.elevator.service;
+
+/**
+ * How the scheduler matches pending requests to elevators.
+ */
+public enum DispatchPolicy {
+    /** Each request takes the cheapest car on its own, oldest request first. */
+    GREEDY,
+    /** All pending requests are solved together as a capacity-constrained min-cost assignment. */
+    BATCH
+}
@@ -0,0 +1,210 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.repository.ElevatorLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind pipeline for the elevator audit log.
+ * Callers only place the entry in a bounded lock-free ring buffer; a single background thread writes entries in
+ * JDBC batches once a batch is full or the flush interval has passed, whichever comes first. When the buffer is full
+ * the entry is either dropped or the caller waits, per elevator.log.overflow-policy. Whatever is still buffered is
+ * written on shutdown. Entries reach the database, and therefore GET /logs, up to one flush interval late.
+ * With elevator.log.backend=JOURNAL events skip the database and are appended straight to an {@link EventJournal}
+ * on the calling thread instead.
+ */
+@Service
+public class ElevatorLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ElevatorLogWriter.class);
+
+    @Autowired
+    private ElevatorLogRepository logRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${elevator.log.buffer-capacity:16384}")
+    private int bufferCapacity = 16384;
+
+    @Value("${elevator.log.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${elevator.log.flush-interval-ms:200}")
+    private long flushIntervalMs = 200;
+
+    @Value("${elevator.log.overflow-policy:DROP}")
+    private LogOverflowPolicy overflowPolicy = LogOverflowPolicy.DROP;
+
+    @Value("${elevator.log.backend:DATABASE}")
+    private LogBackend backend = LogBackend.DATABASE;
+
+    @Value("${elevator.journal.dir:data/journal}")
+    private String journalDir = "data/journal";
+
+    @Value("${elevator.journal.segment-records:1048576}")
+    private int journalSegmentRecords = 1048576;
+
+    private RingBuffer<ElevatorLog> buffer;
+
+    private EventJournal journal;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private Counter written;
+    private Counter dropped;
+    private Counter failures;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void start() {
+        buffer = new RingBuffer<>(bufferCapacity);
+        meterRegistry.gauge("elevator.log.buffer.depth", buffer, RingBuffer::size);
+        written = meterRegistry.counter("elevator.log.written");
+        dropped = meterRegistry.counter("elevator.log.dropped");
+        failures = meterRegistry.counter("elevator.log.write.failures");
+        flushTimer = Timer.builder("elevator.log.flush")
+                .description("Time taken to write one batch of log entries")
+                .register(meterRegistry);
+        running = true;
+        if (backend == LogBackend.JOURNAL) {
+            journal = new EventJournal(Path.of(journalDir), journalSegmentRecords);
+            logger.info("Elevator log journal at {} holds {} events", journalDir, journal.size());
+            return;
+        }
+        writerThread = new Thread(this::runWriter, "elevator-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        flush(); // In case the writer was stuck on a slow database and timed out
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Records an event with the configured backend.
+     *
+     * @return false if the buffer was full and the event was dropped.
+     */
+    public boolean log(ElevatorEvent event) {
+        if (journal != null) {
+            journal.append(event);
+            written.increment();
+            return true;
+        }
+        return append(event.toLog());
+    }
+
+    /**
+     * Queues an entry for the next batch.
+     *
+     * @return false if the buffer was full and the entry was dropped.
+     */
+    public boolean append(ElevatorLog entry) {
+        if (!buffer.offer(entry)) {
+            if (overflowPolicy == LogOverflowPolicy.DROP || !running) {
+                dropped.increment();
+                return false;
+            }
+            do {
+                LockSupport.unpark(writerThread);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            } while (!buffer.offer(entry));
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writerThread); // A full batch is ready; no need to wait out the interval
+        }
+        return true;
+    }
+
+    /**
+     * Writes everything buffered so far on the calling thread.
+     *
+     * @return the number of entries written.
+     */
+    public int flush() {
+        int total = 0;
+        List<ElevatorLog> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            total += write(batch);
+            batch.clear();
+        }
+        return total;
+    }
+
+    public int getBufferDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * The journal events are written to, or null if the log lives in the database.
+     */
+    public EventJournal getJournal() {
+        return journal;
+    }
+
+    private void runWriter() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        List<ElevatorLog> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        while (running) {
+            // Entries stay in the buffer until a batch is due, so producers see the true backlog when deciding to wake us
+            long sinceFlush = System.nanoTime() - lastFlush;
+            if (buffer.size() >= batchSize || (!buffer.isEmpty() && sinceFlush >= flushIntervalNanos)) {
+                buffer.drainTo(batch, batchSize);
+                write(batch);
+                batch.clear();
+                lastFlush = System.nanoTime();
+            } else {
+                LockSupport.parkNanos(buffer.isEmpty() ? flushIntervalNanos : flushIntervalNanos - sinceFlush);
+            }
+        }
+        flush();
+    }
+
+    private int write(List<ElevatorLog> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            // One transaction; ids come from a pooled sequence, so Hibernate sends the inserts as JDBC batches
+            logRepository.saveAll(batch);
+            written.increment(batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            failures.increment(batch.size());
+            logger.warn("Writing {} log entries failed: {}", batch.size(), e.getMessage());
+            return 0;
+        } finally {
+            flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
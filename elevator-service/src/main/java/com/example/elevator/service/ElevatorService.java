@@ -1,11 +1,15 @@
 package com.example.elevator.service;
 
 import com.example.elevator.dto.ElevatorStatusDTO;
+import com.example.elevator.exception.NotLeaderException;
 import com.example.elevator.exception.ResourceNotFoundException;
 import com.example.elevator.model.Direction;
 import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
 import com.example.elevator.model.ElevatorLog;
 import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
 import com.example.elevator.model.ElevatorStatus;
 import com.example.elevator.model.RequestStatus;
 import com.example.elevator.repository.ElevatorLogRepository;
@@ -14,19 +18,29 @@ import com.example.elevator.repository.ElevatorRequestRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @Service
 public class ElevatorService {
 
+    // Stand-ins for an open end of a time range; a range that is bounded on both sides still prunes partitions
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     @Autowired
     private ElevatorRepository elevatorRepository;
 
@@ -36,18 +50,45 @@ public class ElevatorService {
     @Autowired
     private ElevatorLogRepository logRepository;
 
+    @Autowired
+    private ElevatorLogWriter logWriter;
+
     @Autowired
     private WebSocketUpdateService webSocketUpdateService;
 
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private FleetStatusView fleetStatusView;
+
+    @Autowired
+    private AssignmentPipeline assignmentPipeline;
+
+    @Autowired
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private DispatchLocks dispatchLocks;
+
+    private final List<Consumer<ElevatorRequest>> requeueListeners = new CopyOnWriteArrayList<>();
+
     public List<Elevator> getAllElevators() {
         return elevatorRepository.findAll();
     }
 
-    @Cacheable(value = "elevatorStatus")
     public List<ElevatorStatusDTO> getAllElevatorsStatus() {
-        return elevatorRepository.findAll().stream()
-                .map(e -> new ElevatorStatusDTO(e.getId(), e.getCurrentFloor(), e.getStatus(), e.getDirection(), e.isOperational()))
-                .collect(Collectors.toList());
+        return fleetStatusView.getSnapshot().getStatuses();
+    }
+
+    /**
+     * The same statuses, already serialized as a JSON array.
+     */
+    public byte[] getAllElevatorsStatusJson() {
+        return fleetStatusView.getSnapshot().getJson();
     }
 
     @Cacheable(value = "elevators", key = "#id")
@@ -57,209 +98,361 @@ public class ElevatorService {
     }
 
     @Transactional
-    @CacheEvict(value = {"elevators", "elevatorStatus"}, allEntries = true)
+    @CachePut(value = "elevators", key = "#result.id")
     public Elevator saveElevator(Elevator elevator) {
+        leaderElection.requireLeader();
         Elevator savedElevator = elevatorRepository.save(elevator);
+        fleetStateService.update(savedElevator);
         // After saving, broadcast the new status to all clients
         broadcastStatusUpdate();
         return savedElevator;
     }
 
     @Transactional
-    @CacheEvict(value = {"elevators", "elevatorStatus"}, allEntries = true)
+    @CacheEvict(value = "elevators", key = "#id")
     public void deleteElevator(Long id) {
+        leaderElection.requireLeader();
         Elevator elevator = elevatorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Elevator", "id", id));
         elevatorRepository.delete(elevator);
+        fleetStateService.remove(id);
         broadcastStatusUpdate();
     }
 
-    public List<Elevator> getAvailableElevators() {
-        return elevatorRepository.findAll().stream()
-                .filter(Elevator::isOperational)
-                .collect(Collectors.toList());
+    public List<ElevatorState> getAvailableElevators() {
+        return fleetStateService.getOperational();
+    }
+
+    /**
+     * Operational cars of one bank.
+     */
+    /**
+     * Riders of the trips the car is serving, i.e. seats already spoken for.
+     */
+    public int getRiders(Long elevatorId) {
+        return fleetStateService.getRiders(elevatorId);
+    }
+
+    public List<ElevatorState> getAvailableElevators(String bank) {
+        List<ElevatorState> available = fleetStateService.getByBank(bank);
+        available.removeIf(elevator -> !elevator.isOperational());
+        return available;
     }
 
-    public List<Elevator> getIdleElevators() {
-        return elevatorRepository.findAll().stream()
-                .filter(e -> e.isOperational() && e.getStatus() == ElevatorStatus.IDLE)
-                .collect(Collectors.toList());
+    public List<ElevatorState> getIdleElevators() {
+        return fleetStateService.getIdle();
+    }
+
+    /**
+     * Up to {@code limit} cars of the bank that may take a request, nearest to the floor first.
+     */
+    public List<ElevatorState> getNearestDispatchable(String bank, int floor, int limit) {
+        return fleetStateService.getNearest(bank, floor, null, limit, ElevatorState::isDispatchable);
+    }
+
+    /**
+     * Every car of the bank that may take a request within {@code radius} floors, nearest first.
+     */
+    public List<ElevatorState> getDispatchableWithin(String bank, int floor, int radius) {
+        return fleetStateService.getWithin(bank, floor, radius, ElevatorState::isDispatchable);
     }
 
     @CircuitBreaker(name = "elevatorService", fallbackMethod = "assignRequestFallback")
-    public void assignRequestToElevator(Elevator elevator, ElevatorRequest request) {
-        logRepository.save(new ElevatorLog(elevator.getId(), "Assigned request ID: " + request.getId()));
-        
-        // Logic to move elevator to source then destination
-        // This is a simplified synchronous simulation
-        moveElevator(elevator.getId(), request.getSourceFloor());
-        moveElevator(elevator.getId(), request.getDestinationFloor());
-        
-        request.setAssignedElevatorId(elevator.getId());
-        request.setStatus(RequestStatus.ASSIGNED);
-        requestRepository.save(request);
-    }
-
-    public void assignRequestFallback(Elevator elevator, ElevatorRequest request, Throwable t) {
-        logRepository.save(new ElevatorLog(elevator.getId(), "Failed to assign request ID: " + request.getId() + ". Circuit Breaker Open. Error: " + t.getMessage()));
+    public void assignRequestToElevator(ElevatorState elevator, ElevatorRequest request) {
+        assign(elevator, request, false);
+    }
+
+    private void assign(ElevatorState elevator, ElevatorRequest request, boolean reassign) {
+        long token = leaderElection.getFencingToken();
+        if (token == 0) {
+            throw new NotLeaderException();
+        }
+        // Queue pickup and drop-off on the car's current sweep. The movement engine serves
+        // all queued stops in LOOK order, so one car can carry several riders per trip.
+        // Locked against HallCallService adding riders, so none of their drop-offs are lost in between
+        synchronized (request) {
+            fleetStateService.addRequestStops(elevator.getId(), request.getSourceFloor(), request.getDestinationFloor());
+            Direction sweep = PendingRequestQueue.directionOf(request);
+            for (Integer floor : request.getAdditionalDestinations()) {
+                fleetStateService.addStop(elevator.getId(), floor, sweep);
+            }
+            fleetStateService.addTrip(elevator.getId(), request);
+
+            request.setAssignedElevatorId(elevator.getId());
+            request.setAssignedTime(LocalDateTime.now());
+            request.setStatus(RequestStatus.ASSIGNED);
+            request.setFencingToken(token);
+            pendingRequestQueue.remove(request.getId());
+        }
+
+        // The decision above is final; writing it down and telling clients happens off the dispatch path
+        Long elevatorId = elevator.getId();
+        assignmentPipeline.submit(request.getBank(), request.getId(), () -> {
+            logWriter.log(ElevatorEvent.forRequest(ElevatorEventType.ASSIGNED, elevatorId, request.getId()));
+            int written;
+            try {
+                written = requestRepository.assign(request.getId(), elevatorId, request.getAssignedTime(),
+                        request.getRiderCount(), request.getPriority(), token, reassign);
+            } catch (RuntimeException e) {
+                // Still PENDING in the database: the car gives the trip up until the request is dispatched again
+                synchronized (request) {
+                    removeStops(elevatorId, request);
+                    request.setStatus(RequestStatus.PENDING);
+                    request.setAssignedElevatorId(null);
+                    request.setAssignedTime(null);
+                    request.setFencingToken(null);
+                }
+                throw e;
+            }
+            if (written == 0) {
+                // A newer leader has decided about the request, or it was assigned by another decision first;
+                // either way the trip is not this car's to drive
+                logWriter.log(ElevatorEvent.forRequest(ElevatorEventType.ASSIGNMENT_FAILED, elevatorId, request.getId())
+                        .withDetail("superseded"));
+                removeStops(elevatorId, request);
+                return;
+            }
+            webSocketUpdateService.sendRequestUpdate(request);
+        }, () -> requeue(request));
+    }
+
+    /**
+     * Registers a callback handed each request whose assignment could not be written, so it is dispatched again
+     * right away. Without one the request waits in the pending queue for the sweep.
+     */
+    public void addRequeueListener(Consumer<ElevatorRequest> listener) {
+        requeueListeners.add(listener);
+    }
+
+    private void requeue(ElevatorRequest request) {
+        if (requeueListeners.isEmpty()) {
+            pendingRequestQueue.add(request);
+            return;
+        }
+        for (Consumer<ElevatorRequest> listener : requeueListeners) {
+            listener.accept(request);
+        }
+    }
+
+    // Undoes the stops assign() queued for the request on the car
+    private void removeStops(Long elevatorId, ElevatorRequest request) {
+        synchronized (request) {
+            fleetStateService.removeRequestStops(elevatorId, request.getSourceFloor(), request.getDestinationFloor());
+            Direction sweep = PendingRequestQueue.directionOf(request);
+            for (Integer floor : request.getAdditionalDestinations()) {
+                fleetStateService.removeStop(elevatorId, floor, sweep);
+            }
+            fleetStateService.removeTrip(elevatorId, request.getId());
+        }
+    }
+
+    public void assignRequestFallback(ElevatorState elevator, ElevatorRequest request, Throwable t) {
+        logWriter.log(ElevatorEvent.forRequest(ElevatorEventType.ASSIGNMENT_FAILED, elevator.getId(), request.getId())
+                .withDetail(t.getMessage()));
         // Optionally, mark elevator as faulty or retry later
         // For now, just log it. The request remains PENDING.
     }
     
     public Elevator moveElevator(Long id, int targetFloor) {
-        Elevator elevator = getElevatorById(id);
-        if (elevator != null && elevator.isOperational()) {
-            logRepository.save(new ElevatorLog(id, "Moving to floor " + targetFloor));
-            if (targetFloor > elevator.getCurrentFloor()) {
-                elevator.setStatus(ElevatorStatus.MOVING_UP);
-                elevator.setDirection(Direction.UP);
-            } else if (targetFloor < elevator.getCurrentFloor()) {
-                elevator.setStatus(ElevatorStatus.MOVING_DOWN);
-                elevator.setDirection(Direction.DOWN);
-            } else {
-                elevator.setStatus(ElevatorStatus.IDLE);
-                elevator.setDirection(Direction.STOPPED);
-            }
-            
-            // Simulate movement
-            elevator.setCurrentFloor(targetFloor);
-            elevator.setStatus(ElevatorStatus.IDLE);
-            elevator.setDirection(Direction.STOPPED);
-            return saveElevator(elevator);
+        leaderElection.requireLeader();
+        ElevatorState elevator = fleetStateService.get(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Elevator", "id", id));
+        if (!elevator.isOperational()) {
+            return null;
         }
-        return null;
+        logWriter.log(ElevatorEvent.atFloor(ElevatorEventType.MOVING, id, targetFloor));
+        // Simulate movement: the car is placed at the target, unless it went out of service meanwhile
+        return fleetStateService.transition(id, current -> current.isOperational()
+                        ? current.toBuilder().currentFloor(targetFloor).status(ElevatorStatus.IDLE).direction(Direction.STOPPED).build()
+                        : null)
+                .map(this::writeThrough)
+                .orElse(null);
     }
 
     public Elevator reportFault(Long id) {
-        Elevator elevator = getElevatorById(id);
-        if (elevator != null) {
-            logRepository.save(new ElevatorLog(id, "Reported fault. Status: OUT_OF_SERVICE"));
-            elevator.setOperational(false);
-            elevator.setStatus(ElevatorStatus.OUT_OF_SERVICE);
-            elevator.setDirection(Direction.STOPPED);
-            return saveElevator(elevator);
-        }
-        return null;
+        leaderElection.requireLeader();
+        fleetStateService.get(id).orElseThrow(() -> new ResourceNotFoundException("Elevator", "id", id));
+        logWriter.log(ElevatorEvent.of(ElevatorEventType.FAULT_REPORTED, id));
+        // Applied to the car's latest state, including a position the database has not caught up with yet
+        return fleetStateService.transition(id, current -> current.toBuilder()
+                        .operational(false).status(ElevatorStatus.OUT_OF_SERVICE).direction(Direction.STOPPED).build())
+                .map(this::writeThrough)
+                .orElse(null);
     }
 
     public Elevator repairElevator(Long id) {
-        Elevator elevator = getElevatorById(id);
-        if (elevator != null) {
-            logRepository.save(new ElevatorLog(id, "Elevator repaired. Status: IDLE"));
-            elevator.setOperational(true);
-            elevator.setStatus(ElevatorStatus.IDLE);
-            elevator.setDirection(Direction.STOPPED);
-            return saveElevator(elevator);
-        }
-        return null;
+        leaderElection.requireLeader();
+        fleetStateService.get(id).orElseThrow(() -> new ResourceNotFoundException("Elevator", "id", id));
+        logWriter.log(ElevatorEvent.of(ElevatorEventType.REPAIRED, id));
+        return fleetStateService.transition(id, current -> current.toBuilder()
+                        .operational(true).status(ElevatorStatus.IDLE).direction(Direction.STOPPED).build())
+                .map(this::writeThrough)
+                .orElse(null);
     }
 
     public ElevatorRequest manualAssign(Long requestId, Long elevatorId) {
-        ElevatorRequest request = requestRepository.findById(requestId)
-                .orElseThrow(() -> new ResourceNotFoundException("Request", "id", requestId));
-        Elevator elevator = getElevatorById(elevatorId);
-
-        if (elevator.isOperational()) {
-            logRepository.save(new ElevatorLog(elevatorId, "Manually assigned request ID: " + requestId));
-            assignRequestToElevator(elevator, request);
+        leaderElection.requireLeader();
+        // A pending request is taken from the dispatcher's own copy, so the two cannot both assign it,
+        // an assigned one from its car's
+        ElevatorRequest request = pendingRequestQueue.get(requestId)
+                .or(() -> fleetStateService.getTrip(requestId))
+                .orElseGet(() -> requestRepository.findById(requestId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Request", "id", requestId)));
+        ElevatorState elevator = fleetStateService.get(elevatorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Elevator", "id", elevatorId));
+
+        synchronized (dispatchLocks.of(request.getBank())) {
+            // A car only serves the floors of its own bank; an assignment still being written cannot be moved yet
+            if (!elevator.isOperational() || !elevator.getBank().equals(request.getBank())
+                    || assignmentPipeline.isInFlight(requestId)) {
+                return null; // Or throw exception
+            }
+            logWriter.log(ElevatorEvent.forRequest(ElevatorEventType.MANUALLY_ASSIGNED, elevatorId, requestId));
+            // An operator may move an assigned request to another car, which then no longer stops for it
+            if (request.getStatus() == RequestStatus.ASSIGNED && request.getAssignedElevatorId() != null) {
+                removeStops(request.getAssignedElevatorId(), request);
+            }
+            assign(elevator, request, true);
             return request;
         }
-        return null; // Or throw exception
     }
 
     public void simulateMovement(Long elevatorId, int targetFloor) {
-        Elevator elevator = getElevatorById(elevatorId);
-        if (elevator == null || !elevator.isOperational()) return;
-
-        logRepository.save(new ElevatorLog(elevatorId, "Simulation started to floor " + targetFloor));
-
-        int currentFloor = elevator.getCurrentFloor();
-        if (targetFloor > currentFloor) {
-            elevator.setStatus(ElevatorStatus.MOVING_UP);
-            elevator.setDirection(Direction.UP);
-        } else if (targetFloor < currentFloor) {
-            elevator.setStatus(ElevatorStatus.MOVING_DOWN);
-            elevator.setDirection(Direction.DOWN);
-        } else {
-            elevator.setStatus(ElevatorStatus.IDLE);
-            elevator.setDirection(Direction.STOPPED);
-        }
-        saveElevator(elevator);
+        leaderElection.requireLeader();
+        ElevatorState elevator = fleetStateService.get(elevatorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Elevator", "id", elevatorId));
+        if (!elevator.isOperational()) return;
 
-        // Simulate step-by-step movement
-        new Thread(() -> {
-            try {
-                int floor = currentFloor;
-                while (floor != targetFloor) {
-                    Thread.sleep(1000); // Simulate time to move between floors
-                    if (targetFloor > floor) {
-                        floor++;
-                    } else {
-                        floor--;
-                    }
-                    elevator.setCurrentFloor(floor);
-                    saveElevator(elevator);
-                    logRepository.save(new ElevatorLog(elevatorId, "Reached floor " + floor));
-                }
-                elevator.setStatus(ElevatorStatus.IDLE);
-                elevator.setDirection(Direction.STOPPED);
-                saveElevator(elevator);
-                logRepository.save(new ElevatorLog(elevatorId, "Simulation completed. Idle at floor " + targetFloor));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        logWriter.log(ElevatorEvent.atFloor(ElevatorEventType.SIMULATION_STARTED, elevatorId, targetFloor));
+
+        // Queued like any other stop; the movement engine advances the car floor by floor
+        // alongside the rest of the fleet instead of a dedicated sleeping thread per simulation
+        Direction sweep = targetFloor < elevator.getCurrentFloor() ? Direction.DOWN : Direction.UP;
+        fleetStateService.addStop(elevatorId, targetFloor, sweep);
+    }
+
+    /**
+     * Log entries recorded from (inclusive) to (exclusive); either bound may be null for an open end.
+     */
+    public Page<ElevatorLog> getLogs(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        EventJournal journal = logWriter.getJournal();
+        if (journal == null) {
+            if (from == null && to == null) {
+                return logRepository.findAll(pageable);
             }
-        }).start();
+            return logRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(
+                    from != null ? from : EARLIEST, to != null ? to : LATEST, pageable);
+        }
+        if (from == null && to == null) {
+            return journal.page(pageable);
+        }
+        return journal.page(from != null ? toEpochMillis(from) : Long.MIN_VALUE,
+                to != null ? toEpochMillis(to) : Long.MAX_VALUE, pageable);
     }
 
-    public Page<ElevatorLog> getLogs(Pageable pageable) {
-        return logRepository.findAll(pageable);
+    /**
+     * Requests made from (inclusive) to (exclusive); either bound may be null for an open end.
+     */
+    public Page<ElevatorRequest> getRequestHistory(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        if (from == null && to == null) {
+            return requestRepository.findAll(pageable);
+        }
+        return requestRepository.findByRequestTimeGreaterThanEqualAndRequestTimeLessThan(
+                from != null ? from : EARLIEST, to != null ? to : LATEST, pageable);
     }
 
-    public String optimizeRoutes() {
-        List<ElevatorRequest> pendingRequests = requestRepository.findByStatus(RequestStatus.PENDING);
-        if (pendingRequests.isEmpty()) {
-            return "No pending requests to optimize.";
+    /**
+     * One slice of log entries, newest first, continuing after the cursor of the previous slice (null for the first).
+     * Filters are optional; pass the same ones with every cursor.
+     */
+    public Slice<ElevatorLog> getLogSlice(Long elevatorId, LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        ScrollCursor after = cursor != null ? ScrollCursor.decode(cursor) : null;
+        EventJournal journal = logWriter.getJournal();
+        if (journal != null) {
+            // Journal entries are ordered by position, which is their id minus one
+            long beforePosition = after != null ? after.getId() - 1
+                    : to != null ? journal.positionAt(toEpochMillis(to), journal.getNextPosition()) : Long.MAX_VALUE;
+            return journal.sliceBefore(beforePosition, from != null ? toEpochMillis(from) : Long.MIN_VALUE, elevatorId, size);
         }
+        return logRepository.findSliceBefore(elevatorId, from != null ? from : EARLIEST,
+                after != null ? after.getTime() : to != null ? to : LATEST, after != null ? after.getId() : 0,
+                PageRequest.ofSize(size));
+    }
 
-        // Batch Optimization: Group requests by source floor
-        Map<Integer, List<ElevatorRequest>> requestsByFloor = pendingRequests.stream()
-                .collect(Collectors.groupingBy(ElevatorRequest::getSourceFloor));
+    /**
+     * One slice of requests, newest first, continuing after the cursor of the previous slice (null for the first).
+     * Filters are optional, elevatorId being the assigned car; pass the same ones with every cursor.
+     */
+    public Slice<ElevatorRequest> getRequestHistorySlice(Long elevatorId, LocalDateTime from, LocalDateTime to,
+                                                         String cursor, int size) {
+        ScrollCursor after = cursor != null ? ScrollCursor.decode(cursor) : null;
+        return requestRepository.findSliceBefore(elevatorId, from != null ? from : EARLIEST,
+                after != null ? after.getTime() : to != null ? to : LATEST, after != null ? after.getId() : 0,
+                PageRequest.ofSize(size));
+    }
 
-        // Find the floor with the most requests (Hotspot)
-        Integer busiestFloor = requestsByFloor.entrySet().stream()
-                .max((e1, e2) -> Integer.compare(e1.getValue().size(), e2.getValue().size()))
-                .map(Map.Entry::getKey)
-                .orElse(0);
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 
-        List<ElevatorRequest> batchRequests = requestsByFloor.get(busiestFloor);
-        int batchSize = batchRequests.size();
+    public String optimizeRoutes() {
+        // Batch Optimization: waiting riders are already counted by source floor within each bank
+        String busiestBank = null;
+        int hotspot = 0;
+        int batchSize = 0;
+        for (String bank : pendingRequestQueue.getBanks()) {
+            Map<Integer, Integer> ridersByFloor = pendingRequestQueue.ridersBySourceFloor(bank);
+            if (ridersByFloor.isEmpty()) {
+                continue;
+            }
+            // Find the floor with the most riders (Hotspot)
+            int floor = busiestFloor(ridersByFloor);
+            if (ridersByFloor.get(floor) > batchSize) {
+                busiestBank = bank;
+                hotspot = floor;
+                batchSize = ridersByFloor.get(floor);
+            }
+        }
+        if (busiestBank == null) {
+            return "No pending requests to optimize.";
+        }
+        int busiestFloor = hotspot;
 
-        // Move idle elevators closer to the busiest floor
-        List<Elevator> idleElevators = elevatorRepository.findAll().stream()
-                .filter(e -> e.getStatus() == ElevatorStatus.IDLE && e.isOperational())
-                .collect(Collectors.toList());
+        // Move the nearest idle elevators of that bank that are far away (more than 2 floors) closer to the busiest
+        // floor, enough of them for the batch (assuming 1 elevator can take 10 people)
+        int needed = (batchSize + 9) / 10;
+        List<ElevatorState> idleElevators = fleetStateService.getNearest(busiestBank, busiestFloor, null, needed,
+                elevator -> elevator.getStatus() == ElevatorStatus.IDLE && Math.abs(elevator.getCurrentFloor() - busiestFloor) > 2);
 
         int movedCount = 0;
-        for (Elevator elevator : idleElevators) {
-            if (Math.abs(elevator.getCurrentFloor() - busiestFloor) > 2) { // Only move if far away
-                moveElevator(elevator.getId(), busiestFloor);
-                movedCount++;
-                
-                // Assign the batch of requests to this elevator (up to capacity)
-                // In a real scenario, we would assign specific requests.
-                // Here we just log the optimization intent.
-                logRepository.save(new ElevatorLog(elevator.getId(), "Traffic Optimization: Moved to hotspot floor " + busiestFloor + " to serve " + batchSize + " pending requests."));
-                
-                // Break if we have enough elevators for the batch (assuming 1 elevator can take 10 people)
-                if (movedCount * 10 >= batchSize) break;
-            }
+        for (ElevatorState elevator : idleElevators) {
+            moveElevator(elevator.getId(), busiestFloor);
+            movedCount++;
+
+            // Assign the batch of requests to this elevator (up to capacity)
+            // In a real scenario, we would assign specific requests.
+            // Here we just log the optimization intent.
+            logWriter.log(ElevatorEvent.atFloor(ElevatorEventType.MOVED_TO_HOTSPOT, elevator.getId(), busiestFloor)
+                    .withValue(batchSize));
         }
 
-        return "Optimization complete. Identified busiest floor: " + busiestFloor + " with " + batchSize + " requests. Repositioned " + movedCount + " idle elevators.";
+        return "Optimization complete. Identified busiest floor: " + busiestFloor + " in bank " + busiestBank + " with " + batchSize + " riders waiting. Repositioned " + movedCount + " idle elevators.";
+    }
+
+    static int busiestFloor(Map<Integer, Integer> requestsByFloor) {
+        return requestsByFloor.entrySet().stream()
+                .max((e1, e2) -> Integer.compare(e1.getValue(), e2.getValue()))
+                .map(Map.Entry::getKey)
+                .orElse(0);
+    }
+
+    private Elevator writeThrough(ElevatorState state) {
+        Elevator saved = fleetStateService.save(state);
+        broadcastStatusUpdate();
+        return saved;
     }
 
     private void broadcastStatusUpdate() {
-        List<ElevatorStatusDTO> statuses = getAllElevatorsStatus();
-        webSocketUpdateService.sendElevatorStatusUpdate(statuses);
+        webSocketUpdateService.sendElevatorStatusUpdate(getAllElevatorsStatusJson());
     }
 }
\ No newline at end of file
@@ -1,12 +1,9 @@
 package com.example.elevator.service;
 
-import com.example.elevator.model.Elevator;
-import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
+import com.example.elevator.model.ElevatorState;
 import com.example.elevator.model.ElevatorStatus;
-import com.example.elevator.model.RequestStatus;
-import com.example.elevator.repository.ElevatorLogRepository;
-import com.example.elevator.repository.ElevatorRepository;
-import com.example.elevator.repository.ElevatorRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -17,48 +14,72 @@ import java.util.List;
 public class EnergyOptimizationService {
 
     @Autowired
-    private ElevatorRepository elevatorRepository;
+    private PendingRequestQueue pendingRequestQueue;
 
     @Autowired
-    private ElevatorRequestRepository requestRepository;
+    private ElevatorLogWriter logWriter;
 
     @Autowired
-    private ElevatorLogRepository logRepository;
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private LeaderElection leaderElection;
 
     // Threshold for low traffic (e.g., fewer than 5 pending requests)
     private static final int LOW_TRAFFIC_THRESHOLD = 5;
 
     @Scheduled(fixedRate = 60000) // Run every minute
     public void optimizeEnergy() {
-        long pendingRequestsCount = requestRepository.findByStatus(RequestStatus.PENDING).size();
-        List<Elevator> elevators = elevatorRepository.findAll();
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        // Traffic in one bank says nothing about another; each is parked or woken on its own
+        for (String bank : fleetStateService.getBanks()) {
+            optimizeBank(bank);
+        }
+    }
+
+    private void optimizeBank(String bank) {
+        long pendingRequestsCount = pendingRequestQueue.size(bank);
+        List<ElevatorState> elevators = fleetStateService.getByBank(bank);
         
-        long operationalElevators = elevators.stream().filter(Elevator::isOperational).count();
+        long operationalElevators = elevators.stream().filter(ElevatorState::isOperational).count();
         
         if (pendingRequestsCount < LOW_TRAFFIC_THRESHOLD && operationalElevators > 1) {
             // Low traffic: Enable Eco Mode for some elevators
             int elevatorsToPark = (int) (operationalElevators / 2); // Park half of them
             int parkedCount = 0;
 
-            for (Elevator elevator : elevators) {
+            for (ElevatorState elevator : elevators) {
                 if (elevator.isOperational() && elevator.getStatus() == ElevatorStatus.IDLE && !elevator.isEcoMode()) {
-                    if (parkedCount < elevatorsToPark) {
-                        elevator.setEcoMode(true);
-                        elevatorRepository.save(elevator);
-                        logRepository.save(new ElevatorLog(elevator.getId(), "Energy Optimization: Enabled Eco Mode (Parked)."));
+                    // Parked only if it is still idle and in service by the time the change is applied
+                    if (parkedCount < elevatorsToPark && setEcoMode(elevator.getId(), true)) {
+                        logWriter.log(ElevatorEvent.of(ElevatorEventType.ECO_MODE_ON, elevator.getId()));
                         parkedCount++;
                     }
                 }
             }
         } else {
             // High traffic: Disable Eco Mode for all elevators
-            for (Elevator elevator : elevators) {
-                if (elevator.isEcoMode()) {
-                    elevator.setEcoMode(false);
-                    elevatorRepository.save(elevator);
-                    logRepository.save(new ElevatorLog(elevator.getId(), "Energy Optimization: Disabled Eco Mode (Active)."));
+            for (ElevatorState elevator : elevators) {
+                if (elevator.isEcoMode() && setEcoMode(elevator.getId(), false)) {
+                    logWriter.log(ElevatorEvent.of(ElevatorEventType.ECO_MODE_OFF, elevator.getId()));
                 }
             }
         }
     }
-}
\ No newline at end of file
+
+    private boolean setEcoMode(Long elevatorId, boolean ecoMode) {
+        return fleetStateService.transition(elevatorId, current -> {
+                    if (current.isEcoMode() == ecoMode) {
+                        return null;
+                    }
+                    if (ecoMode && !(current.isOperational() && current.getStatus() == ElevatorStatus.IDLE)) {
+                        return null;
+                    }
+                    return current.withEcoMode(ecoMode);
+                })
+                .map(fleetStateService::save)
+                .isPresent();
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.elevator.service;
+
+import com.example.elevator.dto.RequestEtaDTO;
+import com.example.elevator.exception.ResourceNotFoundException;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimated pickup and drop-off times for requests.
+ * An assigned request is timed along its car's LOOK route through the queued stops, using the movement engine's
+ * floor-travel and door-dwell timings. Each car's route timetable is computed once after the car's state or stops
+ * change and then shared by every query, so lobby screens can poll hundreds of requests without re-simulating.
+ * A request still waiting for a car is estimated from the dispatch cost of the car the scheduler would choose now.
+ * Requests are read from the pending queue and the cars' trips, so polling only reaches the database for requests
+ * that are no longer being served.
+ */
+@Service
+public class EtaService {
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private MovementEngine movementEngine;
+
+    @Autowired
+    private SchedulerService schedulerService;
+
+    @Autowired
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Autowired
+    private ElevatorRequestRepository requestRepository;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * Arrival times at a car's queued stops, in route order, relative to when the timetable was computed.
+     */
+    static final class CarPlan {
+        final long computedAtMs;
+        final boolean inService;
+        final int[] floors;
+        final long[] offsetMs;
+
+        CarPlan(long computedAtMs, boolean inService, int[] floors, long[] offsetMs) {
+            this.computedAtMs = computedAtMs;
+            this.inService = inService;
+            this.floors = floors;
+            this.offsetMs = offsetMs;
+        }
+
+        int indexOf(int floor, int from) {
+            for (int i = from; i < floors.length; i++) {
+                if (floors[i] == floor) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Invalidated whenever the car changes and rebuilt by the next query that needs it
+    private final Map<Long, CarPlan> plans = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        fleetStateService.addChangeListener(plans::remove);
+    }
+
+    public RequestEtaDTO getEta(Long requestId) {
+        return getEta(requestId, null);
+    }
+
+    /**
+     * ETA of one rider of a hall call: the drop-off is timed for their destination, which has to be one of the call's.
+     * Null times the call's own destination.
+     */
+    public RequestEtaDTO getEta(Long requestId, Integer destinationFloor) {
+        ElevatorRequest request = inMemory(requestId)
+                .orElseGet(() -> requestRepository.findById(requestId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Request", "id", requestId)));
+        if (destinationFloor == null || destinationFloor == request.getDestinationFloor()) {
+            return estimate(request);
+        }
+        if (!request.getAdditionalDestinations().contains(destinationFloor)) {
+            throw new ResourceNotFoundException("Destination of request " + requestId, "floor", destinationFloor);
+        }
+        return estimate(request, destinationFloor);
+    }
+
+    /**
+     * ETAs for several requests at once, in the order asked for. Unknown ids are left out.
+     */
+    public List<RequestEtaDTO> getEtas(List<Long> requestIds) {
+        Map<Long, ElevatorRequest> found = new HashMap<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : requestIds) {
+            Optional<ElevatorRequest> request = inMemory(id);
+            if (request.isPresent()) {
+                found.put(id, request.get());
+            } else {
+                unknown.add(id);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (ElevatorRequest request : requestRepository.findAllById(unknown)) {
+                found.put(request.getId(), request);
+            }
+        }
+        List<RequestEtaDTO> etas = new ArrayList<>(found.size());
+        for (Long id : requestIds) {
+            ElevatorRequest request = found.get(id);
+            if (request != null) {
+                etas.add(estimate(request));
+            }
+        }
+        return etas;
+    }
+
+    // Requests waiting for a car or on a car's route are held in memory; only finished ones need the database
+    private Optional<ElevatorRequest> inMemory(Long requestId) {
+        Optional<ElevatorRequest> pending = pendingRequestQueue.get(requestId);
+        return pending.isPresent() ? pending : fleetStateService.getTrip(requestId);
+    }
+
+    RequestEtaDTO estimate(ElevatorRequest request) {
+        return estimate(request, request.getDestinationFloor());
+    }
+
+    private RequestEtaDTO estimate(ElevatorRequest request, int destinationFloor) {
+        RequestEtaDTO eta = new RequestEtaDTO();
+        eta.setRequestId(request.getId());
+        eta.setDestinationFloor(destinationFloor);
+        eta.setStatus(request.getStatus());
+        eta.setElevatorId(request.getAssignedElevatorId());
+
+        if (request.getStatus() == RequestStatus.COMPLETED) {
+            eta.setBasis(RequestEtaDTO.Basis.ROUTE);
+        } else if (request.getStatus() == RequestStatus.ASSIGNED && request.getAssignedElevatorId() != null) {
+            estimateFromRoute(request, destinationFloor, eta);
+        } else {
+            estimateFromDispatchCost(request, destinationFloor, eta);
+        }
+        return eta;
+    }
+
+    private void estimateFromRoute(ElevatorRequest request, int destinationFloor, RequestEtaDTO eta) {
+        CarPlan plan = plan(request.getAssignedElevatorId());
+        if (plan == null || !plan.inService) {
+            eta.setBasis(RequestEtaDTO.Basis.UNAVAILABLE);
+            return;
+        }
+        eta.setBasis(RequestEtaDTO.Basis.ROUTE);
+        int pickup = plan.indexOf(request.getSourceFloor(), 0);
+        if (pickup >= 0) {
+            long pickupMs = plan.computedAtMs + plan.offsetMs[pickup];
+            int dropoff = plan.indexOf(destinationFloor, pickup + 1);
+            long dropoffMs = dropoff >= 0 ? plan.computedAtMs + plan.offsetMs[dropoff]
+                    : pickupMs + movementEngine.getDoorDwellMs() + travelMs(request.getSourceFloor(), destinationFloor);
+            setTimes(eta, pickupMs, dropoffMs);
+        } else {
+            // Pickup already served: the rider is on board, or has arrived if the destination is gone too
+            int dropoff = plan.indexOf(destinationFloor, 0);
+            if (dropoff >= 0) {
+                setTimes(eta, null, plan.computedAtMs + plan.offsetMs[dropoff]);
+            }
+        }
+    }
+
+    private void estimateFromDispatchCost(ElevatorRequest request, int destinationFloor, RequestEtaDTO eta) {
+        ElevatorState best = schedulerService.findNearbyBestElevator(request);
+        if (best == null) {
+            eta.setBasis(RequestEtaDTO.Basis.UNAVAILABLE);
+            return;
+        }
+        eta.setBasis(RequestEtaDTO.Basis.DISPATCH_COST);
+        eta.setElevatorId(best.getId());
+        // The cost is in floors travelled, plus penalties for turning around that are themselves counted in floors
+        long nowMs = clock.millis();
+        long pickupMs = nowMs + Math.max(1, schedulerService.calculateCost(best, request)) * movementEngine.getFloorTravelMs();
+        long dropoffMs = pickupMs + movementEngine.getDoorDwellMs() + travelMs(request.getSourceFloor(), destinationFloor);
+        setTimes(eta, pickupMs, dropoffMs);
+    }
+
+    CarPlan plan(Long elevatorId) {
+        return plans.computeIfAbsent(elevatorId, id -> fleetStateService.get(id).map(this::buildPlan).orElse(null));
+    }
+
+    private CarPlan buildPlan(ElevatorState state) {
+        List<Integer> route = fleetStateService.route(state);
+        int[] floors = new int[route.size()];
+        long[] offsetMs = new long[route.size()];
+        int floor = state.getCurrentFloor();
+        long elapsed = 0;
+        for (int i = 0; i < floors.length; i++) {
+            int stop = route.get(i);
+            elapsed += travelMs(floor, stop);
+            floors[i] = stop;
+            offsetMs[i] = elapsed;
+            elapsed += movementEngine.getDoorDwellMs();
+            floor = stop;
+        }
+        return new CarPlan(clock.millis(), state.isOperational(), floors, offsetMs);
+    }
+
+    // The engine spends one step even on a stop at the car's current floor
+    private long travelMs(int from, int to) {
+        return Math.max(1, Math.abs(to - from)) * movementEngine.getFloorTravelMs();
+    }
+
+    private void setTimes(RequestEtaDTO eta, Long pickupMs, Long dropoffMs) {
+        long nowMs = clock.millis();
+        if (pickupMs != null) {
+            eta.setPickupTime(toDateTime(pickupMs));
+            eta.setPickupInSeconds(Math.max(0, (pickupMs - nowMs) / 1000));
+        }
+        if (dropoffMs != null) {
+            eta.setDropoffTime(toDateTime(dropoffMs));
+            eta.setDropoffInSeconds(Math.max(0, (dropoffMs - nowMs) / 1000));
+        }
+    }
+
+    private LocalDateTime toDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), clock.getZone());
+    }
+}
@@ -0,0 +1,478 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
+import com.example.elevator.model.ElevatorLog;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of elevator events in memory-mapped segment files.
+ * Every event is a fixed 40-byte little-endian record, so record n lives at a computable offset and appending is a
+ * single atomic increment plus a few stores into the page cache, with no locks and no database involved:
+ * <pre>
+ *  0 timestamp (epoch millis)   8 elevator id   16 request id   24 value   32 floor   36 event code
+ * </pre>
+ * Each segment holds a fixed number of records and is named after the position of its first record. The event code
+ * is written last with release semantics and read with acquire semantics, so a reader never sees a half-written
+ * record: code 0 means the slot has been claimed but not written yet. Data reaches the OS as soon as it is
+ * written; {@link #force()} and {@link #close()} flush it to disk.
+ * Only the segment being written and the few most recently read stay mapped, however long the journal grows, and
+ * {@link #removeBefore(long)} deletes whole segments from the start once their events have expired.
+ */
+public class EventJournal implements Closeable {
+
+    static final int RECORD_SIZE = 40;
+
+    private static final int TIMESTAMP = 0;
+    private static final int ELEVATOR_ID = 8;
+    private static final int REQUEST_ID = 16;
+    private static final int VALUE = 24;
+    private static final int FLOOR = 32;
+    private static final int CODE = 36;
+
+    private static final String SUFFIX = ".journal";
+
+    // Segments other than the one being written that stay mapped, least recently read first out
+    private static final int MAPPED_SEGMENTS = 4;
+
+    // How far an event's timestamp may lag behind those of events appended after it: writers stamp an event when
+    // they create it, then claim a slot
+    static final long STAMP_SKEW_MILLIS = 1_000;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path directory;
+    private final int recordsPerSegment;
+
+    // The segment writers are filling, read without a lock
+    private volatile Segment active;
+
+    // Guarded by itself; an evicted mapping is released once no reader holds it any more
+    private final Map<Long, MappedByteBuffer> mapped = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MappedByteBuffer> eldest) {
+            if (size() <= MAPPED_SEGMENTS) {
+                return false;
+            }
+            eldest.getValue().force(); // It may have been written to, and force() only reaches mapped segments
+            return true;
+        }
+    };
+
+    private volatile long firstPosition;
+
+    // Positions below this were written before the journal was opened; a crash may have left holes among them
+    private final long recoveredPosition;
+
+    private final AtomicLong nextPosition;
+
+    public EventJournal(Path directory, int recordsPerSegment) {
+        if (recordsPerSegment < 1 || (long) recordsPerSegment * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Records per segment must be between 1 and "
+                    + Integer.MAX_VALUE / RECORD_SIZE + ": " + recordsPerSegment);
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        try {
+            Files.createDirectories(directory);
+            TreeMap<Long, Path> existing = existingSegments();
+            firstPosition = existing.isEmpty() ? 0 : existing.firstKey();
+            recoveredPosition = existing.isEmpty() ? 0 : endOfSegment(existing.lastKey());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event journal in " + directory, e);
+        }
+        nextPosition = new AtomicLong(recoveredPosition);
+    }
+
+    /**
+     * Appends an event; safe to call from any number of threads.
+     *
+     * @return the event's position in the journal.
+     */
+    public long append(ElevatorEvent event) {
+        long position = nextPosition.getAndIncrement();
+        MappedByteBuffer segment = writable(position);
+        int offset = offset(position);
+        segment.putLong(offset + TIMESTAMP, event.getTimestamp());
+        segment.putLong(offset + ELEVATOR_ID, event.getElevatorId() == null ? 0 : event.getElevatorId());
+        segment.putLong(offset + REQUEST_ID, event.getRequestId() == null ? 0 : event.getRequestId());
+        segment.putLong(offset + VALUE, event.getValue());
+        segment.putInt(offset + FLOOR, event.getFloor());
+        INT.setRelease(segment, offset + CODE, event.getType().getCode()); // Publishes the record
+        return position;
+    }
+
+    /**
+     * The event at a position, or null if it is not written (yet), was removed, or has a code this version does not know.
+     */
+    public ElevatorEvent read(long position) {
+        if (position < firstPosition || position >= nextPosition.get()) {
+            return null;
+        }
+        MappedByteBuffer segment = readable(position);
+        if (segment == null) {
+            return null;
+        }
+        int offset = offset(position);
+        ElevatorEventType type = ElevatorEventType.fromCode((int) INT.getAcquire(segment, offset + CODE));
+        if (type == null) {
+            return null;
+        }
+        long elevatorId = segment.getLong(offset + ELEVATOR_ID);
+        long requestId = segment.getLong(offset + REQUEST_ID);
+        return new ElevatorEvent(segment.getLong(offset + TIMESTAMP), elevatorId == 0 ? null : elevatorId, type,
+                segment.getInt(offset + FLOOR), requestId == 0 ? null : requestId, segment.getLong(offset + VALUE), null);
+    }
+
+    /**
+     * Reads the journal in order from a position, e.g. to replay it or to follow it as it grows.
+     */
+    public Reader reader(long fromPosition) {
+        return new Reader(Math.max(fromPosition, firstPosition));
+    }
+
+    /**
+     * One page of events as log entries, oldest first if the page is sorted ascending, newest first otherwise.
+     * Entries are always in journal order, whatever the sort property; their id is the journal position plus one.
+     */
+    public Page<ElevatorLog> page(Pageable pageable) {
+        return pageOfPositions(firstPosition, nextPosition.get(), pageable);
+    }
+
+    /**
+     * Like {@link #page(Pageable)}, restricted to events recorded from (inclusive) to (exclusive), in epoch millis.
+     */
+    public Page<ElevatorLog> page(long fromMillis, long toMillis, Pageable pageable) {
+        long end = nextPosition.get();
+        return pageOfPositions(positionAt(fromMillis, end), positionAt(toMillis, end), pageable);
+    }
+
+    /**
+     * Position of the first event recorded at or after a time. Timestamps are in journal order only up to
+     * {@link #STAMP_SKEW_MILLIS}, since writers stamp an event before claiming its slot: a binary search finds where
+     * events older than that window end, and the window itself is scanned.
+     */
+    long positionAt(long epochMillis, long end) {
+        long earliest = epochMillis < Long.MIN_VALUE + STAMP_SKEW_MILLIS ? Long.MIN_VALUE : epochMillis - STAMP_SKEW_MILLIS;
+        for (long position = search(earliest, end); position < end; position++) {
+            ElevatorEvent event = read(position);
+            if (event != null && event.getTimestamp() >= epochMillis) {
+                return position;
+            }
+        }
+        return end;
+    }
+
+    // Binary search for the first event at or after a time, for timestamps in journal order
+    private long search(long epochMillis, long end) {
+        long low = firstPosition;
+        long high = end;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            ElevatorEvent event = read(mid);
+            long probe = mid;
+            while (event == null && ++probe < high) {
+                event = read(probe); // Step over holes to the next written record
+            }
+            if (event == null) {
+                high = mid;
+            } else if (event.getTimestamp() < epochMillis) {
+                low = probe + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Keyset page, newest first: up to size entries recorded at or after fromMillis, optionally for one elevator, at
+     * positions below beforePosition. Locating the range is a binary search; the elevator filter scans records.
+     */
+    public Slice<ElevatorLog> sliceBefore(long beforePosition, long fromMillis, Long elevatorId, int size) {
+        long end = Math.min(beforePosition, nextPosition.get());
+        long start = positionAt(fromMillis, end);
+        List<ElevatorLog> content = new ArrayList<>(size);
+        for (long position = end - 1; position >= start && content.size() <= size; position--) {
+            ElevatorEvent event = read(position);
+            if (event != null && (elevatorId == null || elevatorId.equals(event.getElevatorId()))) {
+                ElevatorLog log = event.toLog();
+                log.setId(position + 1);
+                content.add(log);
+            }
+        }
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content.remove(size);
+        }
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+
+    private Page<ElevatorLog> pageOfPositions(long start, long end, Pageable pageable) {
+        long total = Math.max(0, end - start);
+        boolean ascending = pageable.getSort().stream().findFirst().map(Sort.Order::isAscending).orElse(true);
+        List<ElevatorLog> content = new ArrayList<>(pageable.getPageSize());
+        for (long i = pageable.getOffset(); i < total && content.size() < pageable.getPageSize(); i++) {
+            long position = ascending ? start + i : end - 1 - i;
+            ElevatorEvent event = read(position);
+            if (event != null) {
+                ElevatorLog log = event.toLog();
+                log.setId(position + 1);
+                content.add(log);
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    public long getFirstPosition() {
+        return firstPosition;
+    }
+
+    /**
+     * Position the next event will be written at; positions below it may still be being written.
+     */
+    public long getNextPosition() {
+        return nextPosition.get();
+    }
+
+    public long size() {
+        return nextPosition.get() - firstPosition;
+    }
+
+    /**
+     * Deletes the segments whose events were all recorded before a time, oldest first. The segment holding the last
+     * claimed position is always kept, so writers never lose theirs.
+     *
+     * @return the number of segment files deleted.
+     */
+    public synchronized int removeBefore(long epochMillis) {
+        long end = nextPosition.get();
+        if (end <= firstPosition) {
+            return 0;
+        }
+        long keep = Math.min(positionAt(epochMillis, end), end - 1);
+        long newFirst = keep - keep % recordsPerSegment;
+        long oldFirst = firstPosition;
+        if (newFirst <= oldFirst) {
+            return 0;
+        }
+        firstPosition = newFirst; // Readers stop short of the segments before the files go
+        int removed = 0;
+        for (long index = oldFirst / recordsPerSegment; index < newFirst / recordsPerSegment; index++) {
+            synchronized (mapped) {
+                mapped.remove(index);
+            }
+            Path file = file(index);
+            try {
+                if (Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete journal segment " + file, e);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Flushes everything written so far to disk.
+     */
+    public void force() {
+        Segment current = active;
+        if (current != null) {
+            current.buffer.force();
+        }
+        synchronized (mapped) {
+            for (MappedByteBuffer segment : mapped.values()) {
+                segment.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        synchronized (mapped) {
+            mapped.clear();
+        }
+        active = null;
+    }
+
+    /**
+     * Sequential cursor over the journal. Not thread-safe; give each consumer its own.
+     */
+    public final class Reader {
+
+        private long position;
+
+        private Reader(long position) {
+            this.position = position;
+        }
+
+        /**
+         * @return the next event, or null if the reader has caught up with the writers.
+         */
+        public ElevatorEvent next() {
+            while (position < nextPosition.get()) {
+                if (position < firstPosition) {
+                    position = firstPosition; // Removed while the reader lagged behind
+                    continue;
+                }
+                ElevatorEvent event = read(position);
+                if (event != null) {
+                    position++;
+                    return event;
+                }
+                if (position >= recoveredPosition && !published(position)) {
+                    return null; // Claimed by a writer that has not finished; try again later
+                }
+                position++; // A hole left by a crash, or an event type this version does not know
+            }
+            return null;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+    }
+
+    private static final class Segment {
+        final long index;
+        final MappedByteBuffer buffer;
+
+        Segment(long index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+
+    // The segment to write a claimed position into, created if this is the first position claimed in it
+    private MappedByteBuffer writable(long position) {
+        long index = position / recordsPerSegment;
+        Segment current = active;
+        if (current != null && current.index == index) {
+            return current.buffer;
+        }
+        synchronized (mapped) {
+            current = active;
+            if (current != null && current.index == index) {
+                return current.buffer;
+            }
+            MappedByteBuffer buffer = mapped.remove(index);
+            if (buffer == null) {
+                buffer = map(index, true);
+            }
+            if (current == null || index > current.index) {
+                if (current != null) {
+                    mapped.put(current.index, current.buffer); // Writers that claimed its last slots may still be at it
+                }
+                active = new Segment(index, buffer);
+            } else {
+                mapped.put(index, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    // The segment holding a position, or null if its file is gone or not created yet; never creates one
+    private MappedByteBuffer readable(long position) {
+        long index = position / recordsPerSegment;
+        Segment current = active;
+        if (current != null && current.index == index) {
+            return current.buffer;
+        }
+        synchronized (mapped) {
+            MappedByteBuffer buffer = mapped.get(index);
+            if (buffer == null) {
+                buffer = map(index, false);
+                if (buffer != null) {
+                    mapped.put(index, buffer);
+                }
+            }
+            return buffer;
+        }
+    }
+
+    private boolean published(long position) {
+        MappedByteBuffer segment = readable(position);
+        return segment != null && (int) INT.getAcquire(segment, offset(position) + CODE) != 0;
+    }
+
+    private int offset(long position) {
+        return (int) (position % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private Path file(long segmentIndex) {
+        return directory.resolve(String.format("%020d%s", segmentIndex * recordsPerSegment, SUFFIX));
+    }
+
+    // Null if the segment does not exist and create is false
+    private MappedByteBuffer map(long segmentIndex, boolean create) {
+        Path file = file(segmentIndex);
+        StandardOpenOption[] options = create
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            // Mapping past the end grows the file; new segments start zero-filled, i.e. with every slot unwritten
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map journal segment " + file, e);
+        }
+    }
+
+    private TreeMap<Long, Path> existingSegments() throws IOException {
+        TreeMap<Long, Path> existing = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    existing.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return existing;
+    }
+
+    // Position after the last written record of the segment starting at firstOfSegment
+    private long endOfSegment(long firstOfSegment) {
+        MappedByteBuffer segment = readable(firstOfSegment);
+        for (int slot = recordsPerSegment - 1; slot >= 0; slot--) {
+            if ((int) INT.getAcquire(segment, slot * RECORD_SIZE + CODE) != 0) {
+                return firstOfSegment + slot + 1;
+            }
+        }
+        return firstOfSegment;
+    }
+}
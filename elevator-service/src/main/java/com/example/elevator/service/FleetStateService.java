@@ -0,0 +1,603 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.model.FloorIndex;
+import com.example.elevator.model.StopQueue;
+import com.example.elevator.repository.ElevatorRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Authoritative in-memory view of the fleet.
+ * Every car is held as an immutable {@link ElevatorState}, indexed by status, by operational state, by bank and
+ * (for operational cars) by floor and direction of travel, so the scheduler, watchdog and optimizers can answer their queries without a database round trip.
+ * Each bank has a floor index of its own, so dispatchers of different banks never contend for one.
+ * The database is loaded once at startup and afterwards only receives writes.
+ * <p>
+ * Concurrent writers (movement engine, watchdog, energy optimizer, operators) change a car through
+ * {@link #transition}, a compare-and-set on the snapshot's version, so none of them can overwrite a change it did not
+ * see. The compare-and-set runs inside {@link ConcurrentHashMap#compute} so the indexes move with the snapshot; that
+ * holds the car's map bin for the swap only, never across I/O, so cars never wait for one another.
+ */
+@Service
+public class FleetStateService {
+
+    @Autowired
+    private ElevatorRepository elevatorRepository;
+
+    private final Map<Long, ElevatorState> states = new ConcurrentHashMap<>();
+
+    private final Map<ElevatorStatus, Set<Long>> byStatus = new EnumMap<>(ElevatorStatus.class);
+
+    private final Set<Long> operational = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, FloorIndex> floorIndexes = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<Long>> byBank = new ConcurrentHashMap<>();
+
+    private final Map<Long, StopQueue> stops = new ConcurrentHashMap<>();
+
+    // Requests each car is serving, kept until the car has run out of stops, i.e. has served them all
+    private final Map<Long, Trip> trips = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Long>> tripsByCar = new ConcurrentHashMap<>();
+
+    // Cars with queued stops, i.e. the ones the movement engine has to advance
+    private final Set<Long> activeCars = ConcurrentHashMap.newKeySet();
+
+    private final List<Consumer<Long>> activationListeners = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<Long>> changeListeners = new CopyOnWriteArrayList<>();
+
+    public FleetStateService() {
+        for (ElevatorStatus status : ElevatorStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        for (Elevator elevator : elevatorRepository.findAll()) {
+            update(elevator);
+        }
+    }
+
+    /**
+     * Brings the store in line with the database on a node that does not run the fleet itself: cars whose row
+     * differs from their snapshot are replaced, and cars no longer in the database are dropped.
+     *
+     * @return the number of cars that changed.
+     */
+    public int reload(Collection<Elevator> elevators) {
+        Set<Long> present = new HashSet<>();
+        int changed = 0;
+        for (Elevator elevator : elevators) {
+            present.add(elevator.getId());
+            ElevatorState row = ElevatorState.from(elevator);
+            ElevatorState current = states.get(elevator.getId());
+            if (current == null || !sameRow(current, row)) {
+                put(row);
+                changed++;
+            }
+        }
+        for (Long id : new ArrayList<>(states.keySet())) {
+            if (!present.contains(id)) {
+                remove(id);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Mirrors a persisted entity into the store.
+     */
+    public ElevatorState update(Elevator elevator) {
+        return put(ElevatorState.from(elevator));
+    }
+
+    /**
+     * Installs a snapshot unconditionally, replacing whatever the car had. Prefer {@link #transition} for changes
+     * derived from the car's current state.
+     */
+    public ElevatorState put(ElevatorState state) {
+        ElevatorState[] installed = new ElevatorState[1];
+        // compute() serialises writers per car, which keeps the secondary indexes consistent with the map
+        states.compute(state.getId(), (id, previous) -> {
+            ElevatorState next = withStopExtent(state.withVersion(previous == null ? 1 : previous.getVersion() + 1));
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(next);
+            installed[0] = next;
+            return next;
+        });
+        return installed(installed[0]);
+    }
+
+    /**
+     * Installs {@code updated} only if the car still has the snapshot {@code expected}, i.e. one with the same version.
+     * The stop extent and version of {@code updated} are filled in by the store.
+     *
+     * @return false if another writer changed the car first, or it is gone.
+     */
+    public boolean compareAndSet(ElevatorState expected, ElevatorState updated) {
+        return swap(expected, updated) != null;
+    }
+
+    /**
+     * Applies a transition to the car's current snapshot and installs the result by compare-and-set, re-applying it
+     * to the newer snapshot whenever another writer got in first. The function may therefore run more than once and
+     * must be free of side effects; returning null or its argument means the transition does not apply.
+     *
+     * @return the installed snapshot, or empty if the car is unknown or the transition did not apply.
+     */
+    public Optional<ElevatorState> transition(Long id, UnaryOperator<ElevatorState> transition) {
+        while (true) {
+            ElevatorState current = states.get(id);
+            if (current == null) {
+                return Optional.empty();
+            }
+            ElevatorState next = transition.apply(current);
+            if (next == null || next == current) {
+                return Optional.empty();
+            }
+            ElevatorState installed = swap(current, next);
+            if (installed != null) {
+                return Optional.of(installed);
+            }
+        }
+    }
+
+    /**
+     * Writes a car's snapshot through to the database and records the row version it was stored with.
+     * The store is authoritative: if the row changed underneath (an optimistic-locking conflict), the car's latest
+     * snapshot is written once more against the row's current version.
+     * Every write-through passes here, so this is also where the car's cached entity is replaced.
+     *
+     * @return the persisted entity.
+     */
+    @CachePut(value = "elevators", key = "#state.id")
+    public Elevator save(ElevatorState state) {
+        Elevator saved;
+        try {
+            saved = elevatorRepository.save(state.toEntity());
+        } catch (OptimisticLockingFailureException e) {
+            Elevator row = elevatorRepository.findById(state.getId()).orElseThrow(() -> e);
+            ElevatorState latest = get(state.getId()).orElse(state);
+            saved = elevatorRepository.save(latest.withRowVersion(row.getVersion()).toEntity());
+        }
+        Long rowVersion = saved.getVersion();
+        if (rowVersion != null) {
+            transition(state.getId(), current -> current.getRowVersion() == null || current.getRowVersion() < rowVersion
+                    ? current.withRowVersion(rowVersion) : null);
+        }
+        return saved;
+    }
+
+    public void remove(Long id) {
+        states.computeIfPresent(id, (key, previous) -> {
+            unindex(previous);
+            return null;
+        });
+        stops.remove(id);
+        activeCars.remove(id);
+        endTrips(id);
+        changed(id);
+    }
+
+    /**
+     * Queues a request's pickup and drop-off on the car's sweep.
+     */
+    public void addRequestStops(Long id, int sourceFloor, int destinationFloor) {
+        stopQueue(id).addRequest(sourceFloor, destinationFloor);
+        refreshStopExtent(id);
+        activate(id);
+    }
+
+    /**
+     * Drops the queued stops of every car, e.g. when this node stops running the fleet. Moving cars halt at the next
+     * floor they reach.
+     */
+    public void clearStops() {
+        for (Long id : new ArrayList<>(stops.keySet())) {
+            stops.remove(id);
+            activeCars.remove(id);
+            endTrips(id);
+            refreshStopExtent(id);
+        }
+    }
+
+    public void addStop(Long id, int floor, Direction sweep) {
+        stopQueue(id).add(floor, sweep);
+        refreshStopExtent(id);
+        activate(id);
+    }
+
+    /**
+     * Takes back the stops queued by {@link #addRequestStops}, e.g. when the request is no longer the car's to serve.
+     */
+    public void removeRequestStops(Long id, int sourceFloor, int destinationFloor) {
+        StopQueue queue = stops.get(id);
+        if (queue != null) {
+            queue.removeRequest(sourceFloor, destinationFloor);
+            refreshStopExtent(id);
+        }
+    }
+
+    public void removeStop(Long id, int floor, Direction sweep) {
+        StopQueue queue = stops.get(id);
+        if (queue != null && queue.remove(floor, sweep)) {
+            refreshStopExtent(id);
+        }
+    }
+
+    /**
+     * Records that the car serves the request, so the request can be looked up without the database until the car
+     * has been to all of its stops.
+     */
+    public void addTrip(Long id, ElevatorRequest request) {
+        tripsByCar.computeIfAbsent(id, car -> ConcurrentHashMap.newKeySet()).add(request.getId());
+        trips.put(request.getId(), new Trip(id, request));
+    }
+
+    public void removeTrip(Long id, Long requestId) {
+        Set<Long> carTrips = tripsByCar.get(id);
+        if (carTrips != null && carTrips.remove(requestId)) {
+            endTrip(id, requestId);
+        }
+    }
+
+    /**
+     * A request a car is still serving, as last assigned on this node.
+     */
+    public Optional<ElevatorRequest> getTrip(Long requestId) {
+        Trip trip = requestId == null ? null : trips.get(requestId);
+        return trip == null ? Optional.empty() : Optional.of(trip.request);
+    }
+
+    /**
+     * Whether the car still has to pick the request up, i.e. serves it and has not yet stopped at its source floor
+     * on the request's sweep.
+     */
+    public boolean isAwaitingPickup(Long id, Long requestId) {
+        Trip trip = requestId == null ? null : trips.get(requestId);
+        return trip != null && trip.carId.equals(id) && !trip.boarded;
+    }
+
+    // Marks the trips whose pickup stop the car has just served
+    private void board(Long id, int floor, StopQueue queue) {
+        Set<Long> carTrips = tripsByCar.get(id);
+        if (carTrips == null) {
+            return;
+        }
+        for (Long requestId : carTrips) {
+            Trip trip = trips.get(requestId);
+            if (trip != null && trip.carId.equals(id) && !trip.boarded && trip.request.getSourceFloor() == floor
+                    && !queue.has(floor, PendingRequestQueue.directionOf(trip.request))) {
+                trip.boarded = true;
+            }
+        }
+    }
+
+    /**
+     * Riders of the requests the car is serving, counted until the car has run out of stops.
+     */
+    public int getRiders(Long id) {
+        Set<Long> carTrips = tripsByCar.get(id);
+        if (carTrips == null) {
+            return 0;
+        }
+        int riders = 0;
+        for (Long requestId : carTrips) {
+            Trip trip = trips.get(requestId);
+            if (trip != null && trip.carId.equals(id)) {
+                riders += trip.request.getRiderCount();
+            }
+        }
+        return riders;
+    }
+
+    private void endTrips(Long id) {
+        Set<Long> carTrips = tripsByCar.remove(id);
+        if (carTrips != null) {
+            for (Long requestId : carTrips) {
+                endTrip(id, requestId);
+            }
+        }
+    }
+
+    // Leaves the request alone if it has been handed to another car meanwhile
+    private void endTrip(Long id, Long requestId) {
+        trips.computeIfPresent(requestId, (key, trip) -> trip.carId.equals(id) ? null : trip);
+    }
+
+    private static final class Trip {
+        final Long carId;
+        final ElevatorRequest request;
+        // Set once the car has served the request's pickup stop
+        volatile boolean boarded;
+
+        Trip(Long carId, ElevatorRequest request) {
+            this.carId = carId;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Registers a callback invoked with a car's id whenever it goes from having no stops to having some.
+     */
+    public void addActivationListener(Consumer<Long> listener) {
+        activationListeners.add(listener);
+    }
+
+    /**
+     * Registers a callback invoked with a car's id after its state or its queued stops change.
+     */
+    public void addChangeListener(Consumer<Long> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * The car's queued stops in the order it will serve them, starting from its current position.
+     */
+    public List<Integer> route(ElevatorState state) {
+        StopQueue queue = stops.get(state.getId());
+        return queue == null ? new ArrayList<>() : queue.route(state.getCurrentFloor(), state.getTravelDirection());
+    }
+
+    /**
+     * Next floor the car should head for in LOOK order, or null if it has nothing queued.
+     */
+    public Integer nextStop(ElevatorState state) {
+        StopQueue queue = stops.get(state.getId());
+        return queue == null ? null : queue.next(state.getCurrentFloor(), state.getTravelDirection());
+    }
+
+    /**
+     * Clears a reached stop on the sweep the car is serving.
+     *
+     * @param travel the direction the car reached the floor in
+     * @return true if the car had a stop at that floor.
+     */
+    public boolean arriveAt(Long id, int floor, Direction travel) {
+        StopQueue queue = stops.get(id);
+        if (queue == null || !queue.arrive(floor, travel)) {
+            return false;
+        }
+        if (queue.isEmpty()) {
+            endTrips(id);
+        } else {
+            board(id, floor, queue);
+        }
+        refreshStopExtent(id);
+        return true;
+    }
+
+    public void deactivate(Long id) {
+        activeCars.remove(id);
+        // A stop may have been queued after the caller last looked; keep a serviceable car active in that case
+        StopQueue queue = stops.get(id);
+        ElevatorState state = states.get(id);
+        if (queue != null && !queue.isEmpty() && state != null && state.isOperational()) {
+            activeCars.add(id);
+        }
+    }
+
+    public List<Long> getActiveCars() {
+        return new ArrayList<>(activeCars);
+    }
+
+    public boolean isActive(Long id) {
+        return activeCars.contains(id);
+    }
+
+    public Optional<ElevatorState> get(Long id) {
+        return Optional.ofNullable(states.get(id));
+    }
+
+    public List<ElevatorState> getAll() {
+        return new ArrayList<>(states.values());
+    }
+
+    public List<ElevatorState> getOperational() {
+        return resolve(operational);
+    }
+
+    public List<ElevatorState> getByStatus(ElevatorStatus status) {
+        return resolve(byStatus.get(status));
+    }
+
+    public List<ElevatorState> getIdle() {
+        List<ElevatorState> idle = new ArrayList<>();
+        for (Long id : byStatus.get(ElevatorStatus.IDLE)) {
+            ElevatorState state = states.get(id);
+            if (state != null && state.isOperational()) {
+                idle.add(state);
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * Every car of one bank, in or out of service.
+     */
+    public List<ElevatorState> getByBank(String bank) {
+        Set<Long> ids = byBank.get(bank);
+        return ids == null ? new ArrayList<>() : resolve(ids);
+    }
+
+    /**
+     * Banks that have or had cars.
+     */
+    public Set<String> getBanks() {
+        return new HashSet<>(byBank.keySet());
+    }
+
+    /**
+     * Up to {@code limit} operational cars of the bank matching the filter, nearest to the floor first.
+     *
+     * @param travel only cars travelling this way, or null for any direction
+     */
+    public List<ElevatorState> getNearest(String bank, int floor, Direction travel, int limit,
+                                          Predicate<ElevatorState> filter) {
+        List<ElevatorState> result = new ArrayList<>();
+        FloorIndex floorIndex = floorIndexes.get(bank);
+        if (floorIndex != null) {
+            // Collect the snapshots the filter accepted rather than looking the ids up again afterwards
+            floorIndex.nearest(floor, travel, limit, id -> accept(id, filter, result));
+        }
+        return result;
+    }
+
+    /**
+     * All operational cars of the bank matching the filter within {@code radius} floors, nearest first.
+     */
+    public List<ElevatorState> getWithin(String bank, int floor, int radius, Predicate<ElevatorState> filter) {
+        List<ElevatorState> result = new ArrayList<>();
+        FloorIndex floorIndex = floorIndexes.get(bank);
+        if (floorIndex != null) {
+            floorIndex.within(floor, radius, null, id -> accept(id, filter, result));
+        }
+        return result;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    // Whether the snapshot holds what the row does, ignoring what only the store tracks
+    private static boolean sameRow(ElevatorState state, ElevatorState row) {
+        return row.equals(state.toBuilder().version(0).stopCount(0).lowestStop(0).highestStop(0).build());
+    }
+
+    private StopQueue stopQueue(Long id) {
+        return stops.computeIfAbsent(id, key -> new StopQueue());
+    }
+
+    private void activate(Long id) {
+        if (activeCars.add(id)) {
+            for (Consumer<Long> listener : activationListeners) {
+                listener.accept(id);
+            }
+        }
+    }
+
+    private ElevatorState swap(ElevatorState expected, ElevatorState updated) {
+        ElevatorState[] installed = new ElevatorState[1];
+        states.computeIfPresent(expected.getId(), (id, current) -> {
+            if (current.getVersion() != expected.getVersion()) {
+                return current;
+            }
+            ElevatorState next = withStopExtent(updated.withVersion(current.getVersion() + 1));
+            unindex(current);
+            index(next);
+            installed[0] = next;
+            return next;
+        });
+        return installed[0] == null ? null : installed(installed[0]);
+    }
+
+    private ElevatorState installed(ElevatorState state) {
+        changed(state.getId());
+        if (state.isOperational() && state.hasStops()) {
+            activate(state.getId()); // e.g. a repaired car resuming its queued stops
+        }
+        return state;
+    }
+
+    private void refreshStopExtent(Long id) {
+        states.computeIfPresent(id, (key, state) -> {
+            // The stop extent decides the travel direction, which the floor index is keyed by
+            ElevatorState updated = withStopExtent(state).withVersion(state.getVersion() + 1);
+            unindex(state);
+            index(updated);
+            return updated;
+        });
+        changed(id);
+    }
+
+    private void changed(Long id) {
+        for (Consumer<Long> listener : changeListeners) {
+            listener.accept(id);
+        }
+    }
+
+    private boolean accept(Long id, Predicate<ElevatorState> filter, List<ElevatorState> result) {
+        ElevatorState state = states.get(id);
+        if (state == null || !filter.test(state)) {
+            return false;
+        }
+        result.add(state);
+        return true;
+    }
+
+    private ElevatorState withStopExtent(ElevatorState state) {
+        StopQueue queue = stops.get(state.getId());
+        if (queue == null) {
+            return state.getStopCount() == 0 ? state : state.toBuilder().stopCount(0).lowestStop(0).highestStop(0).build();
+        }
+        synchronized (queue) {
+            if (queue.isEmpty()) {
+                return state.toBuilder().stopCount(0).lowestStop(0).highestStop(0).build();
+            }
+            return state.toBuilder().stopCount(queue.size()).lowestStop(queue.lowest()).highestStop(queue.highest()).build();
+        }
+    }
+
+    private List<ElevatorState> resolve(Collection<Long> ids) {
+        List<ElevatorState> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ElevatorState state = states.get(id);
+            if (state != null) {
+                result.add(state);
+            }
+        }
+        return result;
+    }
+
+    private void index(ElevatorState state) {
+        if (state.getStatus() != null) {
+            byStatus.get(state.getStatus()).add(state.getId());
+        }
+        byBank.computeIfAbsent(state.getBank(), bank -> ConcurrentHashMap.newKeySet()).add(state.getId());
+        if (state.isOperational()) {
+            operational.add(state.getId());
+            floorIndexes.computeIfAbsent(state.getBank(), bank -> new FloorIndex())
+                    .add(state.getId(), state.getCurrentFloor(), state.getTravelDirection());
+        }
+    }
+
+    private void unindex(ElevatorState state) {
+        if (state.getStatus() != null) {
+            byStatus.get(state.getStatus()).remove(state.getId());
+        }
+        byBank.get(state.getBank()).remove(state.getId());
+        operational.remove(state.getId());
+        FloorIndex floorIndex = floorIndexes.get(state.getBank());
+        if (floorIndex != null) {
+            floorIndex.remove(state.getId(), state.getCurrentFloor(), state.getTravelDirection());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.elevator.service;
+
+import com.example.elevator.dto.ElevatorStatusDTO;
+import com.example.elevator.model.ElevatorState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The fleet status served by GET /status and broadcast over WebSocket, kept ready to send.
+ * Whenever a car changes in the fleet state store, its entry in an immutable {@link Snapshot} is replaced and the
+ * new snapshot published through an atomic reference. Each entry keeps the car's status as JSON, and the snapshot
+ * joins them into the response body once, so reading the status costs neither a query nor a Jackson call.
+ */
+@Service
+public class FleetStatusView {
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    @PostConstruct
+    public void start() {
+        fleetStateService.addChangeListener(this::refresh);
+        for (ElevatorState state : fleetStateService.getAll()) {
+            refresh(state.getId());
+        }
+    }
+
+    public Snapshot getSnapshot() {
+        return current.get();
+    }
+
+    /**
+     * Brings one car's entry up to date with the store.
+     */
+    public void refresh(Long id) {
+        ElevatorState state = fleetStateService.get(id).orElse(null);
+        if (state == null) {
+            current.updateAndGet(snapshot -> snapshot.without(id));
+            return;
+        }
+        ElevatorStatusDTO status = toStatusDTO(state);
+        Entry existing = current.get().find(id);
+        // Most changes (stops queued, heartbeats) leave the visible status alone; reuse its JSON then
+        byte[] json = existing != null && existing.status.equals(status) ? existing.json : serialize(status);
+        Entry entry = new Entry(id, state.getVersion(), status, json);
+        current.updateAndGet(snapshot -> snapshot.with(entry));
+        if (fleetStateService.get(id).isEmpty()) {
+            current.updateAndGet(snapshot -> snapshot.without(id)); // Removed while we were adding it back
+        }
+    }
+
+    static ElevatorStatusDTO toStatusDTO(ElevatorState state) {
+        return new ElevatorStatusDTO(state.getId(), state.getCurrentFloor(), state.getStatus(), state.getDirection(),
+                state.isOperational(), state.getBank());
+    }
+
+    private byte[] serialize(ElevatorStatusDTO status) {
+        try {
+            return objectMapper.writeValueAsBytes(status);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize status of elevator " + status.getId(), e);
+        }
+    }
+
+    /**
+     * One car's status, with the store version it was taken from.
+     */
+    static final class Entry {
+        final long id;
+        final long version;
+        final ElevatorStatusDTO status;
+        final byte[] json;
+
+        Entry(long id, long version, ElevatorStatusDTO status, byte[] json) {
+            this.id = id;
+            this.version = version;
+            this.status = status;
+            this.json = json;
+        }
+    }
+
+    /**
+     * Immutable status of the whole fleet, ordered by elevator id. Replacing a car copies the entry array;
+     * the JSON body is rebuilt only if the car's visible status changed.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new Entry[0], null);
+
+        private final Entry[] entries;
+        private final List<ElevatorStatusDTO> statuses;
+        private final byte[] json;
+
+        private Snapshot(Entry[] entries, byte[] json) {
+            this.entries = entries;
+            List<ElevatorStatusDTO> statuses = new ArrayList<>(entries.length);
+            for (Entry entry : entries) {
+                statuses.add(entry.status);
+            }
+            this.statuses = Collections.unmodifiableList(statuses);
+            this.json = json != null ? json : join(entries);
+        }
+
+        /**
+         * The statuses in id order. Shared with every other reader, so the DTOs must not be modified.
+         */
+        public List<ElevatorStatusDTO> getStatuses() {
+            return statuses;
+        }
+
+        /**
+         * The statuses as a JSON array, ready to write out. Shared with every other reader; do not modify.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        Entry find(long id) {
+            int index = indexOf(id);
+            return index >= 0 ? entries[index] : null;
+        }
+
+        Snapshot with(Entry entry) {
+            int index = indexOf(entry.id);
+            if (index >= 0) {
+                Entry existing = entries[index];
+                if (existing.version >= entry.version) {
+                    return this; // A newer state of the car was published first
+                }
+                Entry[] replaced = entries.clone();
+                replaced[index] = entry;
+                return new Snapshot(replaced, existing.json == entry.json ? json : null);
+            }
+            int insertAt = -index - 1;
+            Entry[] grown = new Entry[entries.length + 1];
+            System.arraycopy(entries, 0, grown, 0, insertAt);
+            grown[insertAt] = entry;
+            System.arraycopy(entries, insertAt, grown, insertAt + 1, entries.length - insertAt);
+            return new Snapshot(grown, null);
+        }
+
+        Snapshot without(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return this;
+            }
+            Entry[] shrunk = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, shrunk, 0, index);
+            System.arraycopy(entries, index + 1, shrunk, index, entries.length - index - 1);
+            return new Snapshot(shrunk, null);
+        }
+
+        private int indexOf(long id) {
+            int low = 0;
+            int high = entries.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (entries[mid].id < id) {
+                    low = mid + 1;
+                } else if (entries[mid].id > id) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private static byte[] join(Entry[] entries) {
+            int length = 2 + Math.max(0, entries.length - 1);
+            for (Entry entry : entries) {
+                length += entry.json.length;
+            }
+            byte[] joined = new byte[length];
+            joined[0] = '[';
+            int offset = 1;
+            for (int i = 0; i < entries.length; i++) {
+                if (i > 0) {
+                    joined[offset++] = ',';
+                }
+                System.arraycopy(entries[i].json, 0, joined, offset, entries[i].json.length);
+                offset += entries[i].json.length;
+            }
+            joined[offset] = ']';
+            return joined;
+        }
+    }
+}
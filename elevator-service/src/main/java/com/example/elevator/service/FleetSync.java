@@ -0,0 +1,131 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRepository;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Keeps the in-memory state of each node in line with the leader when several nodes share the fleet
+ * (elevator.leader.election=REDIS). The leader writes every change through to the database, movement shortly after,
+ * so a standby refreshes its fleet and pending requests from there and can serve reads and accept requests.
+ * <p>
+ * A newly elected leader starts from the same refresh, then re-queues the trips of recently assigned requests,
+ * whose stops were only held by the previous leader, and dispatches whatever is pending. A leader that loses its
+ * lease drops its stops so its cars halt. Requests accepted by standbys are picked up from the database by the
+ * leader's poll.
+ */
+@Service
+public class FleetSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetSync.class);
+
+    // A request this fresh may still be on its way into the queue of the node that accepted it
+    private static final long INGEST_GRACE_MS = 1000;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private ElevatorRepository elevatorRepository;
+
+    @Autowired
+    private ElevatorRequestRepository requestRepository;
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Autowired
+    private SchedulerService schedulerService;
+
+    @Autowired
+    private AssignmentPipeline assignmentPipeline;
+
+    @Autowired
+    private FleetStatusView fleetStatusView;
+
+    @Autowired
+    private WebSocketUpdateService webSocketUpdateService;
+
+    // Assignments older than this are taken to be served by the time a new leader recovers them
+    @Value("${elevator.leader.recover-window-ms:120000}")
+    private long recoverWindowMs = 120000;
+
+    @PostConstruct
+    public void start() {
+        leaderElection.addElectedListener(this::takeOver);
+        leaderElection.addRevokedListener(fleetStateService::clearStops);
+    }
+
+    @Scheduled(fixedDelayString = "${elevator.leader.sync-interval-ms:1000}")
+    public void sync() {
+        if (!leaderElection.isClustered()) {
+            return;
+        }
+        if (leaderElection.isLeader()) {
+            pickUpRequests();
+        } else {
+            follow();
+        }
+    }
+
+    /**
+     * Refreshes the fleet and the pending requests from the database.
+     */
+    public void follow() {
+        if (fleetStateService.reload(elevatorRepository.findAll()) > 0) {
+            webSocketUpdateService.sendElevatorStatusUpdate(fleetStatusView.getSnapshot().getJson());
+        }
+        pendingRequestQueue.reload();
+    }
+
+    void takeOver(long fencingToken) {
+        follow();
+        LocalDateTime since = LocalDateTime.now().minus(recoverWindowMs, ChronoUnit.MILLIS);
+        int recovered = 0;
+        for (ElevatorRequest request : requestRepository.findByStatusAndAssignedTimeGreaterThanEqual(RequestStatus.ASSIGNED, since)) {
+            ElevatorState car = fleetStateService.get(request.getAssignedElevatorId()).orElse(null);
+            if (car != null && car.isOperational()) {
+                fleetStateService.addRequestStops(car.getId(), request.getSourceFloor(), request.getDestinationFloor());
+                Direction sweep = PendingRequestQueue.directionOf(request);
+                for (Integer floor : request.getAdditionalDestinations()) {
+                    fleetStateService.addStop(car.getId(), floor, sweep);
+                }
+                fleetStateService.addTrip(car.getId(), request);
+                recovered++;
+            }
+        }
+        logger.info("Took over the fleet with fencing token {}: {} pending requests, {} trips resumed",
+                fencingToken, pendingRequestQueue.size(), recovered);
+        schedulerService.scheduleElevators();
+    }
+
+    // Requests saved by standbys, which only the database tells the leader about
+    void pickUpRequests() {
+        LocalDateTime settled = LocalDateTime.now().minus(INGEST_GRACE_MS, ChronoUnit.MILLIS);
+        for (ElevatorRequest request : requestRepository.findByStatus(RequestStatus.PENDING)) {
+            if (pendingRequestQueue.contains(request.getId()) || assignmentPipeline.isInFlight(request.getId())) {
+                continue;
+            }
+            if (request.getRequestTime() != null && request.getRequestTime().isAfter(settled)) {
+                continue;
+            }
+            schedulerService.submit(request);
+        }
+    }
+}
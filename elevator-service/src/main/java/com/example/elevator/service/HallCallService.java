@@ -0,0 +1,191 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entry point for hall-call presses.
+ * Riders pressing the same direction on the same floor within the coalescing window join one request (a hall call
+ * with a rider count) instead of each saving a row and being dispatched on their own. A press joins a call that is
+ * still waiting for a car, or one whose car has not reached the pickup floor yet; a rider headed somewhere else has
+ * their destination queued as an extra stop on that car.
+ */
+@Service
+public class HallCallService {
+
+    @Autowired
+    private ElevatorRequestRepository requestRepository;
+
+    @Autowired
+    private SchedulerService schedulerService;
+
+    @Autowired
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    // 0 turns coalescing off: every press becomes its own request
+    @Value("${elevator.requests.coalesce-window-ms:10000}")
+    private long coalesceWindowMs = 10000;
+
+    // Most recent call per bank, floor and direction; presses only ever join this one
+    private final Map<String, ElevatorRequest> openCalls = new ConcurrentHashMap<>();
+
+    // Serialises presses for the same bank, floor and direction, so two of them cannot both open a new call
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    private Counter coalesced;
+
+    @PostConstruct
+    public void start() {
+        coalesced = Counter.builder("elevator.requests.coalesced")
+                .description("Hall-call presses merged into an existing request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a press, either by joining an open hall call or by saving it as a new request and dispatching it.
+     *
+     * @return the request that now carries the rider; for a rider who joined a call going elsewhere, a copy of it with
+     * their own destination.
+     */
+    public ElevatorRequest accept(ElevatorRequest press) {
+        if (press.getRiderCount() < 1) {
+            press.setRiderCount(1);
+        }
+        // A standby does not coalesce: the calls it could join are dispatched, and their riders counted, by the leader
+        if (coalesceWindowMs <= 0 || !leaderElection.isLeader()) {
+            return open(press);
+        }
+        Direction direction = PendingRequestQueue.directionOf(press);
+        String key = key(press.getBank(), press.getSourceFloor(), direction);
+        ElevatorRequest call;
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            ElevatorRequest existing = openCalls.get(key);
+            if (existing == null) {
+                existing = waitingCall(press.getBank(), press.getSourceFloor(), direction);
+            }
+            if (existing != null && join(existing, press, direction)) {
+                coalesced.increment();
+                return forRider(existing, press);
+            }
+            call = requestRepository.save(press);
+            openCalls.put(key, call);
+        }
+        // Dispatch immediately instead of waiting for the next scheduler sweep
+        schedulerService.submit(call);
+        return call;
+    }
+
+    private ElevatorRequest open(ElevatorRequest press) {
+        ElevatorRequest call = requestRepository.save(press);
+        schedulerService.submit(call);
+        return call;
+    }
+
+    // After a restart the open calls are gone, but the pending queue still knows who is waiting
+    private ElevatorRequest waitingCall(String bank, int floor, Direction direction) {
+        for (ElevatorRequest request : pendingRequestQueue.getPending(bank, floor, direction)) {
+            if (withinWindow(request)) {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    private boolean join(ElevatorRequest call, ElevatorRequest press, Direction direction) {
+        // Locked against ElevatorService assigning the call at the same moment
+        synchronized (call) {
+            if (!withinWindow(call)) {
+                return false;
+            }
+            boolean otherDestination = press.getDestinationFloor() != call.getDestinationFloor();
+            if (call.getStatus() == RequestStatus.PENDING) {
+                call.setRiderCount(call.getRiderCount() + press.getRiderCount());
+                if (otherDestination) {
+                    call.getAdditionalDestinations().add(press.getDestinationFloor());
+                }
+                if (press.getPriority() > call.getPriority()) {
+                    call.setPriority(press.getPriority());
+                    pendingRequestQueue.add(call); // Re-sorted under the higher priority
+                }
+                writeRiders(call);
+                return true;
+            }
+            if (call.getStatus() == RequestStatus.ASSIGNED && awaitingPickup(call)) {
+                call.setRiderCount(call.getRiderCount() + press.getRiderCount());
+                // A floor another rider already asked for is queued on the car once
+                if (otherDestination && call.getAdditionalDestinations().add(press.getDestinationFloor())) {
+                    fleetStateService.addStop(call.getAssignedElevatorId(), press.getDestinationFloor(), direction);
+                }
+                writeRiders(call);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // The assignment may already be written, so only the riders are, under the current term
+    private void writeRiders(ElevatorRequest call) {
+        requestRepository.updateRiders(call.getId(), call.getRiderCount(),
+                new TreeSet<>(call.getAdditionalDestinations()), leaderElection.getFencingToken());
+    }
+
+    // The joining rider is answered with the call as it concerns them: its id, car and state, but their own drop-off,
+    // which is also what /requests/{id}/eta?destinationFloor= times
+    private static ElevatorRequest forRider(ElevatorRequest call, ElevatorRequest press) {
+        if (press.getDestinationFloor() == call.getDestinationFloor()) {
+            return call;
+        }
+        ElevatorRequest rider = new ElevatorRequest();
+        synchronized (call) {
+            rider.setId(call.getId());
+            rider.setSourceFloor(call.getSourceFloor());
+            rider.setBank(call.getBank());
+            rider.setRequestTime(call.getRequestTime());
+            rider.setPriority(call.getPriority());
+            rider.setRiderCount(call.getRiderCount());
+            rider.setStatus(call.getStatus());
+            rider.setAssignedElevatorId(call.getAssignedElevatorId());
+            rider.setAssignedTime(call.getAssignedTime());
+        }
+        rider.setDestinationFloor(press.getDestinationFloor());
+        return rider;
+    }
+
+    // The call's own pickup, not merely a stop at its floor: the car may come back there for someone else's trip
+    private boolean awaitingPickup(ElevatorRequest call) {
+        ElevatorState car = fleetStateService.get(call.getAssignedElevatorId()).orElse(null);
+        return car != null && car.isOperational() && fleetStateService.isAwaitingPickup(car.getId(), call.getId());
+    }
+
+    private boolean withinWindow(ElevatorRequest call) {
+        return call.getRequestTime() != null
+                && !call.getRequestTime().isBefore(LocalDateTime.now().minusNanos(coalesceWindowMs * 1_000_000L));
+    }
+
+    private static String key(String bank, int floor, Direction direction) {
+        return bank + '/' + (direction == Direction.DOWN ? 2 * floor + 1 : 2 * floor);
+    }
+}
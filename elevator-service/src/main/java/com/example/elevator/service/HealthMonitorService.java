@@ -1,27 +1,34 @@
 package com.example.elevator.service;
 
 import com.example.elevator.model.Direction;
-import com.example.elevator.model.Elevator;
-import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
+import com.example.elevator.model.ElevatorState;
 import com.example.elevator.model.ElevatorStatus;
-import com.example.elevator.repository.ElevatorLogRepository;
 import com.example.elevator.repository.ElevatorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
 public class HealthMonitorService {
 
+    @Autowired
+    private ElevatorLogWriter logWriter;
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
     @Autowired
     private ElevatorRepository elevatorRepository;
 
     @Autowired
-    private ElevatorLogRepository logRepository;
+    private LeaderElection leaderElection;
 
     // Threshold in seconds to consider an elevator "down" if no heartbeat is received
     private static final long HEARTBEAT_THRESHOLD_SECONDS = 60;
@@ -31,59 +38,105 @@ public class HealthMonitorService {
 
     @Scheduled(fixedRate = 10000) // Run every 10 seconds
     public void checkElevatorHealth() {
-        List<Elevator> elevators = elevatorRepository.findAll();
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        if (leaderElection.isClustered()) {
+            adoptHeartbeats();
+        }
+        List<ElevatorState> elevators = fleetStateService.getAll();
         LocalDateTime now = LocalDateTime.now();
 
-        for (Elevator elevator : elevators) {
-            if (elevator.isOperational()) {
+        for (ElevatorState state : elevators) {
+            if (state.isOperational()) {
                 // Check if heartbeat is stale
-                if (elevator.getLastHeartbeat() != null && 
-                    ChronoUnit.SECONDS.between(elevator.getLastHeartbeat(), now) > HEARTBEAT_THRESHOLD_SECONDS) {
-                    
-                    // Mark as non-operational (Watchdog detects failure)
-                    elevator.setOperational(false);
-                    elevator.setStatus(ElevatorStatus.OUT_OF_SERVICE);
-                    elevatorRepository.save(elevator);
-                    
-                    logRepository.save(new ElevatorLog(elevator.getId(), 
-                        "Watchdog: Elevator marked OUT_OF_SERVICE due to missing heartbeat. Last heartbeat: " + elevator.getLastHeartbeat()));
+                if (isSilentFor(state, now, HEARTBEAT_THRESHOLD_SECONDS)) {
+                    // Mark as non-operational (Watchdog detects failure), unless a heartbeat arrived since the scan
+                    fleetStateService.transition(state.getId(), current ->
+                                    current.isOperational() && isSilentFor(current, now, HEARTBEAT_THRESHOLD_SECONDS)
+                                            ? current.toBuilder().operational(false).status(ElevatorStatus.OUT_OF_SERVICE).build()
+                                            : null)
+                            .ifPresent(down -> {
+                                fleetStateService.save(down);
+                                logWriter.log(ElevatorEvent.of(ElevatorEventType.HEARTBEAT_LOST, down.getId())
+                                        .withValue(down.getLastHeartbeat().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+                            });
                 }
             } else {
                 // Watchdog Restart Logic: Attempt to restart non-responding elevators
-                if (elevator.getLastHeartbeat() != null && 
-                    ChronoUnit.SECONDS.between(elevator.getLastHeartbeat(), now) > RESTART_THRESHOLD_SECONDS) {
-                    
-                    attemptRestart(elevator);
+                if (isSilentFor(state, now, RESTART_THRESHOLD_SECONDS)) {
+                    attemptRestart(state.getId());
                 }
             }
         }
     }
     
-    private void attemptRestart(Elevator elevator) {
-        logRepository.save(new ElevatorLog(elevator.getId(), "Watchdog: Attempting to restart elevator..."));
+    private void attemptRestart(Long elevatorId) {
+        logWriter.log(ElevatorEvent.of(ElevatorEventType.RESTART_ATTEMPTED, elevatorId));
         
         // Simulate restart logic (e.g., sending a reset command to hardware)
         // For simulation, we assume the restart is successful and reset the state.
-        elevator.setOperational(true);
-        elevator.setStatus(ElevatorStatus.IDLE);
-        elevator.setDirection(Direction.STOPPED);
-        elevator.setLastHeartbeat(LocalDateTime.now()); // Reset heartbeat
-        
-        elevatorRepository.save(elevator);
-        logRepository.save(new ElevatorLog(elevator.getId(), "Watchdog: Elevator successfully restarted and is now IDLE."));
+        LocalDateTime restartedAt = LocalDateTime.now();
+        fleetStateService.transition(elevatorId, current -> current.isOperational() ? null
+                        : current.toBuilder()
+                                .operational(true)
+                                .status(ElevatorStatus.IDLE)
+                                .direction(Direction.STOPPED)
+                                .lastHeartbeat(restartedAt) // Reset heartbeat
+                                .build())
+                .ifPresent(restarted -> {
+                    fleetStateService.save(restarted);
+                    logWriter.log(ElevatorEvent.of(ElevatorEventType.RESTARTED, elevatorId));
+                });
     }
     
     // Method to be called by elevator hardware/simulation to send a heartbeat
     public void receiveHeartbeat(Long elevatorId) {
-        elevatorRepository.findById(elevatorId).ifPresent(elevator -> {
-            elevator.setLastHeartbeat(LocalDateTime.now());
-            if (!elevator.isOperational()) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!leaderElection.isLeader()) {
+            // The leader owns the car's state; its watchdog picks the heartbeat up from the database
+            elevatorRepository.recordHeartbeat(elevatorId, now);
+            return;
+        }
+        applyHeartbeat(elevatorId, now, true);
+    }
+
+    // Heartbeats that reached standby nodes, newer than the ones the store has seen
+    private void adoptHeartbeats() {
+        for (Object[] row : elevatorRepository.findHeartbeats()) {
+            Long id = (Long) row[0];
+            LocalDateTime at = (LocalDateTime) row[1];
+            ElevatorState state = fleetStateService.get(id).orElse(null);
+            if (at != null && state != null && (state.getLastHeartbeat() == null || at.isAfter(state.getLastHeartbeat()))) {
+                applyHeartbeat(id, at, false); // Already in the row, unless the car recovered
+            }
+        }
+    }
+
+    private void applyHeartbeat(Long elevatorId, LocalDateTime at, boolean persist) {
+        // Set by the attempt that wins the compare-and-set, which is the last one
+        boolean[] recovered = new boolean[1];
+        fleetStateService.transition(elevatorId, current -> {
+            if (current.getLastHeartbeat() != null && !at.isAfter(current.getLastHeartbeat())) {
+                return null;
+            }
+            recovered[0] = !current.isOperational();
+            if (recovered[0]) {
                 // Auto-recover if it comes back online naturally
-                elevator.setOperational(true);
-                elevator.setStatus(ElevatorStatus.IDLE);
-                logRepository.save(new ElevatorLog(elevator.getId(), "Health Monitor: Elevator recovered. Back online."));
+                return current.toBuilder().lastHeartbeat(at).operational(true).status(ElevatorStatus.IDLE).build();
+            }
+            return current.withLastHeartbeat(at);
+        }).ifPresent(updated -> {
+            if (recovered[0]) {
+                logWriter.log(ElevatorEvent.of(ElevatorEventType.RECOVERED, elevatorId));
+            }
+            if (persist || recovered[0]) {
+                fleetStateService.save(updated);
             }
-            elevatorRepository.save(elevator);
         });
     }
-}
\ No newline at end of file
+
+    private static boolean isSilentFor(ElevatorState state, LocalDateTime now, long seconds) {
+        return state.getLastHeartbeat() != null && ChronoUnit.SECONDS.between(state.getLastHeartbeat(), now) > seconds;
+    }
+}
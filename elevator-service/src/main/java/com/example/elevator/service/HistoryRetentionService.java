@@ -0,0 +1,186 @@
+package com.example.elevator.service;
+
+import com.example.elevator.repository.ElevatorLogRepository;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the elevator_log and elevator_request history bounded.
+ * On PostgreSQL, where both tables are partitioned by month (see README), it creates the partitions for the coming
+ * months ahead of time and drops or detaches those that lie entirely before the retention cutoff, which costs a
+ * catalog update instead of a bulk delete. Where a table is not partitioned (H2, or an unmigrated schema) it deletes
+ * the expired rows instead. Requests that are still pending or assigned are never removed: a request partition holding
+ * one is kept until it has none. Runs at startup and then daily, on the leader only, except that every node also removes
+ * the expired segments of its own event journal when the log is kept there.
+ */
+@Service
+public class HistoryRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryRetentionService.class);
+
+    static final String LOG_TABLE = "elevator_log";
+    static final String REQUEST_TABLE = "elevator_request";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ElevatorLogRepository logRepository;
+
+    @Autowired
+    private ElevatorRequestRepository requestRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private ElevatorLogWriter logWriter;
+
+    @Value("${elevator.history.retention-days:365}")
+    private int retentionDays = 365; // 0 keeps history forever
+
+    @Value("${elevator.history.retention-action:DROP}")
+    private RetentionAction retentionAction = RetentionAction.DROP;
+
+    @Value("${elevator.history.partitions-ahead:3}")
+    private int partitionsAhead = 3; // Months beyond the current one that always have a partition
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final Map<String, Boolean> partitioned = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${elevator.history.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        LocalDate today = LocalDate.now(clock);
+        maintainJournal(today); // Each node writes its own
+        if (!leaderElection.isLeader()) {
+            return; // One node maintaining the shared tables is enough
+        }
+        for (String table : List.of(LOG_TABLE, REQUEST_TABLE)) {
+            try {
+                maintain(table, today);
+            } catch (DataAccessException e) {
+                logger.warn("History maintenance of {} failed: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private void maintain(String table, LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        if (isPartitioned(table)) {
+            createPartitions(table, YearMonth.from(today));
+            if (retentionDays > 0) {
+                removePartitionsBefore(table, cutoff);
+            }
+        } else if (retentionDays > 0) {
+            int deleted = LOG_TABLE.equals(table)
+                    ? logRepository.deleteOlderThan(cutoff.atStartOfDay())
+                    : requestRepository.deleteOlderThan(cutoff.atStartOfDay());
+            if (deleted > 0) {
+                meterRegistry.counter("elevator.history.rows.deleted", "table", table).increment(deleted);
+                logger.info("Deleted {} rows from {} older than {}", deleted, table, cutoff);
+            }
+        }
+    }
+
+    private void maintainJournal(LocalDate today) {
+        EventJournal journal = logWriter.getJournal();
+        if (journal == null || retentionDays <= 0) {
+            return;
+        }
+        LocalDate cutoff = today.minusDays(retentionDays);
+        try {
+            int removed = journal.removeBefore(cutoff.atStartOfDay(clock.getZone()).toInstant().toEpochMilli());
+            if (removed > 0) {
+                meterRegistry.counter("elevator.history.journal.segments.removed").increment(removed);
+                logger.info("Removed {} event journal segments older than {}", removed, cutoff);
+            }
+        } catch (UncheckedIOException e) {
+            logger.warn("Event journal maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void createPartitions(String table, YearMonth current) {
+        for (int i = 0; i <= partitionsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, month) + " PARTITION OF " + table
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    private void removePartitionsBefore(String table, LocalDate cutoff) {
+        Pattern name = Pattern.compile(Pattern.quote(table) + "_p(\\d{4})_(\\d{2})");
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent"
+                + " WHERE p.relname = ?", String.class, table);
+        for (String partition : partitions) {
+            Matcher matcher = name.matcher(partition);
+            if (!matcher.matches()) {
+                continue; // Not created by us, e.g. a default partition
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue; // Still holds rows inside the retention window
+            }
+            if (REQUEST_TABLE.equals(table) && holdsLiveRequests(partition)) {
+                logger.info("Keeping partition {} of {}: it still holds pending or assigned requests", partition, table);
+                continue;
+            }
+            if (retentionAction == RetentionAction.DETACH) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            }
+            meterRegistry.counter("elevator.history.partitions.removed", "table", table).increment();
+            logger.info("{} partition {} of {} (retention {} days)",
+                    retentionAction == RetentionAction.DETACH ? "Detached" : "Dropped", partition, table, retentionDays);
+        }
+    }
+
+    private boolean holdsLiveRequests(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + partition
+                + " WHERE status IN ('PENDING', 'ASSIGNED'))", Boolean.class));
+    }
+
+    private boolean isPartitioned(String table) {
+        return partitioned.computeIfAbsent(table, t -> {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(product)) {
+                return false;
+            }
+            Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_partitioned_table pt"
+                    + " JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = ?", Integer.class, t);
+            return count != null && count > 0;
+        });
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return String.format("%s_p%04d_%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
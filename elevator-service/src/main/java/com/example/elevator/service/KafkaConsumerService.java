@@ -1,19 +1,66 @@
 package com.example.elevator.service;
 
 import com.example.elevator.dto.ElevatorMovementDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+/**
+ * Runs the simulations queued on the elevator-movement topic, on whichever node leads.
+ * Every node shares one consumer group, so in a cluster only the leader's listener runs: it starts when this node is
+ * elected and stops when it loses the lease, handing the topic's partitions to the next leader. A standby therefore
+ * never takes an event it would have to refuse, and a simulation queued through any node is run.
+ */
 @Service
 public class KafkaConsumerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerService.class);
+
+    static final String LISTENER_ID = "elevator-movement";
+
     @Autowired
     private ElevatorService elevatorService;
 
-    @KafkaListener(topics = "elevator-movement", groupId = "elevator-group")
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Value("${elevator.kafka.listener.auto-startup:true}")
+    private boolean autoStartup = true;
+
+    @PostConstruct
+    public void start() {
+        if (!autoStartup || !leaderElection.isClustered()) {
+            return;
+        }
+        leaderElection.addElectedListener(token -> {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+            if (container != null && !container.isRunning()) {
+                container.start();
+            }
+        });
+        leaderElection.addRevokedListener(() -> {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+            if (container != null && container.isRunning()) {
+                // Stopped in the background, so the lease renewal is not held up by the consumer's shutdown
+                container.stop(() -> logger.info("Stopped consuming movement events"));
+            }
+        });
+    }
+
+    // A clustered node only starts listening once elected
+    @KafkaListener(id = LISTENER_ID, topics = "elevator-movement", groupId = "elevator-group",
+            autoStartup = "#{!@leaderElection.clustered and ${elevator.kafka.listener.auto-startup:true}}")
     public void consumeMovementEvent(ElevatorMovementDTO movementDTO) {
         System.out.println("Received movement event for elevator: " + movementDTO.getElevatorId() + " to floor: " + movementDTO.getTargetFloor());
         elevatorService.simulateMovement(movementDTO.getElevatorId(), movementDTO.getTargetFloor());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package com.example.elevator.service;
+
+import com.example.elevator.exception.NotLeaderException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether this node runs the fleet: dispatch, car movement, the watchdog and the optimizers.
+ * With elevator.leader.election=NONE this is the only node and always leads. With REDIS, nodes compete for a lease in
+ * Redis that the leader renews every elevator.leader.renew-interval-ms; when it stops renewing, a standby takes over
+ * once the lease lapses. Every lease comes with a fencing token greater than any before it, which assignments carry
+ * into the database, so a deposed leader that has not noticed yet (paused, partitioned) cannot overwrite the
+ * decisions of its successor.
+ * <p>
+ * A node considers itself leader only for the lease time, less a margin for clock drift, counted from before its
+ * last successful renewal. It therefore stops leading before Redis can hand the lease to another node, even when it
+ * cannot reach Redis to find out.
+ */
+@Service
+public class LeaderElection {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElection.class);
+
+    @Autowired(required = false)
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${elevator.leader.election:NONE}")
+    private LeaderElectionMode mode = LeaderElectionMode.NONE;
+
+    @Value("${elevator.leader.lease-ms:5000}")
+    private long leaseMs = 5000;
+
+    @Value("${elevator.leader.key:elevator:leader}")
+    private String key = "elevator:leader";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private LeaseStore leaseStore;
+
+    private LongSupplier nanoTime = System::nanoTime;
+
+    // Fencing token of the lease this node holds, 0 while standing by
+    private volatile long token;
+
+    private volatile long validUntilNanos;
+
+    private final List<LongConsumer> electedListeners = new CopyOnWriteArrayList<>();
+
+    private final List<Runnable> revokedListeners = new CopyOnWriteArrayList<>();
+
+    private Counter elections;
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.gauge("elevator.leader", this, election -> election.isLeader() ? 1 : 0);
+        elections = meterRegistry.counter("elevator.leader.elections");
+        if (mode == LeaderElectionMode.REDIS && leaseStore == null) {
+            leaseStore = new RedisLeaseStore(redisTemplate, key);
+        }
+    }
+
+    /**
+     * Renews the lease while leading, or tries to take it while standing by.
+     */
+    @Scheduled(fixedDelayString = "${elevator.leader.renew-interval-ms:1000}")
+    public synchronized void renew() {
+        if (mode == LeaderElectionMode.NONE) {
+            return;
+        }
+        long sentAt = nanoTime.getAsLong();
+        if (token != 0) {
+            boolean held;
+            try {
+                held = leaseStore.renew(nodeId, leaseMs);
+            } catch (RuntimeException e) {
+                // Whether the lease still holds is unknown; lead on until it would have lapsed
+                logger.warn("Failed to renew the leadership lease: {}", e.getMessage());
+                if (!isLeader()) {
+                    revoke();
+                }
+                return;
+            }
+            if (held) {
+                validUntilNanos = validUntil(sentAt);
+            } else {
+                revoke();
+            }
+            return;
+        }
+        long acquired;
+        try {
+            acquired = leaseStore.tryAcquire(nodeId, leaseMs);
+        } catch (RuntimeException e) {
+            logger.debug("Failed to contend for the leadership lease: {}", e.getMessage());
+            return;
+        }
+        if (acquired > 0) {
+            validUntilNanos = validUntil(sentAt);
+            token = acquired;
+            elections.increment();
+            logger.info("Elected leader with fencing token {}", acquired);
+            for (LongConsumer listener : electedListeners) {
+                listener.accept(acquired);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (mode == LeaderElectionMode.NONE || token == 0) {
+            return;
+        }
+        token = 0;
+        try {
+            leaseStore.release(nodeId);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to release the leadership lease; it lapses in {} ms", leaseMs);
+        }
+    }
+
+    public boolean isLeader() {
+        return mode == LeaderElectionMode.NONE || (token != 0 && nanoTime.getAsLong() - validUntilNanos < 0);
+    }
+
+    /**
+     * Whether several nodes share the fleet, i.e. a node may have to follow another's changes.
+     */
+    public boolean isClustered() {
+        return mode != LeaderElectionMode.NONE;
+    }
+
+    /**
+     * Token of the current lease, to be stored with every decision made under it.
+     *
+     * @return 0 if this node is not leading.
+     */
+    public long getFencingToken() {
+        if (mode == LeaderElectionMode.NONE) {
+            return 1;
+        }
+        long current = token;
+        return isLeader() ? current : 0;
+    }
+
+    public void requireLeader() {
+        if (!isLeader()) {
+            throw new NotLeaderException();
+        }
+    }
+
+    /**
+     * Registers a callback invoked with the fencing token when this node becomes leader.
+     */
+    public void addElectedListener(LongConsumer listener) {
+        electedListeners.add(listener);
+    }
+
+    /**
+     * Registers a callback invoked when this node learns it has lost the lease.
+     */
+    public void addRevokedListener(Runnable listener) {
+        revokedListeners.add(listener);
+    }
+
+    private long validUntil(long sentAt) {
+        // Redis starts the lease no earlier than the request was sent; allow the two clocks to drift by up to 10%
+        return sentAt + TimeUnit.MILLISECONDS.toNanos(leaseMs - leaseMs / 10);
+    }
+
+    private void revoke() {
+        logger.warn("Lost leadership (fencing token {})", token);
+        token = 0;
+        for (Runnable listener : revokedListeners) {
+            listener.run();
+        }
+    }
+}
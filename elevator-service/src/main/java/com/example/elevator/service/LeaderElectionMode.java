@@ -0,0 +1,11 @@
+package com.example.elevator.service;
+
+/**
+ * How a node decides whether it runs the fleet.
+ */
+public enum LeaderElectionMode {
+    /** A single node, which always leads. */
+    NONE,
+    /** Several nodes compete for a lease in Redis; the holder leads and the others stand by. See {@link LeaderElection}. */
+    REDIS
+}
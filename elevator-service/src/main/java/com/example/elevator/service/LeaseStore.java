@@ -0,0 +1,26 @@
+package com.example.elevator.service;
+
+/**
+ * Where nodes compete for the leadership lease.
+ */
+interface LeaseStore {
+
+    /**
+     * Takes the lease for {@code owner} unless another node holds it.
+     *
+     * @return the fencing token of the new lease, greater than every token handed out before, or 0 if the lease is held.
+     */
+    long tryAcquire(String owner, long leaseMs);
+
+    /**
+     * Extends the lease if {@code owner} still holds it.
+     *
+     * @return false if the lease has lapsed or another node holds it.
+     */
+    boolean renew(String owner, long leaseMs);
+
+    /**
+     * Gives the lease up if {@code owner} holds it, so a standby can take over without waiting for it to lapse.
+     */
+    void release(String owner);
+}
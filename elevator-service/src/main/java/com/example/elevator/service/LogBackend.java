@@ -0,0 +1,11 @@
+package com.example.elevator.service;
+
+/**
+ * Where the elevator audit log is stored.
+ */
+public enum LogBackend {
+    /** The elevator_log table, written in batches by a background thread; messages are kept as text. */
+    DATABASE,
+    /** Fixed-size binary records in memory-mapped files under elevator.journal.dir; see {@link EventJournal}. */
+    JOURNAL
+}
@@ -0,0 +1,11 @@
+package com.example.elevator.service;
+
+/**
+ * What the elevator log writer does with an entry when its buffer is full.
+ */
+public enum LogOverflowPolicy {
+    /** The entry is discarded and counted in elevator.log.dropped; the caller never waits. */
+    DROP,
+    /** The caller waits until the writer has made room, so no entry is lost. */
+    BLOCK
+}
@@ -0,0 +1,300 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Discrete-event engine that moves every car with queued stops, in LOOK order.
+ * Each moving car has exactly one pending "reaches the next floor" event in a priority queue ordered
+ * by due time; a single thread pops the earliest event, advances that car one floor and schedules
+ * its next arrival. Hundreds of moving cars therefore cost one thread instead of one thread each.
+ * <p>
+ * In {@link MovementMode#REAL_TIME} the thread waits until each event is due. In {@link MovementMode#VIRTUAL}
+ * the clock jumps straight to the next event, so a long simulation runs as fast as the CPU allows.
+ * Positions are persisted write-behind by the {@link PositionWriter}.
+ */
+@Service
+public class MovementEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovementEngine.class);
+
+    @Autowired
+    private PositionWriter positionWriter;
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private ElevatorLogWriter logWriter;
+
+    @Value("${elevator.movement.floor-travel-ms:1000}")
+    private long floorTravelMs = 1000;
+
+    // Time a car stands at a floor it stopped to serve before it moves on
+    @Value("${elevator.movement.door-dwell-ms:0}")
+    private long doorDwellMs = 0;
+
+    @Value("${elevator.movement.mode:REAL_TIME}")
+    private MovementMode mode = MovementMode.REAL_TIME;
+
+    private static final class Arrival {
+        final long dueMs;
+        final long sequence;
+        final Long elevatorId;
+
+        Arrival(long dueMs, long sequence, Long elevatorId) {
+            this.dueMs = dueMs;
+            this.sequence = sequence;
+            this.elevatorId = elevatorId;
+        }
+    }
+
+    private final PriorityQueue<Arrival> events = new PriorityQueue<>(
+            Comparator.comparingLong((Arrival a) -> a.dueMs).thenComparingLong(a -> a.sequence));
+
+    // Cars with an arrival event in the queue (or being stepped right now); at most one event per car
+    private final Set<Long> scheduled = new HashSet<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition eventsChanged = lock.newCondition();
+
+    private long sequence;
+    private long virtualNowMs;
+    private final long startNanos = System.nanoTime();
+
+    private Thread engineThread;
+
+    @PostConstruct
+    public void start() {
+        fleetStateService.addActivationListener(this::schedule);
+        for (Long id : fleetStateService.getActiveCars()) {
+            schedule(id);
+        }
+        engineThread = new Thread(this::run, "movement-engine");
+        engineThread.setDaemon(true);
+        engineThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (engineThread != null) {
+            engineThread.interrupt();
+        }
+    }
+
+    /**
+     * Current engine time in milliseconds: wall-clock time since start in real-time mode,
+     * the due time of the last processed event in virtual mode.
+     */
+    public long now() {
+        if (mode == MovementMode.VIRTUAL) {
+            lock.lock();
+            try {
+                return virtualNowMs;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public long getFloorTravelMs() {
+        return floorTravelMs;
+    }
+
+    public long getDoorDwellMs() {
+        return doorDwellMs;
+    }
+
+    public int getPendingEvents() {
+        lock.lock();
+        try {
+            return events.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes sure the car has an arrival event pending. Called whenever a car gains stops.
+     */
+    public void schedule(Long elevatorId) {
+        lock.lock();
+        try {
+            if (scheduled.add(elevatorId)) {
+                enqueue(elevatorId, 0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Processes events on the calling thread until none are left. Only meaningful in virtual mode,
+     * where it replays everything queued so far without waiting.
+     *
+     * @return the number of events processed.
+     */
+    public int runUntilIdle() {
+        int processed = 0;
+        while (processNext(false)) {
+            processed++;
+        }
+        return processed;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                processNext(true);
+            } catch (RuntimeException e) {
+                logger.warn("Movement step failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Pops the next due event and steps its car.
+     *
+     * @param block wait for an event to exist (and, in real-time mode, to become due)
+     * @return false if there was nothing to process.
+     */
+    private boolean processNext(boolean block) {
+        Arrival arrival;
+        lock.lock();
+        try {
+            while (true) {
+                arrival = events.peek();
+                if (arrival == null) {
+                    if (!block) {
+                        return false;
+                    }
+                    eventsChanged.await();
+                    continue;
+                }
+                if (mode == MovementMode.REAL_TIME) {
+                    long waitMs = arrival.dueMs - now();
+                    if (waitMs > 0) {
+                        if (!block) {
+                            return false;
+                        }
+                        // Woken early if an earlier event is queued meanwhile
+                        eventsChanged.await(waitMs, TimeUnit.MILLISECONDS);
+                        continue;
+                    }
+                } else {
+                    virtualNowMs = Math.max(virtualNowMs, arrival.dueMs);
+                }
+                events.poll();
+                break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+
+        Long id = arrival.elevatorId;
+        boolean stopped = false;
+        try {
+            ElevatorState state = fleetStateService.get(id).orElse(null);
+            if (state == null) {
+                fleetStateService.deactivate(id);
+            } else {
+                stopped = step(state);
+            }
+        } finally {
+            reschedule(id, stopped ? doorDwellMs : 0);
+        }
+        return true;
+    }
+
+    private void reschedule(Long id, long dwellMs) {
+        lock.lock();
+        try {
+            // Checked under the lock so a car activated while it was being stepped is never dropped
+            if (fleetStateService.isActive(id)) {
+                enqueue(id, dwellMs);
+            } else {
+                scheduled.remove(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Long elevatorId, long dwellMs) {
+        long base = mode == MovementMode.VIRTUAL ? virtualNowMs : now();
+        events.add(new Arrival(base + dwellMs + floorTravelMs, sequence++, elevatorId));
+        eventsChanged.signal();
+    }
+
+    /**
+     * Advances a car one floor towards its next stop.
+     *
+     * @return true if the car stopped to serve the floor it reached.
+     */
+    boolean step(ElevatorState state) {
+        if (!state.isOperational()) {
+            // Keep the stops; the fleet store reactivates the car once it is back in service
+            fleetStateService.deactivate(state.getId());
+            return false;
+        }
+
+        int floor = state.getCurrentFloor();
+        Integer target = fleetStateService.nextStop(state);
+        if (target == null) {
+            fleetStateService.deactivate(state.getId());
+            if (state.getStatus() != ElevatorStatus.IDLE) {
+                save(state, floor, ElevatorStatus.IDLE, Direction.STOPPED);
+            }
+            return false;
+        }
+
+        if (target != floor) {
+            floor += target > floor ? 1 : -1;
+        }
+        ElevatorStatus status = target > state.getCurrentFloor() ? ElevatorStatus.MOVING_UP
+                : target < state.getCurrentFloor() ? ElevatorStatus.MOVING_DOWN : state.getStatus();
+        Direction direction = status == ElevatorStatus.MOVING_UP ? Direction.UP
+                : status == ElevatorStatus.MOVING_DOWN ? Direction.DOWN : Direction.STOPPED;
+
+        // A car already at its stop serves it in the direction it chose the stop for
+        Direction arrival = target == state.getCurrentFloor() ? state.getTravelDirection() : direction;
+        boolean stopped = floor == target && fleetStateService.arriveAt(state.getId(), floor, arrival);
+        if (stopped) {
+            logWriter.log(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, state.getId(), floor));
+            if (fleetStateService.nextStop(state.withCurrentFloor(floor)) == null) {
+                fleetStateService.deactivate(state.getId());
+                status = ElevatorStatus.IDLE;
+                direction = Direction.STOPPED;
+            }
+        }
+        save(state, floor, status, direction);
+        return stopped;
+    }
+
+    // Takes effect in the fleet store at once; the database catches up on the position writer's next flush
+    private void save(ElevatorState state, int floor, ElevatorStatus status, Direction direction) {
+        positionWriter.record(state, floor, status, direction);
+    }
+}
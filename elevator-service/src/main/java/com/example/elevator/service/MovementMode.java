@@ -0,0 +1,11 @@
+package com.example.elevator.service;
+
+/**
+ * Which clock the movement engine runs on.
+ */
+public enum MovementMode {
+    /** Cars take elevator.movement.floor-travel-ms of wall-clock time per floor. */
+    REAL_TIME,
+    /** Events are processed back to back on a virtual clock, e.g. to replay a day of traffic in seconds. */
+    VIRTUAL
+}
@@ -0,0 +1,286 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Requests still waiting for a car, kept in memory in dispatch order (highest priority first, then oldest first)
+ * and bucketed by source floor and direction of travel.
+ * Loaded once at startup through the status index and afterwards updated on every state transition, so the
+ * scheduler never has to scan the request table, which keeps the whole request history.
+ * Adding and removing a request is O(log n) in the number of pending requests. Each bank has its own section with
+ * its own lock, so the dispatchers of different banks never wait for one another here.
+ */
+@Service
+public class PendingRequestQueue {
+
+    /**
+     * Order in which pending requests are dispatched: higher priority first, then oldest first.
+     */
+    public static final Comparator<ElevatorRequest> DISPATCH_ORDER = Comparator
+            .comparingInt(ElevatorRequest::getPriority).reversed()
+            .thenComparing(ElevatorRequest::getRequestTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ElevatorRequest::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Autowired
+    private ElevatorRequestRepository requestRepository;
+
+    // The sort keys are copied when the request is queued, so later changes to the entity cannot corrupt the sets
+    private static final class Entry {
+        final ElevatorRequest request;
+        final Long id;
+        final int priority;
+        final LocalDateTime requestTime;
+        final int sourceFloor;
+        final Direction direction;
+
+        Entry(ElevatorRequest request) {
+            this.request = request;
+            this.id = request.getId();
+            this.priority = request.getPriority();
+            this.requestTime = request.getRequestTime();
+            this.sourceFloor = request.getSourceFloor();
+            this.direction = directionOf(request);
+        }
+    }
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+            .comparingInt((Entry e) -> e.priority).reversed()
+            .thenComparing(e -> e.requestTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(e -> e.id);
+
+    // Requests of different banks never compete for a car, so each bank is queued, and locked, on its own
+    private final Map<String, Section> sections = new ConcurrentHashMap<>();
+
+    private final Map<Long, Section> sectionOf = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        for (ElevatorRequest request : requestRepository.findByStatus(RequestStatus.PENDING)) {
+            add(request);
+        }
+    }
+
+    /**
+     * Replaces the queue with the requests pending in the database, on a node that does not dispatch them itself.
+     */
+    public void reload() {
+        List<ElevatorRequest> pending = requestRepository.findByStatus(RequestStatus.PENDING);
+        synchronized (this) {
+            for (Long id : new ArrayList<>(sectionOf.keySet())) {
+                remove(id);
+            }
+            for (ElevatorRequest request : pending) {
+                add(request);
+            }
+        }
+    }
+
+    /**
+     * Queues a saved request that is waiting for a car. Requests without an id or not PENDING are ignored.
+     *
+     * @return true if the request is now queued.
+     */
+    public boolean add(ElevatorRequest request) {
+        if (request.getId() == null || request.getStatus() != RequestStatus.PENDING) {
+            return false;
+        }
+        Section section = sections.computeIfAbsent(request.getBank(), bank -> new Section());
+        synchronized (section) {
+            sectionOf.put(request.getId(), section);
+            section.add(new Entry(request));
+        }
+        return true;
+    }
+
+    /**
+     * Drops a request that has been assigned (or otherwise left the PENDING state).
+     *
+     * @return true if it was queued.
+     */
+    public boolean remove(Long requestId) {
+        Section section = requestId == null ? null : sectionOf.get(requestId);
+        if (section == null) {
+            return false;
+        }
+        synchronized (section) {
+            sectionOf.remove(requestId, section);
+            return section.remove(requestId);
+        }
+    }
+
+    /**
+     * The queued copy of a request, the one the dispatcher works on.
+     */
+    public Optional<ElevatorRequest> get(Long requestId) {
+        Section section = requestId == null ? null : sectionOf.get(requestId);
+        return section == null ? Optional.empty() : Optional.ofNullable(section.get(requestId));
+    }
+
+    public boolean contains(Long requestId) {
+        return requestId != null && sectionOf.containsKey(requestId);
+    }
+
+    /**
+     * All pending requests in dispatch order.
+     */
+    public List<ElevatorRequest> getPending() {
+        List<Entry> entries = new ArrayList<>();
+        for (Section section : sections.values()) {
+            section.copyTo(entries);
+        }
+        entries.sort(ENTRY_ORDER);
+        return requests(entries);
+    }
+
+    /**
+     * Pending requests of one bank in dispatch order.
+     */
+    public List<ElevatorRequest> getPending(String bank) {
+        Section section = sections.get(bank);
+        return section == null ? new ArrayList<>() : section.getPending();
+    }
+
+    /**
+     * Pending requests of one bank waiting at one floor to travel one way, in dispatch order.
+     */
+    public List<ElevatorRequest> getPending(String bank, int sourceFloor, Direction direction) {
+        Section section = sections.get(bank);
+        return section == null ? Collections.emptyList() : section.getPending(sourceFloor, direction);
+    }
+
+    /**
+     * Number of riders waiting in one bank per source floor, lowest floor first. A coalesced hall call counts every
+     * rider that joined it, not once.
+     */
+    public Map<Integer, Integer> ridersBySourceFloor(String bank) {
+        Section section = sections.get(bank);
+        return section == null ? new TreeMap<>() : section.ridersBySourceFloor();
+    }
+
+    /**
+     * Banks that have or had pending requests.
+     */
+    public Set<String> getBanks() {
+        return new HashSet<>(sections.keySet());
+    }
+
+    public int size() {
+        return sectionOf.size();
+    }
+
+    public int size(String bank) {
+        Section section = sections.get(bank);
+        return section == null ? 0 : section.size();
+    }
+
+    // The pending requests of one bank
+    private static final class Section {
+
+        private final Map<Long, Entry> byId = new HashMap<>();
+
+        private final NavigableSet<Entry> ordered = new TreeSet<>(ENTRY_ORDER);
+
+        private final Map<Integer, Map<Direction, NavigableSet<Entry>>> byFloor = new HashMap<>();
+
+        synchronized void add(Entry entry) {
+            remove(entry.id);
+            byId.put(entry.id, entry);
+            ordered.add(entry);
+            byFloor.computeIfAbsent(entry.sourceFloor, floor -> new EnumMap<>(Direction.class))
+                    .computeIfAbsent(entry.direction, direction -> new TreeSet<>(ENTRY_ORDER))
+                    .add(entry);
+        }
+
+        synchronized ElevatorRequest get(Long requestId) {
+            Entry entry = byId.get(requestId);
+            return entry == null ? null : entry.request;
+        }
+
+        synchronized boolean remove(Long requestId) {
+            Entry entry = byId.remove(requestId);
+            if (entry == null) {
+                return false;
+            }
+            ordered.remove(entry);
+            Map<Direction, NavigableSet<Entry>> directions = byFloor.get(entry.sourceFloor);
+            NavigableSet<Entry> bucket = directions.get(entry.direction);
+            bucket.remove(entry);
+            if (bucket.isEmpty()) {
+                directions.remove(entry.direction);
+                if (directions.isEmpty()) {
+                    byFloor.remove(entry.sourceFloor);
+                }
+            }
+            return true;
+        }
+
+        synchronized void copyTo(List<Entry> entries) {
+            entries.addAll(ordered);
+        }
+
+        synchronized List<ElevatorRequest> getPending() {
+            return requests(ordered);
+        }
+
+        synchronized List<ElevatorRequest> getPending(int sourceFloor, Direction direction) {
+            Map<Direction, NavigableSet<Entry>> directions = byFloor.get(sourceFloor);
+            NavigableSet<Entry> bucket = directions == null ? null : directions.get(direction);
+            return bucket == null ? Collections.emptyList() : requests(bucket);
+        }
+
+        synchronized Map<Integer, Integer> ridersBySourceFloor() {
+            Map<Integer, Integer> counts = new TreeMap<>();
+            for (Map.Entry<Integer, Map<Direction, NavigableSet<Entry>>> floor : byFloor.entrySet()) {
+                int riders = 0;
+                for (NavigableSet<Entry> bucket : floor.getValue().values()) {
+                    for (Entry entry : bucket) {
+                        riders += Math.max(1, entry.request.getRiderCount());
+                    }
+                }
+                counts.put(floor.getKey(), riders);
+            }
+            return counts;
+        }
+
+        synchronized int size() {
+            return byId.size();
+        }
+    }
+
+    /**
+     * Direction a rider wants to travel; same convention as the car's stop queue.
+     */
+    static Direction directionOf(ElevatorRequest request) {
+        return request.getDestinationFloor() < request.getSourceFloor() ? Direction.DOWN : Direction.UP;
+    }
+
+    private static List<ElevatorRequest> requests(Iterable<Entry> entries) {
+        List<ElevatorRequest> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            result.add(entry.request);
+        }
+        return result;
+    }
+}
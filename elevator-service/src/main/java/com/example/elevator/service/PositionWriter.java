@@ -0,0 +1,164 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.repository.ElevatorRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind persistence of car movement.
+ * The movement engine applies every floor change to the fleet state store immediately and only marks the car dirty
+ * here. Every elevator.position.flush-interval-ms one UPDATE per dirty car writes its latest floor, status and
+ * direction, however many floors it travelled meanwhile; the flush then refreshes those cars in the cache and
+ * broadcasts the fleet status once. Database writes therefore scale with the number of moving cars rather than with
+ * floors travelled, and the database trails the store by up to one flush interval.
+ * Status transitions (faults, repairs, the watchdog, eco mode) are still written through synchronously elsewhere.
+ */
+@Service
+public class PositionWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionWriter.class);
+
+    @Autowired
+    private ElevatorRepository elevatorRepository;
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private WebSocketUpdateService webSocketUpdateService;
+
+    @Autowired
+    private FleetStatusView fleetStatusView;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    // Cars moved since the last flush; the store holds their latest position
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private Counter updates;
+    private Counter written;
+    private Counter failures;
+
+    @PostConstruct
+    public void init() {
+        updates = meterRegistry.counter("elevator.position.updates");
+        written = meterRegistry.counter("elevator.position.written");
+        failures = meterRegistry.counter("elevator.position.write.failures");
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Moves a car on from the position it had in {@code from}, in the fleet state store, and queues it for the next
+     * flush. The move is a compare-and-set transition: it is dropped if meanwhile the car was taken out of service or
+     * put on another floor, and never undoes any other change made since {@code from} was read.
+     *
+     * @return the car's new snapshot, or empty if the move no longer applies.
+     */
+    public Optional<ElevatorState> record(ElevatorState from, int floor, ElevatorStatus status, Direction direction) {
+        Optional<ElevatorState> moved = fleetStateService.transition(from.getId(),
+                current -> current.isOperational() && current.getCurrentFloor() == from.getCurrentFloor()
+                        ? current.toBuilder().currentFloor(floor).status(status).direction(direction).build()
+                        : null);
+        if (moved.isPresent()) {
+            dirty.add(from.getId());
+            updates.increment();
+        }
+        return moved;
+    }
+
+    public int getPending() {
+        return dirty.size();
+    }
+
+    /**
+     * Writes the latest position of every car moved since the last flush, in one transaction.
+     *
+     * @return the number of rows updated.
+     */
+    @Scheduled(fixedDelayString = "${elevator.position.flush-interval-ms:500}")
+    public synchronized int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        if (!leaderElection.isLeader()) {
+            // Deposed: the rows belong to the new leader now, and these positions may be older than its own
+            dirty.clear();
+            return 0;
+        }
+        List<ElevatorState> moved = new ArrayList<>(dirty.size());
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long id = it.next();
+            // Removed before the store is read, so a move recorded from here on is picked up by the next flush
+            it.remove();
+            fleetStateService.get(id).filter(ElevatorState::isOperational).ifPresent(moved::add);
+        }
+        if (moved.isEmpty()) {
+            return 0;
+        }
+        Integer rows;
+        try {
+            rows = new TransactionTemplate(transactionManager).execute(status -> {
+                int count = 0;
+                for (ElevatorState state : moved) {
+                    count += elevatorRepository.updatePosition(state.getId(), state.getCurrentFloor(),
+                            state.getStatus(), state.getDirection());
+                }
+                return count;
+            });
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.warn("Failed to write positions of {} elevators: {}", moved.size(), e.getMessage());
+            for (ElevatorState state : moved) {
+                dirty.add(state.getId()); // Retried with whatever position is current by then
+            }
+            return 0;
+        }
+        int count = rows == null ? 0 : rows;
+        written.increment(count);
+
+        // The rows now match these snapshots (the position update leaves the row version alone)
+        Cache elevators = cacheManager.getCache("elevators");
+        if (elevators != null) {
+            for (ElevatorState state : moved) {
+                elevators.put(state.getId(), state.toEntity());
+            }
+        }
+        webSocketUpdateService.sendElevatorStatusUpdate(fleetStatusView.getSnapshot().getJson());
+        return count;
+    }
+}
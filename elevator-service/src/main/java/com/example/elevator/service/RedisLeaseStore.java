@@ -0,0 +1,54 @@
+package com.example.elevator.service;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * The lease as a Redis key holding the owner's id with a PX expiry, next to a counter the fencing tokens are drawn
+ * from. Each operation is one script, so checking the owner and changing the key cannot interleave with another
+ * node. Both keys share a hash tag and therefore a slot on Redis Cluster.
+ */
+final class RedisLeaseStore implements LeaseStore {
+
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then"
+                    + " return redis.call('incr', KEYS[2]) end return 0", Long.class);
+
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then"
+                    + " return redis.call('pexpire', KEYS[1], ARGV[2]) end return 0", Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then"
+                    + " return redis.call('del', KEYS[1]) end return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final List<String> leaseKey;
+    private final List<String> keys;
+
+    RedisLeaseStore(StringRedisTemplate redisTemplate, String key) {
+        this.redisTemplate = redisTemplate;
+        this.leaseKey = List.of("{" + key + "}:lease");
+        this.keys = List.of(leaseKey.get(0), "{" + key + "}:fence");
+    }
+
+    @Override
+    public long tryAcquire(String owner, long leaseMs) {
+        Long token = redisTemplate.execute(ACQUIRE, keys, owner, String.valueOf(leaseMs));
+        return token == null ? 0 : token;
+    }
+
+    @Override
+    public boolean renew(String owner, long leaseMs) {
+        Long renewed = redisTemplate.execute(RENEW, leaseKey, owner, String.valueOf(leaseMs));
+        return renewed != null && renewed == 1;
+    }
+
+    @Override
+    public void release(String owner) {
+        redisTemplate.execute(RELEASE, leaseKey, owner);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.elevator.service;
+
+/**
+ * What history retention does with a monthly partition that has aged out.
+ */
+public enum RetentionAction {
+    /** The partition is dropped and its rows are gone. */
+    DROP,
+    /** The partition is detached and kept as a standalone table, e.g. to dump it to cold storage before dropping it. */
+    DETACH
+}
@@ -0,0 +1,116 @@
+package com.example.elevator.service;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue on a fixed ring of slots (Vyukov's array queue).
+ * Each slot carries a sequence number telling producers and consumers whose turn it is, so offering and polling
+ * are a single compare-and-set on the tail or head counter and never block. Safe for any number of producers
+ * and consumers; the capacity is rounded up to a power of two.
+ */
+final class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong(); // Next position to write
+    private final AtomicLong head = new AtomicLong(); // Next position to read
+
+    RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * @return false if the buffer is full.
+     */
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, element);
+                    sequences.set(slot, position + 1); // Publishes the element to consumers
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                return false; // The slot still holds an element from one lap ago
+            } else {
+                position = tail.get(); // Another producer took this slot
+            }
+        }
+    }
+
+    /**
+     * @return the oldest element, or null if the buffer is empty.
+     */
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long lag = sequences.get(slot) - (position + 1);
+            if (lag == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = slots.get(slot);
+                    slots.lazySet(slot, null);
+                    sequences.set(slot, position + mask + 1); // Hands the slot back to producers for the next lap
+                    return element;
+                }
+                position = head.get();
+            } else if (lag < 0) {
+                return null; // Not written yet
+            } else {
+                position = head.get(); // Another consumer took this slot
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code limit} elements into the collection, oldest first.
+     *
+     * @return the number of elements moved.
+     */
+    int drainTo(Collection<? super E> target, int limit) {
+        int moved = 0;
+        E element;
+        while (moved < limit && (element = poll()) != null) {
+            target.add(element);
+            moved++;
+        }
+        return moved;
+    }
+
+    /**
+     * Number of elements waiting; only a snapshot while producers and consumers are active.
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -1,128 +1,463 @@
 package com.example.elevator.service;
 
-import com.example.elevator.model.Elevator;
+import com.example.elevator.model.Direction;
 import com.example.elevator.model.ElevatorRequest;
-import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.model.ElevatorState;
 import com.example.elevator.model.RequestStatus;
-import com.example.elevator.repository.ElevatorRequestRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class SchedulerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerService.class);
+
+    // Nearby cars priced first to bound how far out the floor index has to look for a cheaper one
+    static final int SEED_CANDIDATES = 8;
+
     @Autowired
     private ElevatorService elevatorService;
 
     @Autowired
-    private ElevatorRequestRepository requestRepository;
+    private PendingRequestQueue pendingRequestQueue;
 
     @Autowired
     private AIPredictiveService aiPredictiveService;
 
-    @Scheduled(fixedRate = 5000) // Run every 5 seconds
+    @Autowired
+    private AssignmentPipeline assignmentPipeline;
+
+    @Autowired
+    private DispatchLocks dispatchLocks;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Value("${elevator.dispatch.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${elevator.scheduler.policy:GREEDY}")
+    private DispatchPolicy policy = DispatchPolicy.GREEDY;
+
+    // One shard per bank, created when the bank's first request arrives. Banks share no cars, so each shard
+    // dispatches on its own thread under its own lock, and a burst of calls in one bank does not hold up the others.
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private Timer queueWaitTimer;
+    private Timer decisionTimer;
+
+    private final class Shard {
+        final String bank;
+
+        // New requests are dispatched from this queue as soon as they are accepted.
+        // If it is full, the request simply stays PENDING until the next safety-net sweep.
+        final BlockingQueue<ElevatorRequest> incomingRequests = new LinkedBlockingQueue<>(queueCapacity);
+
+        // Queued request ids with the System.nanoTime() they were accepted at
+        final Map<Long, Long> queuedAt = new ConcurrentHashMap<>();
+
+        Thread dispatcherThread;
+
+        Shard(String bank) {
+            this.bank = bank;
+        }
+
+        void start() {
+            Gauge.builder("elevator.dispatch.queue.depth", incomingRequests, BlockingQueue::size)
+                    .tag("bank", bank)
+                    .register(meterRegistry);
+            dispatcherThread = new Thread(() -> runDispatcher(this), "elevator-dispatcher-" + bank);
+            dispatcherThread.setDaemon(true);
+            dispatcherThread.start();
+        }
+    }
+
+    @PostConstruct
+    public void startDispatcher() {
+        queueWaitTimer = Timer.builder("elevator.dispatch.queue.wait")
+                .description("Time from accepting a request to the dispatcher picking it up")
+                .register(meterRegistry);
+        decisionTimer = Timer.builder("elevator.dispatch.decision")
+                .description("Time taken to choose elevators for one dispatcher batch")
+                .register(meterRegistry);
+        running = true;
+        // Requests whose assignment could not be written go straight back to their bank's dispatcher
+        elevatorService.addRequeueListener(this::submit);
+    }
+
+    @PreDestroy
+    public void stopDispatcher() {
+        running = false;
+        for (Shard shard : shards.values()) {
+            if (shard.dispatcherThread != null) {
+                shard.dispatcherThread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Hands a freshly accepted request to the dispatcher thread of its bank. On a standby the request is only queued
+     * as pending; the leader picks it up from the database.
+     *
+     * @return true if the request was queued, false if it was left for the periodic sweep.
+     */
+    public boolean submit(ElevatorRequest request) {
+        if (!running || request.getId() == null || !leaderElection.isLeader()) {
+            pendingRequestQueue.add(request);
+            return false;
+        }
+        Shard shard = shard(request.getBank());
+        // Claimed for the dispatcher before it shows up as pending, so the sweep never mistakes it for a missed one
+        boolean claimed = shard.queuedAt.putIfAbsent(request.getId(), System.nanoTime()) == null;
+        pendingRequestQueue.add(request);
+        if (!claimed) {
+            return true;
+        }
+        if (!shard.incomingRequests.offer(request)) {
+            shard.queuedAt.remove(request.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Banks that have a dispatcher, i.e. that have received requests since startup.
+     */
+    public Set<String> getShards() {
+        return new HashSet<>(shards.keySet());
+    }
+
+    private Shard shard(String bank) {
+        return shards.computeIfAbsent(bank, key -> {
+            Shard shard = new Shard(key);
+            if (running) {
+                shard.start();
+            }
+            return shard;
+        });
+    }
+
+    private void runDispatcher(Shard shard) {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<ElevatorRequest> batch = new ArrayList<>();
+            try {
+                batch.add(shard.incomingRequests.take());
+                shard.incomingRequests.drainTo(batch);
+                long pickedUpAt = System.nanoTime();
+                for (ElevatorRequest request : batch) {
+                    Long acceptedAt = shard.queuedAt.get(request.getId());
+                    if (acceptedAt != null) {
+                        queueWaitTimer.record(pickedUpAt - acceptedAt, TimeUnit.NANOSECONDS);
+                    }
+                }
+                if (!leaderElection.isLeader()) {
+                    continue; // Deposed meanwhile; the new leader dispatches them from the database
+                }
+                if (policy == DispatchPolicy.BATCH) {
+                    dispatchBatch(batch);
+                } else {
+                    for (ElevatorRequest request : batch) {
+                        dispatch(request);
+                    }
+                }
+                decisionTimer.record(System.nanoTime() - pickedUpAt, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                // Leave the requests PENDING; the sweep will retry them
+                logger.warn("Dispatch of {} request(s) in bank {} failed: {}", batch.size(), shard.bank, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                for (ElevatorRequest request : batch) {
+                    shard.queuedAt.remove(request.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Assigns a single pending request to the best elevator of its bank right now.
+     *
+     * @return true if the request was assigned.
+     */
+    public boolean dispatch(ElevatorRequest request) {
+        synchronized (dispatchLocks.of(request.getBank())) {
+            if (!isUnassigned(request)) {
+                return false;
+            }
+            ElevatorState bestElevator = findNearbyBestElevator(request);
+            if (bestElevator != null) {
+                assignTo(bestElevator, request);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Assigns a group of pending requests together, as one min-cost matching per bank.
+     *
+     * @return the number of requests assigned.
+     */
+    public int dispatchBatch(List<ElevatorRequest> requests) {
+        Map<String, List<ElevatorRequest>> byBank = new HashMap<>();
+        for (ElevatorRequest request : requests) {
+            byBank.computeIfAbsent(request.getBank(), bank -> new ArrayList<>()).add(request);
+        }
+        int assigned = 0;
+        for (Map.Entry<String, List<ElevatorRequest>> bank : byBank.entrySet()) {
+            synchronized (dispatchLocks.of(bank.getKey())) {
+                assigned += assignBatch(bank.getValue(), elevatorService.getAvailableElevators(bank.getKey()));
+            }
+        }
+        return assigned;
+    }
+
+    // Safety net: picks up anything the event-driven path missed (queue overflow, failures, restarts)
+    @Scheduled(fixedRateString = "${elevator.scheduler.sweep-interval-ms:30000}")
     public void scheduleElevators() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
         // AI-based proactive dispatching
         proactiveDispatch();
         
         // Reactive dispatching for current requests
-        List<ElevatorRequest> pendingRequests = requestRepository.findByStatus(RequestStatus.PENDING);
-        List<Elevator> availableElevators = elevatorService.getAvailableElevators();
+        List<ElevatorRequest> pendingRequests = pendingRequestQueue.getPending();
+        List<ElevatorState> availableElevators = elevatorService.getAvailableElevators();
 
+        Map<String, List<ElevatorRequest>> unqueued = new HashMap<>();
         for (ElevatorRequest request : pendingRequests) {
-            Elevator bestElevator = findBestElevator(request, availableElevators);
-            if (bestElevator != null) {
-                elevatorService.assignRequestToElevator(bestElevator, request);
-                request.setStatus(RequestStatus.ASSIGNED);
-                requestRepository.save(request);
+            Shard shard = shards.get(request.getBank());
+            if (request.getId() != null && shard != null && shard.queuedAt.containsKey(request.getId())) {
+                continue; // The dispatcher thread will handle it momentarily
             }
+            if (assignmentPipeline.isInFlight(request.getId())) {
+                continue; // Already assigned, the database just has not caught up yet
+            }
+            unqueued.computeIfAbsent(request.getBank(), bank -> new ArrayList<>()).add(request);
+        }
+        Map<String, List<ElevatorState>> carsByBank = new HashMap<>();
+        for (ElevatorState elevator : availableElevators) {
+            carsByBank.computeIfAbsent(elevator.getBank(), bank -> new ArrayList<>()).add(elevator);
+        }
+
+        // Bank by bank, each under its own shard's lock; requests keep their dispatch order within a bank
+        for (Map.Entry<String, List<ElevatorRequest>> bank : unqueued.entrySet()) {
+            List<ElevatorState> cars = carsByBank.getOrDefault(bank.getKey(), Collections.emptyList());
+            synchronized (dispatchLocks.of(bank.getKey())) {
+                if (policy == DispatchPolicy.BATCH) {
+                    assignBatch(bank.getValue(), cars);
+                } else if (!cars.isEmpty()) {
+                    // One snapshot of the bank's cars prices every request in this sweep
+                    CostKernel kernel = CostKernel.of(cars);
+                    for (ElevatorRequest request : bank.getValue()) {
+                        // The bank's dispatcher may have taken it since the sweep looked
+                        if (isUnassigned(request)) {
+                            assign(request, cars, kernel);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean assign(ElevatorRequest request, List<ElevatorState> availableElevators, CostKernel kernel) {
+        ElevatorState bestElevator = findBestElevator(request, availableElevators, kernel);
+        if (bestElevator != null) {
+            assignTo(bestElevator, request);
+            return true;
         }
+        return false;
+    }
+
+    private int assignBatch(List<ElevatorRequest> requests, List<ElevatorState> availableElevators) {
+        List<ElevatorState> cars = new ArrayList<>(availableElevators.size());
+        for (ElevatorState elevator : availableElevators) {
+            if (elevator.isDispatchable()) {
+                cars.add(elevator);
+            }
+        }
+        // Only what is still unassigned now that the bank's lock is held
+        List<ElevatorRequest> batch = new ArrayList<>(requests.size());
+        for (ElevatorRequest request : requests) {
+            if (isUnassigned(request)) {
+                batch.add(request);
+            }
+        }
+        if (batch.isEmpty() || cars.isEmpty()) {
+            return 0;
+        }
+
+        // Highest priority and oldest requests first, so they win if there are more requests than free slots
+        batch.sort(PendingRequestQueue.DISPATCH_ORDER);
+
+        // Score every request against every car exactly once per cycle
+        CostKernel kernel = CostKernel.of(cars);
+        int[][] cost = new int[batch.size()][cars.size()];
+        for (int r = 0; r < batch.size(); r++) {
+            kernel.scoreAll(batch.get(r).getSourceFloor(), batch.get(r).getDestinationFloor(), cost[r]);
+        }
+        // Seats left once the riders of the trips each car is already serving are on board
+        int[] seats = new int[cars.size()];
+        int largest = 0;
+        for (int c = 0; c < cars.size(); c++) {
+            ElevatorState car = cars.get(c);
+            seats[c] = car.getCapacity() - car.getCurrentLoad() - elevatorService.getRiders(car.getId());
+            largest = Math.max(largest, car.getCapacity());
+        }
+        // A coalesced call larger than any car fills a whole empty one; the rest ride on a later trip
+        int[] demand = new int[batch.size()];
+        for (int r = 0; r < batch.size(); r++) {
+            demand[r] = Math.max(1, Math.min(batch.get(r).getRiderCount(), largest));
+        }
+
+        int[] choice = BatchAssignmentSolver.solve(cost, seats, demand);
+        int assigned = 0;
+        for (int r = 0; r < choice.length; r++) {
+            if (choice[r] >= 0) {
+                assignTo(cars.get(choice[r]), batch.get(r));
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    // Checked under the bank's lock: assigned by this node, or decided and still being written
+    private boolean isUnassigned(ElevatorRequest request) {
+        return request.getStatus() == RequestStatus.PENDING && !assignmentPipeline.isInFlight(request.getId());
+    }
+
+    private void assignTo(ElevatorState elevator, ElevatorRequest request) {
+        // Persisted asynchronously by the assignment pipeline
+        elevatorService.assignRequestToElevator(elevator, request);
+        request.setStatus(RequestStatus.ASSIGNED);
     }
     
     private void proactiveDispatch() {
-        aiPredictiveService.predictHotspotFloor().ifPresent(hotspotFloor -> {
-            // AI predicts a hotspot. Move idle elevators there.
-            List<Elevator> idleElevators = elevatorService.getIdleElevators();
-            for (Elevator elevator : idleElevators) {
-                // Only move if not already at or near the hotspot AND not in Eco Mode
-                if (!elevator.isEcoMode() && Math.abs(elevator.getCurrentFloor() - hotspotFloor) > 1) {
-                    elevatorService.moveElevator(elevator.getId(), hotspotFloor);
-                }
+        Map<String, Integer> hotspots = aiPredictiveService.predictHotspotFloors();
+        if (hotspots.isEmpty()) {
+            return;
+        }
+        // AI predicts a hotspot in a bank. Move that bank's idle elevators there.
+        for (ElevatorState elevator : elevatorService.getIdleElevators()) {
+            Integer hotspotFloor = hotspots.get(elevator.getBank());
+            // Only move if not already at or near the hotspot AND not in Eco Mode
+            if (hotspotFloor != null && !elevator.isEcoMode() && Math.abs(elevator.getCurrentFloor() - hotspotFloor) > 1) {
+                elevatorService.moveElevator(elevator.getId(), hotspotFloor);
             }
-        });
+        }
     }
 
-    private Elevator findBestElevator(ElevatorRequest request, List<Elevator> elevators) {
+    ElevatorState findBestElevator(ElevatorRequest request, List<ElevatorState> elevators) {
         if (elevators.isEmpty()) {
             return null;
         }
+        return findBestElevator(request, elevators, CostKernel.of(elevators));
+    }
 
-        // PriorityQueue (Min-Heap) to store elevators based on a calculated "suitability cost"
-        // Lower cost is better.
-        PriorityQueue<Elevator> minHeap = new PriorityQueue<>(Comparator.comparingInt(e -> 
-            calculateCost(e, request)
-        ));
+    // Lowest cost among operational cars that are neither full nor parked; the kernel skips the rest
+    private ElevatorState findBestElevator(ElevatorRequest request, List<ElevatorState> elevators, CostKernel kernel) {
+        int best = kernel.argmin(request.getSourceFloor(), request.getDestinationFloor());
+        return best < 0 ? null : elevators.get(best);
+    }
 
-        // Add only operational elevators to the heap
-        for (Elevator elevator : elevators) {
-            if (elevator.isOperational()) {
-                // Check if elevator is at full capacity OR in Eco Mode
-                if (elevator.getCurrentLoad() >= elevator.getCapacity() || elevator.isEcoMode()) {
-                    continue; // Skip full or parked elevators
-                }
-                minHeap.offer(elevator);
-            }
+    /**
+     * Picks the same car as {@link #findBestElevator} over the request's bank, up to ties, but only prices cars
+     * near the pickup floor. No car can cost less than its distance to the pickup, so once the nearest few
+     * cars give an upper bound, every car further away than that bound can be ruled out without looking at it.
+     */
+    ElevatorState findNearbyBestElevator(ElevatorRequest request) {
+        int floor = request.getSourceFloor();
+        List<ElevatorState> nearest = elevatorService.getNearestDispatchable(request.getBank(), floor, SEED_CANDIDATES);
+        if (nearest.isEmpty()) {
+            return null;
         }
-
-        // The top of the heap is the best suited elevator based on cost (Min-Heap)
-        return minHeap.poll();
+        CostKernel seed = CostKernel.of(nearest);
+        int best = seed.argmin(floor, request.getDestinationFloor());
+        if (best < 0) {
+            return null;
+        }
+        int bound = seed.cost(best, floor, request.getDestinationFloor());
+        return findBestElevator(request, elevatorService.getDispatchableWithin(request.getBank(), floor, bound));
     }
 
-    private int calculateCost(Elevator elevator, ElevatorRequest request) {
+    /**
+     * Reference pricing of a request against a single car. The dispatcher scores whole fleets with
+     * {@link CostKernel}, which must produce exactly the same numbers.
+     */
+    int calculateCost(ElevatorState elevator, ElevatorRequest request) {
         int currentFloor = elevator.getCurrentFloor();
         int requestFloor = request.getSourceFloor();
         int targetFloor = request.getDestinationFloor();
-        
-        // BFS-based distance calculation (Linear graph: floors 0, 1, 2...)
-        int distance = bfsDistance(currentFloor, requestFloor);
-        int cost = distance;
-
-        // Load Balancing Factor: Add penalty based on current load
-        if (elevator.getCapacity() > 0) {
-            int loadPenalty = (int) (((double) elevator.getCurrentLoad() / elevator.getCapacity()) * 10);
-            cost += loadPenalty;
-        }
 
         boolean requestGoingUp = targetFloor > requestFloor;
         boolean requestGoingDown = targetFloor < requestFloor;
 
-        if (elevator.getStatus() == ElevatorStatus.MOVING_UP) {
-            if (requestFloor < currentFloor) {
-                // Elevator has passed the request floor. High penalty.
-                cost += 20;
-            } else {
-                // Elevator is below or at request floor (moving towards it)
+        // Price the request against the car's current sweep: the floors it will actually travel
+        // (including detours to queued stops) before it can pick the passenger up
+        int cost;
+        Direction travel = elevator.getTravelDirection();
+        if (travel == Direction.UP) {
+            int top = elevator.hasStops() ? Math.max(currentFloor, elevator.getHighestStop()) : currentFloor;
+            if (requestFloor >= currentFloor) {
                 if (requestGoingDown) {
-                    // Passenger wants to go DOWN, but elevator is going UP.
-                    cost += 10;
+                    // Passenger wants to go DOWN, but elevator is going UP: picked up after the turn.
+                    int turn = Math.max(top, requestFloor);
+                    cost = (turn - currentFloor) + (turn - requestFloor) + 10;
+                } else {
+                    cost = requestFloor - currentFloor;
                 }
-            }
-        } else if (elevator.getStatus() == ElevatorStatus.MOVING_DOWN) {
-            if (requestFloor > currentFloor) {
-                // Elevator has passed the request floor (is below). High penalty.
-                cost += 20;
             } else {
-                // Elevator is above or at request floor (moving towards it)
+                // Elevator has passed the request floor. High penalty.
+                int bottom = requestGoingUp && elevator.hasStops() ? Math.min(requestFloor, elevator.getLowestStop()) : requestFloor;
+                cost = (top - currentFloor) + (top - bottom) + (requestFloor - bottom) + 20;
+            }
+        } else if (travel == Direction.DOWN) {
+            int bottom = elevator.hasStops() ? Math.min(currentFloor, elevator.getLowestStop()) : currentFloor;
+            if (requestFloor <= currentFloor) {
                 if (requestGoingUp) {
-                    // Passenger wants to go UP, but elevator is going DOWN.
-                    cost += 10;
+                    // Passenger wants to go UP, but elevator is going DOWN: picked up after the turn.
+                    int turn = Math.min(bottom, requestFloor);
+                    cost = (currentFloor - turn) + (requestFloor - turn) + 10;
+                } else {
+                    cost = currentFloor - requestFloor;
                 }
+            } else {
+                // Elevator has passed the request floor (is below). High penalty.
+                int top = requestGoingDown && elevator.hasStops() ? Math.max(requestFloor, elevator.getHighestStop()) : requestFloor;
+                cost = (currentFloor - bottom) + (top - bottom) + (top - requestFloor) + 20;
             }
+        } else {
+            // BFS-based distance calculation (Linear graph: floors 0, 1, 2...)
+            // IDLE elevators have no penalty, just distance.
+            cost = bfsDistance(currentFloor, requestFloor);
+        }
+
+        // Load Balancing Factor: Add penalty based on current load
+        if (elevator.getCapacity() > 0) {
+            int loadPenalty = (int) (((double) elevator.getCurrentLoad() / elevator.getCapacity()) * 10);
+            cost += loadPenalty;
         }
-        // IDLE elevators have no penalty, just distance.
 
         return cost;
     }
@@ -1,11 +1,13 @@
 package com.example.elevator.service;
 
-import com.example.elevator.dto.ElevatorStatusDTO;
+import com.example.elevator.model.ElevatorRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
-
-import java.util.List;
+import org.springframework.util.MimeTypeUtils;
 
 @Service
 public class WebSocketUpdateService {
@@ -15,9 +17,21 @@ public class WebSocketUpdateService {
 
     /**
      * Broadcasts the status of all elevators to the /topic/elevator-status WebSocket topic.
-     * @param statuses The list of elevator statuses to broadcast.
+     * The payload is sent as is, without going through a message converter.
+     * @param statusJson The elevator statuses, already serialized as a JSON array.
+     */
+    public void sendElevatorStatusUpdate(byte[] statusJson) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send("/topic/elevator-status", MessageBuilder.createMessage(statusJson, headers.getMessageHeaders()));
+    }
+
+    /**
+     * Publishes a change to a single request (e.g. its assignment) to the /topic/requests WebSocket topic.
+     * @param request The updated request.
      */
-    public void sendElevatorStatusUpdate(List<ElevatorStatusDTO> statuses) {
-        messagingTemplate.convertAndSend("/topic/elevator-status", statuses);
+    public void sendRequestUpdate(ElevatorRequest request) {
+        messagingTemplate.convertAndSend("/topic/requests", request);
     }
-}
\ No newline at end of file
+}
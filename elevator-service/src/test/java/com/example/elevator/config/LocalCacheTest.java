@@ -0,0 +1,61 @@
+package com.example.elevator.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalCacheTest {
+
+    @Test
+    public void testPut_EvictsLeastRecentlyUsedBeyondCapacity() {
+        LocalCache cache = new LocalCache(16, Duration.ofMinutes(1)); // One entry per segment
+        String first = "1";
+        String sameSegment = keyInSegmentOf(first);
+        cache.put(first, new SimpleValueWrapper("a"));
+
+        cache.put(sameSegment, new SimpleValueWrapper("b"));
+
+        assertNull(cache.get(first));
+        assertEquals("b", cache.get(sameSegment).get());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void testGet_ExpiresEntriesAfterTtl() throws Exception {
+        LocalCache cache = new LocalCache(100, Duration.ofMillis(20));
+        cache.put("1", new SimpleValueWrapper("a"));
+        assertNotNull(cache.get("1"));
+
+        Thread.sleep(40);
+
+        assertNull(cache.get("1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPutIfUnchanged_RejectsValueReadBeforeInvalidation() {
+        LocalCache cache = new LocalCache(100, Duration.ofMinutes(1));
+        long epoch = cache.epoch("1");
+
+        cache.evict("1"); // Announcement arrives while the value is being read from Redis
+
+        assertFalse(cache.putIfUnchanged("1", new SimpleValueWrapper("old"), epoch));
+        assertNull(cache.get("1"));
+        assertTrue(cache.putIfUnchanged("1", new SimpleValueWrapper("new"), cache.epoch("1")));
+    }
+
+    private static String keyInSegmentOf(String key) {
+        LocalCache probe = new LocalCache(16, Duration.ofMinutes(1));
+        long epoch = probe.epoch(key);
+        for (int i = 2; ; i++) {
+            String candidate = String.valueOf(i);
+            probe.evict(candidate);
+            if (probe.epoch(key) != epoch) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.elevator.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two nodes sharing one remote cache, with announcements delivered to both as Redis would.
+ */
+public class NearCacheManagerTest {
+
+    private static final String CHANNEL = "invalidation";
+
+    private final ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager("elevators");
+
+    private NearCacheManager nodeA;
+    private NearCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        nodeA = new NearCacheManager(shared, redisTemplate, CHANNEL, 100, Duration.ofMinutes(1));
+        nodeB = new NearCacheManager(shared, redisTemplate, CHANNEL, 100, Duration.ofMinutes(1));
+        when(redisTemplate.convertAndSend(eq(CHANNEL), anyString())).thenAnswer(invocation -> {
+            DefaultMessage message = new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    invocation.<String>getArgument(1).getBytes(StandardCharsets.UTF_8));
+            for (NearCacheManager node : List.of(nodeA, nodeB)) {
+                node.onMessage(message, null);
+            }
+            return 2L;
+        });
+    }
+
+    @Test
+    public void testGet_RepeatedReadIsServedLocally() {
+        nodeA.getCache("elevators").put(1L, "floor 3");
+        NearCache cache = (NearCache) nodeB.getCache("elevators");
+
+        assertEquals("floor 3", cache.get(1L).get());
+        shared.getCache("elevators").put(1L, "written behind the near cache's back");
+
+        assertEquals("floor 3", cache.get(1L).get());
+        assertEquals(1, cache.getLocalHits());
+        assertEquals(1, cache.getLocalMisses());
+    }
+
+    @Test
+    public void testPut_OtherNodesDropTheirCopy() {
+        Cache onA = nodeA.getCache("elevators");
+        Cache onB = nodeB.getCache("elevators");
+        onA.put(1L, "floor 3");
+        onA.put(2L, "floor 7");
+        assertEquals("floor 3", onB.get(1L).get());
+        assertEquals("floor 7", onB.get(2L).get());
+
+        onA.put(1L, "floor 4");
+        onA.evict(2L);
+
+        assertEquals("floor 4", onB.get(1L).get());
+        assertNull(onB.get(2L));
+        assertEquals("floor 4", onA.get(1L).get(), "writer keeps its own copy");
+    }
+
+    @Test
+    public void testClear_ClearsEveryNode() {
+        Cache onA = nodeA.getCache("elevators");
+        Cache onB = nodeB.getCache("elevators");
+        onA.put(1L, "floor 3");
+        onB.get(1L);
+
+        onA.clear();
+
+        assertNull(onB.get(1L));
+        assertEquals(0, ((NearCache) onB).getLocalSize());
+    }
+
+    @Test
+    public void testGetCache_UnknownToSharedManagerIsNull() {
+        shared.setCacheNames(List.of("elevators"));
+
+        assertNull(nodeA.getCache("requests"));
+        assertSame(nodeA.getCache("elevators"), nodeA.getCache("elevators"));
+    }
+}
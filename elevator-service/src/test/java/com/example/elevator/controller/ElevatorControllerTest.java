@@ -5,9 +5,13 @@ import com.example.elevator.model.ElevatorRequest;
 import com.example.elevator.model.ElevatorStatus;
 import com.example.elevator.model.RequestStatus;
 import com.example.elevator.repository.ElevatorRequestRepository;
+import com.example.elevator.service.BulkIngestService;
 import com.example.elevator.service.ElevatorService;
+import com.example.elevator.service.EtaService;
+import com.example.elevator.service.HallCallService;
 import com.example.elevator.service.HealthMonitorService;
 import com.example.elevator.service.KafkaProducerService;
+import com.example.elevator.service.SchedulerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +49,18 @@ public class ElevatorControllerTest {
     @MockBean
     private KafkaProducerService kafkaProducerService;
 
+    @MockBean
+    private SchedulerService schedulerService;
+
+    @MockBean
+    private EtaService etaService;
+
+    @MockBean
+    private HallCallService hallCallService;
+
+    @MockBean
+    private BulkIngestService bulkIngestService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -70,7 +86,7 @@ public class ElevatorControllerTest {
         request.setSourceFloor(1);
         request.setDestinationFloor(5);
 
-        given(requestRepository.save(any(ElevatorRequest.class))).willReturn(request);
+        given(hallCallService.accept(any(ElevatorRequest.class))).willReturn(request);
 
         mockMvc.perform(post("/api/elevators/request")
                 .with(csrf())
@@ -0,0 +1,60 @@
+package com.example.elevator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FloorIndexTest {
+
+    @Test
+    public void testNearest_WalksOutwardsAcrossDirections() {
+        FloorIndex index = new FloorIndex();
+        index.add(1L, 10, Direction.UP);
+        index.add(2L, 12, Direction.STOPPED);
+        index.add(3L, 8, Direction.DOWN);
+        index.add(4L, 30, Direction.UP);
+        index.add(5L, 11, Direction.DOWN);
+
+        // Floor 11 first, then 10 and 12 (lower floor first on a tie), then 8
+        assertEquals(Arrays.asList(5L, 1L, 2L, 3L), index.nearest(11, null, 4, id -> true));
+    }
+
+    @Test
+    public void testNearest_FiltersByDirectionAndPredicate() {
+        FloorIndex index = new FloorIndex();
+        index.add(1L, 5, Direction.UP);
+        index.add(2L, 6, Direction.UP);
+        index.add(3L, 5, Direction.DOWN);
+        index.add(4L, 20, Direction.UP);
+
+        assertEquals(Arrays.asList(1L, 4L), index.nearest(5, Direction.UP, 2, id -> id != 2L));
+        assertEquals(Collections.singletonList(3L), index.nearest(5, Direction.DOWN, 5, id -> true));
+    }
+
+    @Test
+    public void testWithin_StopsAtRadius() {
+        FloorIndex index = new FloorIndex();
+        index.add(1L, 0, Direction.STOPPED);
+        index.add(2L, 4, Direction.UP);
+        index.add(3L, 7, Direction.DOWN);
+        index.add(4L, 9, Direction.STOPPED);
+
+        assertEquals(Arrays.asList(2L, 3L), index.within(5, 2, null, id -> true));
+        assertTrue(index.within(5, -1, null, id -> true).isEmpty());
+    }
+
+    @Test
+    public void testRemove_MovesCarBetweenBuckets() {
+        FloorIndex index = new FloorIndex();
+        index.add(1L, 3, Direction.UP);
+        index.remove(1L, 3, Direction.UP);
+        index.add(1L, 4, Direction.UP);
+
+        assertEquals(1, index.size());
+        assertEquals(Collections.singletonList(1L), index.nearest(0, Direction.UP, 3, id -> true));
+        assertTrue(index.within(3, 0, null, id -> true).isEmpty());
+    }
+}
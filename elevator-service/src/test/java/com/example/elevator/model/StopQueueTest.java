@@ -0,0 +1,125 @@
+package com.example.elevator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StopQueueTest {
+
+    @Test
+    public void testNext_ServesUpSweepBeforeTurning() {
+        StopQueue stops = new StopQueue();
+        stops.addRequest(7, 2);  // down rider waiting above
+        stops.addRequest(3, 9);  // up rider on the way
+        stops.add(1, Direction.UP); // behind the car
+
+        assertEquals(Arrays.asList(3, 9, 7, 2, 1), serve(stops, 2, Direction.UP));
+    }
+
+    @Test
+    public void testRoute_MatchesServeOrderWithoutConsumingStops() {
+        StopQueue stops = new StopQueue();
+        stops.addRequest(7, 2);
+        stops.addRequest(3, 9);
+        stops.add(1, Direction.UP);
+
+        assertEquals(Arrays.asList(3, 9, 7, 2, 1), stops.route(2, Direction.UP));
+        assertEquals(5, stops.size());
+        assertEquals(Arrays.asList(3, 9, 7, 2, 1), serve(stops, 2, Direction.UP));
+    }
+
+    @Test
+    public void testNext_AcceptsStopsWhileMoving() {
+        StopQueue stops = new StopQueue();
+        stops.addRequest(0, 10);
+
+        assertEquals(0, stops.next(0, Direction.STOPPED));
+        stops.arrive(0, Direction.STOPPED);
+        assertEquals(10, stops.next(1, Direction.UP));
+
+        // A rider joins on the way up
+        stops.addRequest(4, 6);
+        assertEquals(4, stops.next(2, Direction.UP));
+        stops.arrive(4, Direction.UP);
+        assertEquals(6, stops.next(4, Direction.UP));
+        stops.arrive(6, Direction.UP);
+        assertEquals(10, stops.next(6, Direction.UP));
+    }
+
+    @Test
+    public void testNext_StoppedCarHeadsForNearestStop() {
+        StopQueue stops = new StopQueue();
+        stops.add(9, Direction.UP);
+        stops.add(3, Direction.DOWN);
+
+        assertEquals(3, stops.next(5, Direction.STOPPED));
+    }
+
+    @Test
+    public void testExtentAndEmpty() {
+        StopQueue stops = new StopQueue();
+        assertTrue(stops.isEmpty());
+        assertNull(stops.next(0, Direction.UP));
+
+        stops.addRequest(8, 2);
+        stops.add(11, Direction.UP);
+
+        assertEquals(2, stops.lowest());
+        assertEquals(11, stops.highest());
+        assertEquals(3, stops.size());
+        assertFalse(stops.arrive(5, Direction.UP));
+    }
+
+    @Test
+    public void testArrive_KeepsOppositePickupUntilTheCarComesBack() {
+        StopQueue stops = new StopQueue();
+        stops.addRequest(2, 5);  // car on its way up, dropping a rider at 5
+        stops.add(9, Direction.UP);
+        stops.addRequest(5, 1);  // rider at 5 waiting to go down
+
+        // Not picked up at 5 on the way up, but on the way back down
+        assertEquals(Arrays.asList(2, 5, 9, 5, 1), serve(stops, 0, Direction.UP));
+    }
+
+    @Test
+    public void testArrive_TurningCarServesBothSweeps() {
+        StopQueue stops = new StopQueue();
+        stops.add(6, Direction.UP);   // drop-off at the top of the up sweep
+        stops.addRequest(6, 0);       // pickup there going down
+
+        assertTrue(stops.arrive(6, Direction.UP));
+        assertEquals(0, stops.next(6, Direction.UP));
+        assertEquals(1, stops.size());
+    }
+
+    @Test
+    public void testRemoveRequest_KeepsStopsOtherRidersNeed() {
+        StopQueue stops = new StopQueue();
+        stops.addRequest(2, 8);
+        stops.addRequest(4, 8);
+
+        stops.removeRequest(2, 8);
+
+        assertEquals(Arrays.asList(4, 8), stops.route(0, Direction.UP));
+        assertFalse(stops.remove(2, Direction.UP));
+    }
+
+    // Replays the queue the way the movement engine would, returning the order floors are served in
+    private static List<Integer> serve(StopQueue stops, int floor, Direction travel) {
+        List<Integer> served = new ArrayList<>();
+        Integer next;
+        while ((next = stops.next(floor, travel)) != null) {
+            if (next != floor) {
+                travel = next > floor ? Direction.UP : Direction.DOWN;
+            }
+            floor = next;
+            stops.arrive(floor, travel);
+            served.add(floor);
+        }
+        return served;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.elevator.repository;
+
+import com.example.elevator.model.ElevatorLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ElevatorLogRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 1, 8, 0);
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private ElevatorLogRepository logRepository;
+
+    private ElevatorLog save(long elevatorId, LocalDateTime timestamp) {
+        ElevatorLog log = new ElevatorLog(elevatorId, "Stopped at floor 1");
+        log.setTimestamp(timestamp);
+        return logRepository.save(log);
+    }
+
+    @Test
+    public void testFindSliceBefore_WalksNewestFirstAcrossTimestampTies() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Pairs of entries share a timestamp, so the id has to break ties
+            expected.add(0, save(1L, T0.plusSeconds(i / 2)).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime beforeTime = LATEST;
+        long beforeId = 0;
+        Slice<ElevatorLog> slice;
+        do {
+            slice = logRepository.findSliceBefore(null, EARLIEST, beforeTime, beforeId, PageRequest.ofSize(3));
+            assertTrue(slice.getNumberOfElements() <= 3);
+            slice.forEach(log -> seen.add(log.getId()));
+            ElevatorLog last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            beforeTime = last.getTimestamp();
+            beforeId = last.getId();
+        } while (slice.hasNext());
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void testFindSliceBefore_FiltersByElevatorAndTimeRange() {
+        save(1L, T0);
+        ElevatorLog inRange = save(1L, T0.plusMinutes(5));
+        save(2L, T0.plusMinutes(6));
+        save(1L, T0.plusMinutes(10)); // At the exclusive upper bound
+
+        Slice<ElevatorLog> slice = logRepository.findSliceBefore(1L, T0.plusMinutes(1), T0.plusMinutes(10), 0,
+                PageRequest.ofSize(10));
+
+        assertEquals(List.of(inRange.getId()), slice.map(ElevatorLog::getId).getContent());
+        assertFalse(slice.hasNext());
+    }
+}
@@ -5,6 +5,7 @@ import com.example.elevator.model.ElevatorStatus;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.util.Optional;
 
@@ -31,4 +32,31 @@ public class ElevatorRepositoryTest {
         assertTrue(foundElevator.isPresent());
         assertEquals(0, foundElevator.get().getCurrentFloor());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSave_RejectsWriteBasedOnOutdatedVersion() {
+        Elevator saved = elevatorRepository.saveAndFlush(new Elevator());
+        Long version = saved.getVersion();
+
+        Elevator fault = copyOf(saved);
+        fault.setOperational(false);
+        fault.setStatus(ElevatorStatus.OUT_OF_SERVICE);
+        assertEquals(version + 1, elevatorRepository.saveAndFlush(fault).getVersion());
+
+        Elevator stale = copyOf(saved);
+        stale.setVersion(version); // Read before the fault was written
+        stale.setCurrentFloor(7);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> elevatorRepository.saveAndFlush(stale));
+    }
+
+    // A detached copy, as the fleet state store writes them
+    private static Elevator copyOf(Elevator elevator) {
+        Elevator copy = new Elevator();
+        copy.setId(elevator.getId());
+        copy.setVersion(elevator.getVersion());
+        copy.setCurrentFloor(elevator.getCurrentFloor());
+        copy.setStatus(elevator.getStatus());
+        copy.setOperational(elevator.isOperational());
+        return copy;
+    }
+}
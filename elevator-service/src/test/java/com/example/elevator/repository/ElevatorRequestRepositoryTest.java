@@ -0,0 +1,122 @@
+package com.example.elevator.repository;
+
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.RequestStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ElevatorRequestRepositoryTest {
+
+    @Autowired
+    private ElevatorRequestRepository requestRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void testAssign_LaterFencingTokenWins() {
+        Long id = pendingRequest();
+
+        assertEquals(1, assign(id, 1L, 5, false)); // New leader with token 5
+        assertEquals(0, assign(id, 2L, 4, false), "deposed leader");
+        assertEquals(0, assign(id, 2L, 4, true), "deposed leader, even when reassigning");
+
+        ElevatorRequest stored = entityManager.find(ElevatorRequest.class, id);
+        assertEquals(RequestStatus.ASSIGNED, stored.getStatus());
+        assertEquals(1L, stored.getAssignedElevatorId());
+        assertEquals(5L, stored.getFencingToken());
+    }
+
+    @Test
+    public void testAssign_AssignedRequestOnlyReassignedOnPurpose() {
+        Long id = pendingRequest();
+        assertEquals(1, assign(id, 1L, 5, false));
+
+        assertEquals(0, assign(id, 2L, 5, false), "assigned twice in one term");
+        assertEquals(1, assign(id, 2L, 5, true)); // Operator moves it to another car
+        assertEquals(1, assign(id, 3L, 6, false)); // Recovered by the next leader
+
+        assertEquals(3L, entityManager.find(ElevatorRequest.class, id).getAssignedElevatorId());
+    }
+
+    @Test
+    public void testUpdateRiders_KeepsTheAssignmentAndNeverLowersTheCount() {
+        Long id = pendingRequest();
+        assertEquals(1, assign(id, 1L, 5, false));
+
+        assertEquals(1, requestRepository.updateRiders(id, 3, new TreeSet<>(Arrays.asList(5, 11)), 5));
+        assertEquals(0, requestRepository.updateRiders(id, 2, new TreeSet<>(Arrays.asList(5)), 5), "overtaken by a later join");
+        assertEquals(0, requestRepository.updateRiders(id, 4, new TreeSet<>(Arrays.asList(5)), 4), "deposed leader");
+        assertEquals(1, assign(id, 2L, 5, true)); // Carries the count it read before the last join
+        entityManager.clear();
+
+        ElevatorRequest stored = entityManager.find(ElevatorRequest.class, id);
+        assertEquals(3, stored.getRiderCount());
+        assertEquals(new TreeSet<>(Arrays.asList(5, 11)), stored.getAdditionalDestinations());
+        assertEquals(2L, stored.getAssignedElevatorId());
+        assertEquals(RequestStatus.ASSIGNED, stored.getStatus());
+    }
+
+    @Test
+    public void testAdditionalDestinations_StoredWithTheRequest() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setSourceFloor(0);
+        request.setDestinationFloor(9);
+        request.getAdditionalDestinations().add(4);
+        request.getAdditionalDestinations().add(7);
+        Long id = entityManager.persistAndFlush(request).getId();
+        Long alone = pendingRequest();
+        entityManager.clear();
+
+        assertEquals(new TreeSet<>(Arrays.asList(4, 7)), entityManager.find(ElevatorRequest.class, id).getAdditionalDestinations());
+        assertTrue(entityManager.find(ElevatorRequest.class, alone).getAdditionalDestinations().isEmpty());
+    }
+
+    @Test
+    public void testDeleteOlderThan_KeepsRequestsStillWaitingOrRiding() {
+        LocalDateTime old = LocalDateTime.now().minusYears(2);
+        Long completed = requestAt(old, RequestStatus.COMPLETED);
+        Long pending = requestAt(old, RequestStatus.PENDING);
+        Long assigned = requestAt(old, RequestStatus.ASSIGNED);
+        Long recent = requestAt(LocalDateTime.now(), RequestStatus.COMPLETED);
+
+        assertEquals(1, requestRepository.deleteOlderThan(LocalDateTime.now().minusYears(1)));
+        entityManager.clear();
+
+        assertNull(entityManager.find(ElevatorRequest.class, completed));
+        assertNotNull(entityManager.find(ElevatorRequest.class, pending));
+        assertNotNull(entityManager.find(ElevatorRequest.class, assigned));
+        assertNotNull(entityManager.find(ElevatorRequest.class, recent));
+    }
+
+    private Long requestAt(LocalDateTime time, RequestStatus status) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setSourceFloor(2);
+        request.setDestinationFloor(8);
+        request.setRequestTime(time);
+        request.setStatus(status);
+        return entityManager.persistAndFlush(request).getId();
+    }
+
+    private Long pendingRequest() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setSourceFloor(2);
+        request.setDestinationFloor(8);
+        return entityManager.persistAndFlush(request).getId();
+    }
+
+    private int assign(Long id, Long elevatorId, long token, boolean reassign) {
+        int rows = requestRepository.assign(id, elevatorId, LocalDateTime.now(), 1, 0, token, reassign);
+        entityManager.clear();
+        return rows;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.elevator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssignmentPipelineTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AssignmentPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new AssignmentPipeline();
+        ReflectionTestUtils.setField(pipeline, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(pipeline, "persistThreads", 1);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 1);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    public void testSubmit_TracksRequestUntilPersisted() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        pipeline.submit(1L, () -> {
+            await(release);
+            done.countDown();
+        });
+
+        assertTrue(pipeline.isInFlight(1L));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        pipeline.stop();
+        assertFalse(pipeline.isInFlight(1L));
+        assertEquals(1, meterRegistry.get("elevator.assignment.persist.latency").timer().count());
+    }
+
+    @Test
+    public void testSubmit_FailureIsCountedAndReleasesRequest() throws InterruptedException {
+        pipeline.submit(2L, () -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        pipeline.stop();
+        assertFalse(pipeline.isInFlight(2L));
+        assertEquals(1.0, meterRegistry.get("elevator.assignment.persist.failures").counter().count());
+    }
+
+    @Test
+    public void testSubmit_FailureHandlerRunsOnceRequestIsReleased() throws InterruptedException {
+        List<Boolean> inFlightDuringHandler = new CopyOnWriteArrayList<>();
+        pipeline.submit("main", 6L, () -> {
+            throw new IllegalStateException("database unavailable");
+        }, () -> inFlightDuringHandler.add(pipeline.isInFlight(6L)));
+        pipeline.submit("main", 7L, () -> { }, () -> inFlightDuringHandler.add(pipeline.isInFlight(7L)));
+
+        pipeline.stop();
+        // Only the failed task's handler ran, and the request could already be dispatched again by then
+        assertEquals(List.of(false), inFlightDuringHandler);
+    }
+
+    @Test
+    public void testSubmit_RunsOnCallerWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline.submit(3L, () -> await(release)); // occupies the only worker
+        pipeline.submit(4L, () -> { });            // fills the queue
+        waitForQueueDepth(1);
+
+        Thread[] ranOn = new Thread[1];
+        pipeline.submit(5L, () -> ranOn[0] = Thread.currentThread());
+
+        assertSame(Thread.currentThread(), ranOn[0]);
+        assertEquals(1.0, meterRegistry.get("elevator.assignment.persist.caller.runs").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    public void testSubmit_SlowBankDoesNotHoldUpOtherBanks() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline.submit("tower-a", 10L, () -> await(release), () -> { }); // a write stuck on the database
+        pipeline.submit("tower-a", 11L, () -> { }, () -> { });            // tower-a's queue is now full
+        waitForQueueDepth(1);
+
+        CountDownLatch written = new CountDownLatch(1);
+        Thread[] ranOn = new Thread[1];
+        pipeline.submit("tower-b", 12L, () -> {
+            ranOn[0] = Thread.currentThread();
+            written.countDown();
+        }, () -> { });
+
+        // Written by tower-b's own worker while tower-a is still stuck, not by tower-b's dispatcher
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), ranOn[0]);
+        assertEquals(0.0, meterRegistry.get("elevator.assignment.persist.caller.runs").counter().count());
+        assertEquals(1, pipeline.getQueueDepth("tower-a"));
+        assertTrue(pipeline.isInFlight(10L));
+        release.countDown();
+    }
+
+    @Test
+    public void testSubmit_AfterStopIsRefusedAndHandledAsFailure() throws InterruptedException {
+        pipeline.submit("main", 20L, () -> { }, () -> { }); // the lane exists before it is shut down
+        pipeline.stop();
+
+        boolean[] ran = new boolean[1];
+        List<Boolean> inFlightDuringHandler = new CopyOnWriteArrayList<>();
+        pipeline.submit("main", 21L, () -> ran[0] = true, () -> inFlightDuringHandler.add(pipeline.isInFlight(21L)));
+        pipeline.submit("tower-c", 22L, () -> ran[0] = true, () -> inFlightDuringHandler.add(pipeline.isInFlight(22L)));
+
+        assertFalse(ran[0]);
+        assertFalse(pipeline.isInFlight(21L));
+        assertFalse(pipeline.isInFlight(22L));
+        assertEquals(List.of(false, false), inFlightDuringHandler);
+        assertEquals(2.0, meterRegistry.get("elevator.assignment.persist.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("elevator.assignment.persist.caller.runs").counter().count());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.getQueueDepth() != depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, pipeline.getQueueDepth());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
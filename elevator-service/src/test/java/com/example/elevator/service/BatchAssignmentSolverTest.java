@@ -0,0 +1,175 @@
+package com.example.elevator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchAssignmentSolverTest {
+
+    @Test
+    public void testSolve_PrefersGlobalOptimumOverGreedy() {
+        // Greedy would give request 0 to car 0 (cost 1) and leave request 1 with car 1 (cost 100)
+        int[][] cost = {
+                {1, 2},
+                {3, 100}
+        };
+        int[] choice = BatchAssignmentSolver.solve(cost, new int[]{1, 1});
+
+        assertArrayEquals(new int[]{1, 0}, choice);
+    }
+
+    @Test
+    public void testSolve_RespectsCarCapacity() {
+        int[][] cost = {
+                {0, 9},
+                {0, 9},
+                {0, 9}
+        };
+        int[] choice = BatchAssignmentSolver.solve(cost, new int[]{2, 5});
+
+        int onFirstCar = 0;
+        for (int car : choice) {
+            if (car == 0) onFirstCar++;
+        }
+        assertEquals(2, onFirstCar);
+        assertTrue(contains(choice, 1));
+    }
+
+    @Test
+    public void testSolve_WeightedDemandStaysWithinSeats() {
+        int[][] cost = {
+                {0, 9},
+                {0, 9},
+                {0, 9}
+        };
+        // Two seats for three requests on the first car, but the first request alone has 4 riders
+        int[] choice = BatchAssignmentSolver.solve(cost, new int[]{5, 10}, new int[]{4, 1, 3});
+
+        assertArrayEquals(new int[]{0, 0, 1}, choice);
+    }
+
+    @Test
+    public void testSolve_WeightedDemandLeavesOutRequestNoCarHasRoomFor() {
+        int[][] cost = {{1, 2}};
+
+        assertArrayEquals(new int[]{-1}, BatchAssignmentSolver.solve(cost, new int[]{3, 5}, new int[]{6}));
+    }
+
+    @Test
+    public void testSolve_UnitDemandMatchesPlainAuction() {
+        Random random = new Random(11);
+        int[][] cost = new int[30][6];
+        for (int[] row : cost) {
+            for (int c = 0; c < row.length; c++) {
+                row[c] = random.nextInt(50);
+            }
+        }
+        int[] slots = {2, 3, 1, 4, 0, 5};
+        int[] ones = new int[cost.length];
+        Arrays.fill(ones, 1);
+
+        assertArrayEquals(BatchAssignmentSolver.solve(cost, slots), BatchAssignmentSolver.solve(cost, slots, ones));
+    }
+
+    @Test
+    public void testSolve_LeavesNewestRequestsUnassignedWhenOutOfSlots() {
+        int[][] cost = {
+                {5},
+                {1},
+                {1}
+        };
+        int[] choice = BatchAssignmentSolver.solve(cost, new int[]{2});
+
+        assertArrayEquals(new int[]{0, 0, -1}, choice);
+    }
+
+    @Test
+    public void testSolve_MatchesBruteForceOnSmallInstances() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int requests = 1 + random.nextInt(5);
+            int cars = 1 + random.nextInt(4);
+            int[][] cost = new int[requests][cars];
+            int[] slots = new int[cars];
+            for (int c = 0; c < cars; c++) {
+                slots[c] = random.nextInt(3);
+            }
+            for (int r = 0; r < requests; r++) {
+                for (int c = 0; c < cars; c++) {
+                    cost[r][c] = random.nextInt(40);
+                }
+            }
+
+            int[] choice = BatchAssignmentSolver.solve(cost, slots);
+            int totalSlots = 0;
+            for (int s : slots) totalSlots += s;
+            int served = Math.min(requests, totalSlots);
+
+            assertEquals(bruteForce(cost, slots.clone(), 0, served), total(cost, choice), "round " + round);
+        }
+    }
+
+    @Test
+    public void testSolve_ThousandRequestsOnTwoHundredCars() {
+        Random random = new Random(7);
+        int requests = 1000;
+        int cars = 200;
+        int[][] cost = new int[requests][cars];
+        int[] slots = new int[cars];
+        for (int c = 0; c < cars; c++) {
+            slots[c] = 1 + random.nextInt(10);
+        }
+        for (int r = 0; r < requests; r++) {
+            for (int c = 0; c < cars; c++) {
+                cost[r][c] = random.nextInt(60);
+            }
+        }
+
+        int[] choice = BatchAssignmentSolver.solve(cost, slots);
+
+        int[] used = new int[cars];
+        for (int car : choice) {
+            if (car >= 0) used[car]++;
+        }
+        for (int c = 0; c < cars; c++) {
+            assertTrue(used[c] <= slots[c]);
+        }
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+
+    private static int total(int[][] cost, int[] choice) {
+        int sum = 0;
+        for (int r = 0; r < choice.length; r++) {
+            if (choice[r] >= 0) sum += cost[r][choice[r]];
+        }
+        return sum;
+    }
+
+    // Cheapest way to serve the first `served` requests within the slot limits
+    private static int bruteForce(int[][] cost, int[] slots, int row, int served) {
+        if (row == served) {
+            return 0;
+        }
+        int best = Integer.MAX_VALUE;
+        for (int c = 0; c < slots.length; c++) {
+            if (slots[c] > 0) {
+                slots[c]--;
+                int rest = bruteForce(cost, slots, row + 1, served);
+                slots[c]++;
+                if (rest != Integer.MAX_VALUE) {
+                    best = Math.min(best, cost[row][c] + rest);
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.elevator.service;
+
+import com.example.elevator.exception.LogImportNotSupportedException;
+import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorLogRepository;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(BulkIngestService.class)
+public class BulkIngestServiceTest {
+
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @Autowired
+    private ElevatorRequestRepository requestRepository;
+
+    @Autowired
+    private ElevatorLogRepository logRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testImportRequests_StoredAsCompletedInBatches() {
+        List<ElevatorRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ElevatorRequest request = new ElevatorRequest();
+            request.setSourceFloor(i % 10);
+            request.setDestinationFloor(10);
+            request.setRequestTime(LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(i));
+            requests.add(request);
+        }
+
+        assertEquals(120, bulkIngestService.importRequests(requests));
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        // A statement per JDBC batch plus one sequence call per 50 ids, instead of one round trip per row
+        assertTrue(statistics.getPrepareStatementCount() <= 8, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(120, requestRepository.findByStatus(RequestStatus.COMPLETED).size());
+    }
+
+    @Test
+    public void testImportLogs_KeepsTimestampsAndIgnoresIds() {
+        ElevatorLog log = new ElevatorLog(4L, "Stopped at floor 2");
+        log.setId(999L);
+        log.setTimestamp(LocalDateTime.of(2024, 12, 31, 23, 59));
+
+        bulkIngestService.importLogs(List.of(log));
+
+        assertNotEquals(999L, log.getId());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    public void testImportLogs_EntryWithoutTimestampStoredAsOfTheImport() {
+        ElevatorLog log = new ElevatorLog();
+        log.setElevatorId(4L);
+        log.setMessage("Door reopened");
+        LocalDateTime before = LocalDateTime.now();
+
+        bulkIngestService.importLogs(List.of(log));
+
+        // Otherwise invisible to time-range queries, keyset paging and retention
+        assertEquals(1, logRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(before,
+                LocalDateTime.now().plusSeconds(1), PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    public void testImportLogs_RefusedWhenTheLogIsKeptInTheJournal() {
+        ReflectionTestUtils.setField(bulkIngestService, "logBackend", LogBackend.JOURNAL);
+        try {
+            assertThrows(LogImportNotSupportedException.class,
+                    () -> bulkIngestService.importLogs(List.of(new ElevatorLog(4L, "Stopped at floor 2"))));
+            assertEquals(0, statistics.getEntityInsertCount());
+        } finally {
+            ReflectionTestUtils.setField(bulkIngestService, "logBackend", LogBackend.DATABASE);
+        }
+    }
+}
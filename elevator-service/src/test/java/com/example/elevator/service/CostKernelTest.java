@@ -0,0 +1,97 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CostKernelTest {
+
+    private final SchedulerService schedulerService = new SchedulerService();
+
+    @Test
+    public void testScoresMatchCalculateCost() {
+        Random random = new Random(11);
+        List<ElevatorState> fleet = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ElevatorState.ElevatorStateBuilder car = ElevatorState.builder()
+                    .id((long) i)
+                    .currentFloor(random.nextInt(30))
+                    .status(ElevatorStatus.values()[random.nextInt(ElevatorStatus.values().length)])
+                    .capacity(random.nextInt(12)) // includes zero capacity
+                    .currentLoad(random.nextInt(12))
+                    .operational(random.nextBoolean())
+                    .ecoMode(random.nextInt(5) == 0);
+            if (random.nextBoolean()) {
+                int a = random.nextInt(30);
+                int b = random.nextInt(30);
+                car.stopCount(1 + random.nextInt(4)).lowestStop(Math.min(a, b)).highestStop(Math.max(a, b));
+            }
+            fleet.add(car.build());
+        }
+
+        CostKernel kernel = CostKernel.of(fleet);
+        int[] scores = new int[fleet.size()];
+        for (int source = 0; source < 30; source++) {
+            for (int destination = 0; destination < 30; destination++) {
+                ElevatorRequest request = request(source, destination);
+                kernel.scoreAll(source, destination, scores);
+                for (int c = 0; c < fleet.size(); c++) {
+                    int expected = schedulerService.calculateCost(fleet.get(c), request);
+                    assertEquals(expected, scores[c]);
+                    assertEquals(expected, kernel.cost(c, source, destination));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testArgminSkipsCarsThatCannotTakeRequest() {
+        ElevatorState full = car(1L, 5).toBuilder().currentLoad(10).build();
+        ElevatorState parked = car(2L, 5).toBuilder().ecoMode(true).build();
+        ElevatorState broken = car(3L, 5).toBuilder().operational(false).build();
+        ElevatorState far = car(4L, 20);
+        ElevatorState farther = car(5L, 25);
+
+        CostKernel kernel = CostKernel.of(Arrays.asList(full, parked, broken, farther, far));
+
+        assertEquals(4, kernel.argmin(5, 8));
+    }
+
+    @Test
+    public void testArgminBreaksTiesTowardsLowerIndex() {
+        CostKernel kernel = CostKernel.of(Arrays.asList(car(1L, 2), car(2L, 8), car(3L, 2)));
+
+        assertEquals(0, kernel.argmin(5, 0));
+    }
+
+    @Test
+    public void testArgminWithNoCandidates() {
+        assertEquals(-1, CostKernel.of(new ArrayList<>()).argmin(3, 4));
+        assertEquals(-1, CostKernel.of(List.of(car(1L, 3).toBuilder().operational(false).build())).argmin(3, 4));
+    }
+
+    private static ElevatorState car(Long id, int floor) {
+        return ElevatorState.builder()
+                .id(id)
+                .currentFloor(floor)
+                .status(ElevatorStatus.IDLE)
+                .capacity(10)
+                .operational(true)
+                .build();
+    }
+
+    private static ElevatorRequest request(int source, int destination) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setSourceFloor(source);
+        request.setDestinationFloor(destination);
+        return request;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.repository.ElevatorLogRepository;
+import com.example.elevator.repository.ElevatorRepository;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cache maintenance through the real Spring proxies, which the Mockito-only service tests bypass.
+ */
+@SpringJUnitConfig(ElevatorCacheTest.Config.class)
+public class ElevatorCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({ElevatorService.class, FleetStateService.class, DispatchLocks.class})
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("elevators");
+        }
+    }
+
+    @MockBean
+    private ElevatorRepository elevatorRepository;
+
+    @MockBean
+    private ElevatorRequestRepository requestRepository;
+
+    @MockBean
+    private ElevatorLogRepository logRepository;
+
+    @MockBean
+    private ElevatorLogWriter logWriter;
+
+    @MockBean
+    private WebSocketUpdateService webSocketUpdateService;
+
+    @MockBean
+    private FleetStatusView fleetStatusView;
+
+    @MockBean
+    private AssignmentPipeline assignmentPipeline;
+
+    @MockBean
+    private PendingRequestQueue pendingRequestQueue;
+
+    @MockBean
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private ElevatorService elevatorService;
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache elevators;
+
+    @BeforeEach
+    void setUp() {
+        elevators = cacheManager.getCache("elevators");
+        elevators.clear();
+        when(fleetStatusView.getSnapshot()).thenReturn(FleetStatusView.Snapshot.EMPTY);
+        when(elevatorRepository.save(any(Elevator.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testGetElevatorById_SecondLookupIsServedFromCache() {
+        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator(1L)));
+
+        elevatorService.getElevatorById(1L);
+        elevatorService.getElevatorById(1L);
+
+        verify(elevatorRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testSaveAndDelete_TouchOnlyThatCar() {
+        elevatorService.saveElevator(elevator(1L));
+        elevatorService.saveElevator(elevator(2L));
+        when(elevatorRepository.findById(2L)).thenReturn(Optional.of(elevator(2L)));
+
+        elevatorService.deleteElevator(2L);
+
+        assertNotNull(elevators.get(1L), "other cars stay cached");
+        assertNull(elevators.get(2L));
+    }
+
+    @Test
+    public void testReportFault_ReplacesCachedEntity() {
+        elevatorService.saveElevator(elevator(1L));
+
+        elevatorService.reportFault(1L);
+
+        Elevator cached = elevators.get(1L, Elevator.class);
+        assertEquals(ElevatorStatus.OUT_OF_SERVICE, cached.getStatus());
+        assertFalse(cached.isOperational());
+        elevatorService.getElevatorById(1L);
+        verify(elevatorRepository, never()).findById(1L);
+    }
+
+    private static Elevator elevator(Long id) {
+        Elevator elevator = new Elevator();
+        elevator.setId(id);
+        elevator.setCurrentFloor(0);
+        elevator.setStatus(ElevatorStatus.IDLE);
+        elevator.setDirection(Direction.STOPPED);
+        elevator.setOperational(true);
+        return elevator;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
+import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.repository.ElevatorLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ElevatorLogWriterTest {
+
+    @Mock
+    private ElevatorLogRepository logRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Sizes of the batches passed to saveAll, in order
+    private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private ElevatorLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new ElevatorLogWriter();
+        ReflectionTestUtils.setField(writer, "logRepository", logRepository);
+        ReflectionTestUtils.setField(writer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(writer, "bufferCapacity", 8);
+        ReflectionTestUtils.setField(writer, "batchSize", 4);
+        lenient().when(logRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ElevatorLog> batch = invocation.getArgument(0);
+            batches.add(batch.size());
+            return batch;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    public void testFullBatch_WrittenWithoutWaitingForInterval() throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", TimeUnit.MINUTES.toMillis(10));
+        writer.start();
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.log(stopped(1L, i)));
+        }
+
+        awaitWritten(4);
+        assertEquals(List.of(4), batches);
+    }
+
+    @Test
+    public void testPartialBatch_WrittenAfterInterval() throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 50L);
+        writer.start();
+
+        writer.log(stopped(1L, 3));
+
+        awaitWritten(1);
+        assertEquals(List.of(1), batches);
+    }
+
+    @Test
+    public void testStop_WritesWhatIsStillBuffered() throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", TimeUnit.MINUTES.toMillis(10));
+        writer.start();
+        writer.log(stopped(1L, 1));
+        writer.log(stopped(2L, 1));
+
+        writer.stop();
+
+        assertEquals(2.0, meterRegistry.counter("elevator.log.written").count());
+        assertEquals(0, writer.getBufferDepth());
+    }
+
+    @Test
+    public void testDropPolicy_DiscardsWhenFull() throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", TimeUnit.MINUTES.toMillis(10));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch databaseBack = new CountDownLatch(1);
+        when(logRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            databaseBack.await(); // A slow database: nothing leaves the buffer meanwhile
+            return invocation.getArgument(0);
+        });
+        writer.start();
+        for (int i = 0; i < 4; i++) {
+            writer.log(stopped(1L, i));
+        }
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (writer.log(stopped(1L, i))) {
+                accepted++;
+            }
+        }
+        databaseBack.countDown();
+
+        assertEquals(8, accepted);
+        assertEquals(2.0, meterRegistry.counter("elevator.log.dropped").count());
+        awaitWritten(12);
+    }
+
+    @Test
+    public void testBlockPolicy_WaitsForRoomInsteadOfDropping() throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(writer, "overflowPolicy", LogOverflowPolicy.BLOCK);
+        writer.start();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(writer.log(stopped(1L, i)));
+        }
+
+        awaitWritten(100);
+        assertEquals(0.0, meterRegistry.counter("elevator.log.dropped").count());
+        assertTrue(batches.stream().allMatch(size -> size <= 4));
+    }
+
+    @Test
+    public void testFailedBatch_CountedAndWriterKeepsGoing() throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+        when(logRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        writer.start();
+
+        writer.log(stopped(1L, 1));
+        awaitCount("elevator.log.write.failures", 1);
+        writer.log(stopped(1L, 2));
+
+        awaitWritten(1);
+    }
+
+    @Test
+    public void testJournalBackend_AppendsOnCallingThreadWithoutDatabase(@TempDir Path dir) throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "backend", LogBackend.JOURNAL);
+        ReflectionTestUtils.setField(writer, "journalDir", dir.toString());
+        ReflectionTestUtils.setField(writer, "journalSegmentRecords", 16);
+        writer.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(writer.log(stopped(1L, i)));
+        }
+
+        assertEquals(20, writer.getJournal().size());
+        assertEquals(20.0, meterRegistry.counter("elevator.log.written").count());
+        assertEquals(19, writer.getJournal().read(19).getFloor());
+        writer.stop();
+        verifyNoInteractions(logRepository);
+    }
+
+    private static ElevatorEvent stopped(Long elevatorId, int floor) {
+        return ElevatorEvent.atFloor(ElevatorEventType.STOPPED, elevatorId, floor);
+    }
+
+    private void awaitWritten(int entries) throws InterruptedException {
+        awaitCount("elevator.log.written", entries);
+    }
+
+    private void awaitCount(String counter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter(counter).count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, meterRegistry.counter(counter).count());
+    }
+}
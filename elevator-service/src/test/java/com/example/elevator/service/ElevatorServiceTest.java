@@ -1,5 +1,6 @@
 package com.example.elevator.service;
 
+import com.example.elevator.exception.NotLeaderException;
 import com.example.elevator.model.*;
 import com.example.elevator.repository.ElevatorLogRepository;
 import com.example.elevator.repository.ElevatorRepository;
@@ -7,20 +8,29 @@ import com.example.elevator.repository.ElevatorRequestRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +45,30 @@ public class ElevatorServiceTest {
     @Mock
     private ElevatorLogRepository logRepository;
 
+    @Mock
+    private ElevatorLogWriter logWriter;
+
+    @Mock
+    private WebSocketUpdateService webSocketUpdateService;
+
+    @Mock
+    private FleetStateService fleetStateService;
+
+    @Mock
+    private FleetStatusView fleetStatusView;
+
+    @Mock
+    private AssignmentPipeline assignmentPipeline;
+
+    @Mock
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Spy
+    private DispatchLocks dispatchLocks = new DispatchLocks();
+
+    @Spy
+    private LeaderElection leaderElection = new LeaderElection(); // A single node, always leading
+
     @InjectMocks
     private ElevatorService elevatorService;
 
@@ -48,6 +82,7 @@ public class ElevatorServiceTest {
         elevator.setStatus(ElevatorStatus.IDLE);
         elevator.setDirection(Direction.STOPPED);
         elevator.setOperational(true);
+        lenient().when(fleetStatusView.getSnapshot()).thenReturn(FleetStatusView.Snapshot.EMPTY);
     }
 
     @Test
@@ -67,53 +102,60 @@ public class ElevatorServiceTest {
 
     @Test
     void testMoveElevator_Up() {
-        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator));
-        when(elevatorRepository.save(any(Elevator.class))).thenReturn(elevator);
+        givenStoreHolds(elevator);
 
-        elevatorService.moveElevator(1L, 5);
+        Elevator moved = elevatorService.moveElevator(1L, 5);
 
-        assertEquals(5, elevator.getCurrentFloor());
-        assertEquals(ElevatorStatus.IDLE, elevator.getStatus()); // Resets to IDLE after move
-        assertEquals(Direction.STOPPED, elevator.getDirection());
-        verify(logRepository, times(1)).save(any(ElevatorLog.class));
+        assertEquals(5, moved.getCurrentFloor());
+        assertEquals(ElevatorStatus.IDLE, moved.getStatus()); // Resets to IDLE after move
+        assertEquals(Direction.STOPPED, moved.getDirection());
+        verify(logWriter, times(1)).log(any(ElevatorEvent.class));
     }
 
     @Test
     void testMoveElevator_Down() {
         elevator.setCurrentFloor(10);
-        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator));
-        when(elevatorRepository.save(any(Elevator.class))).thenReturn(elevator);
+        givenStoreHolds(elevator);
 
-        elevatorService.moveElevator(1L, 2);
+        Elevator moved = elevatorService.moveElevator(1L, 2);
 
-        assertEquals(2, elevator.getCurrentFloor());
-        verify(logRepository, times(1)).save(any(ElevatorLog.class));
+        assertEquals(2, moved.getCurrentFloor());
+        verify(logWriter, times(1)).log(any(ElevatorEvent.class));
+    }
+
+    @Test
+    void testMoveElevator_SkippedIfTakenOutOfServiceMeanwhile() {
+        when(fleetStateService.get(1L)).thenReturn(Optional.of(ElevatorState.from(elevator)));
+        // By the time the move is applied the car has been marked down
+        elevator.setOperational(false);
+        when(fleetStateService.transition(eq(1L), any())).thenAnswer(transitionOf(elevator));
+
+        assertNull(elevatorService.moveElevator(1L, 5));
+        verify(fleetStateService, never()).save(any(ElevatorState.class));
     }
 
     @Test
     void testReportFault() {
-        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator));
-        when(elevatorRepository.save(any(Elevator.class))).thenReturn(elevator);
+        givenStoreHolds(elevator);
 
         Elevator result = elevatorService.reportFault(1L);
 
         assertFalse(result.isOperational());
         assertEquals(ElevatorStatus.OUT_OF_SERVICE, result.getStatus());
-        verify(logRepository, times(1)).save(any(ElevatorLog.class));
+        verify(logWriter, times(1)).log(any(ElevatorEvent.class));
     }
 
     @Test
     void testRepairElevator() {
         elevator.setOperational(false);
         elevator.setStatus(ElevatorStatus.OUT_OF_SERVICE);
-        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator));
-        when(elevatorRepository.save(any(Elevator.class))).thenReturn(elevator);
+        givenStoreHolds(elevator);
 
         Elevator result = elevatorService.repairElevator(1L);
 
         assertTrue(result.isOperational());
         assertEquals(ElevatorStatus.IDLE, result.getStatus());
-        verify(logRepository, times(1)).save(any(ElevatorLog.class));
+        verify(logWriter, times(1)).log(any(ElevatorEvent.class));
     }
 
     @Test
@@ -124,14 +166,147 @@ public class ElevatorServiceTest {
         request.setDestinationFloor(8);
 
         when(requestRepository.findById(100L)).thenReturn(Optional.of(request));
-        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator));
+        when(fleetStateService.get(1L)).thenReturn(Optional.of(ElevatorState.from(elevator)));
+        // Run the asynchronous persist stage inline
+        runPersistInline(100L);
+        when(requestRepository.assign(eq(100L), eq(1L), any(), anyInt(), anyInt(), eq(1L), eq(true))).thenReturn(1);
 
         ElevatorRequest result = elevatorService.manualAssign(100L, 1L);
 
         assertNotNull(result);
         assertEquals(RequestStatus.ASSIGNED, result.getStatus());
         assertEquals(1L, result.getAssignedElevatorId());
-        verify(logRepository, times(3)).save(any(ElevatorLog.class)); // manualAssign + 2 moves
+        verify(fleetStateService).addRequestStops(1L, 2, 8); // Served by the movement engine, not inline
+        verify(logWriter, times(2)).log(any(ElevatorEvent.class)); // manualAssign + assignment
+        verify(requestRepository).assign(eq(100L), eq(1L), any(), anyInt(), anyInt(), eq(1L), eq(true));
+        verify(webSocketUpdateService).sendRequestUpdate(request);
+        verify(pendingRequestQueue).remove(100L);
+    }
+
+    @Test
+    void testAssignRequest_QueuesDropOffsOfRidersWhoJoinedTheHallCall() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(102L);
+        request.setSourceFloor(0);
+        request.setDestinationFloor(9);
+        request.setRiderCount(3);
+        request.getAdditionalDestinations().add(4);
+        request.getAdditionalDestinations().add(6);
+
+        elevatorService.assignRequestToElevator(ElevatorState.from(elevator), request);
+
+        verify(fleetStateService).addRequestStops(1L, 0, 9);
+        verify(fleetStateService).addStop(1L, 4, Direction.UP);
+        verify(fleetStateService).addStop(1L, 6, Direction.UP);
+        assertEquals(RequestStatus.ASSIGNED, request.getStatus());
+    }
+
+    @Test
+    void testAssignRequest_RequeuesWhenAssignmentCannotBePersisted() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(101L);
+        request.setSourceFloor(3);
+        request.setDestinationFloor(0);
+
+        when(requestRepository.assign(eq(101L), eq(1L), any(), anyInt(), anyInt(), anyLong(), eq(false)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        runPersistInline(101L);
+
+        assertThrows(IllegalStateException.class, () -> elevatorService.assignRequestToElevator(ElevatorState.from(elevator), request));
+
+        assertEquals(RequestStatus.PENDING, request.getStatus());
+        assertNull(request.getAssignedElevatorId());
+        // The car no longer stops for a trip it was never given
+        InOrder route = inOrder(fleetStateService);
+        route.verify(fleetStateService).addRequestStops(1L, 3, 0);
+        route.verify(fleetStateService).removeRequestStops(1L, 3, 0);
+        verify(pendingRequestQueue).add(request);
+        verify(webSocketUpdateService, never()).sendRequestUpdate(any());
+    }
+
+    @Test
+    void testAssignRequest_UnwrittenAssignmentGoesBackToTheDispatcher() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(102L);
+        request.setSourceFloor(3);
+        request.setDestinationFloor(0);
+        request.getAdditionalDestinations().add(1);
+        List<ElevatorRequest> requeued = new ArrayList<>();
+        elevatorService.addRequeueListener(requeued::add);
+
+        when(requestRepository.assign(eq(102L), eq(1L), any(), anyInt(), anyInt(), anyLong(), eq(false)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        runPersistInline(102L);
+
+        assertThrows(IllegalStateException.class, () -> elevatorService.assignRequestToElevator(ElevatorState.from(elevator), request));
+
+        assertEquals(Collections.singletonList(request), requeued);
+        verify(fleetStateService).removeStop(1L, 1, Direction.DOWN);
+        verify(pendingRequestQueue, never()).add(request);
+    }
+
+    @Test
+    void testAssignRequest_SupersededAssignmentIsNotRequeued() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(103L);
+        request.setSourceFloor(3);
+        request.setDestinationFloor(0);
+
+        // A leader with a later fencing token has written the request already
+        when(requestRepository.assign(eq(103L), eq(1L), any(), anyInt(), anyInt(), anyLong(), eq(false))).thenReturn(0);
+        runPersistInline(103L);
+
+        elevatorService.assignRequestToElevator(ElevatorState.from(elevator), request);
+
+        assertEquals(1L, request.getFencingToken());
+        verify(fleetStateService).removeRequestStops(1L, 3, 0);
+        verify(pendingRequestQueue, never()).add(request);
+        verify(webSocketUpdateService, never()).sendRequestUpdate(any());
+    }
+
+    @Test
+    void testMoveElevator_RejectedOnStandby() {
+        doReturn(false).when(leaderElection).isLeader();
+
+        assertThrows(NotLeaderException.class, () -> elevatorService.moveElevator(1L, 5));
+
+        verify(fleetStateService, never()).transition(anyLong(), any());
+    }
+
+    @Test
+    void testManualAssign_TakesStopsOffThePreviousCar() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(100L);
+        request.setSourceFloor(2);
+        request.setDestinationFloor(8);
+        request.setStatus(RequestStatus.ASSIGNED);
+        request.setAssignedElevatorId(2L);
+
+        when(requestRepository.findById(100L)).thenReturn(Optional.of(request));
+        when(fleetStateService.get(1L)).thenReturn(Optional.of(ElevatorState.from(elevator)));
+
+        elevatorService.manualAssign(100L, 1L);
+
+        InOrder order = inOrder(fleetStateService);
+        order.verify(fleetStateService).removeRequestStops(2L, 2, 8);
+        order.verify(fleetStateService).addRequestStops(1L, 2, 8);
+        assertEquals(1L, request.getAssignedElevatorId());
+    }
+
+    @Test
+    void testManualAssign_PendingRequestUsesTheDispatchersCopy() {
+        ElevatorRequest queued = new ElevatorRequest();
+        queued.setId(100L);
+        queued.setSourceFloor(2);
+        queued.setDestinationFloor(8);
+
+        when(pendingRequestQueue.get(100L)).thenReturn(Optional.of(queued));
+        when(fleetStateService.get(1L)).thenReturn(Optional.of(ElevatorState.from(elevator)));
+
+        assertSame(queued, elevatorService.manualAssign(100L, 1L));
+        assertEquals(RequestStatus.ASSIGNED, queued.getStatus());
+        verify(requestRepository, never()).findById(any());
+        verify(fleetStateService, never()).removeRequestStops(any(), anyInt(), anyInt());
     }
 
     @Test
@@ -149,15 +324,64 @@ public class ElevatorServiceTest {
 
         when(logRepository.findAll(pageable)).thenReturn(pagedLogs);
 
-        Page<ElevatorLog> result = elevatorService.getLogs(pageable);
+        Page<ElevatorLog> result = elevatorService.getLogs(null, null, pageable);
         assertEquals(1, result.getTotalElements());
         assertEquals("Test log", result.getContent().get(0).getMessage());
     }
+
+    @Test
+    void testGetRequestHistory_OpenEndedRangeStaysBounded() {
+        Pageable pageable = PageRequest.of(0, 10);
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        elevatorService.getRequestHistory(from, null, pageable);
+
+        // Both bounds reach the database, so PostgreSQL can prune partitions before the range
+        verify(requestRepository).findByRequestTimeGreaterThanEqualAndRequestTimeLessThan(eq(from), argThat(to -> to.getYear() == 9999), eq(pageable));
+        verify(requestRepository, never()).findAll(pageable);
+    }
     
+    @Test
+    void testGetLogSlice_ContinuesAfterCursor() {
+        LocalDateTime last = LocalDateTime.of(2025, 6, 1, 8, 0, 30);
+        String cursor = new ScrollCursor(last, 77L).encode();
+
+        elevatorService.getLogSlice(3L, null, LocalDateTime.of(2025, 7, 1, 0, 0), cursor, 20);
+
+        // The cursor, not the upper bound, decides where the next slice starts
+        verify(logRepository).findSliceBefore(eq(3L), argThat(from -> from.getYear() == 1970), eq(last), eq(77L),
+                eq(PageRequest.ofSize(20)));
+    }
+
     @Test
     void testOptimizeRoutes_NoPendingRequests() {
-        when(requestRepository.findByStatus(RequestStatus.PENDING)).thenReturn(Collections.emptyList());
+        when(pendingRequestQueue.getBanks()).thenReturn(Collections.emptySet());
         String result = elevatorService.optimizeRoutes();
         assertEquals("No pending requests to optimize.", result);
     }
-}
\ No newline at end of file
+
+    // Runs the asynchronous persist stage on the calling thread, failure handling included
+    private void runPersistInline(Long requestId) {
+        doAnswer(invocation -> {
+            try {
+                invocation.getArgument(2, Runnable.class).run();
+            } catch (RuntimeException e) {
+                invocation.getArgument(3, Runnable.class).run();
+                throw e;
+            }
+            return null;
+        }).when(assignmentPipeline).submit(anyString(), eq(requestId), any(Runnable.class), any(Runnable.class));
+    }
+
+    // The fleet store holds the elevator; transitions apply to it and saving returns the entity written
+    private void givenStoreHolds(Elevator elevator) {
+        when(fleetStateService.get(1L)).thenReturn(Optional.of(ElevatorState.from(elevator)));
+        when(fleetStateService.transition(eq(1L), any())).thenAnswer(transitionOf(elevator));
+        when(fleetStateService.save(any(ElevatorState.class)))
+                .thenAnswer(invocation -> invocation.<ElevatorState>getArgument(0).toEntity());
+    }
+
+    private static Answer<Optional<ElevatorState>> transitionOf(Elevator elevator) {
+        return invocation -> Optional.ofNullable(
+                invocation.<UnaryOperator<ElevatorState>>getArgument(1).apply(ElevatorState.from(elevator)));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.elevator.service;
+
+import com.example.elevator.dto.RequestEtaDTO;
+import com.example.elevator.exception.ResourceNotFoundException;
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EtaServiceTest {
+
+    @Mock
+    private MovementEngine movementEngine;
+
+    @Mock
+    private SchedulerService schedulerService;
+
+    @Mock
+    private ElevatorRequestRepository requestRepository;
+
+    private FleetStateService fleetStateService;
+
+    private PendingRequestQueue pendingRequestQueue;
+
+    private EtaService etaService;
+
+    @BeforeEach
+    void setUp() {
+        fleetStateService = new FleetStateService();
+        pendingRequestQueue = new PendingRequestQueue();
+        etaService = new EtaService();
+        ReflectionTestUtils.setField(etaService, "pendingRequestQueue", pendingRequestQueue);
+        ReflectionTestUtils.setField(etaService, "fleetStateService", fleetStateService);
+        ReflectionTestUtils.setField(etaService, "movementEngine", movementEngine);
+        ReflectionTestUtils.setField(etaService, "schedulerService", schedulerService);
+        ReflectionTestUtils.setField(etaService, "requestRepository", requestRepository);
+        ReflectionTestUtils.setField(etaService, "clock", Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+        etaService.start();
+
+        lenient().when(movementEngine.getFloorTravelMs()).thenReturn(1000L);
+        lenient().when(movementEngine.getDoorDwellMs()).thenReturn(2000L);
+    }
+
+    @Test
+    public void testAssignedRequest_TimedAlongQueuedStops() {
+        fleetStateService.put(car(1L, 0));
+        fleetStateService.addRequestStops(1L, 2, 6); // someone else's trip
+        fleetStateService.addRequestStops(1L, 4, 8);
+
+        RequestEtaDTO eta = etaService.estimate(assigned(10L, 1L, 4, 8));
+
+        // 0 -> 2 (2s) + dwell, -> 4 (2s) pickup at 6s; + dwell, -> 6 (2s) + dwell, -> 8 (2s) drop-off at 14s
+        assertEquals(RequestEtaDTO.Basis.ROUTE, eta.getBasis());
+        assertEquals(6L, eta.getPickupInSeconds());
+        assertEquals(14L, eta.getDropoffInSeconds());
+        assertEquals(1L, eta.getElevatorId());
+    }
+
+    @Test
+    public void testAssignedRequest_RiderOnBoardHasOnlyDropoff() {
+        fleetStateService.put(car(1L, 5).withStatus(ElevatorStatus.MOVING_UP));
+        fleetStateService.addStop(1L, 9, Direction.UP);
+
+        RequestEtaDTO eta = etaService.estimate(assigned(10L, 1L, 3, 9));
+
+        assertNull(eta.getPickupTime());
+        assertEquals(4L, eta.getDropoffInSeconds());
+    }
+
+    @Test
+    public void testTimetable_ReusedUntilCarChanges() {
+        fleetStateService.put(car(1L, 0));
+        fleetStateService.addRequestStops(1L, 3, 7);
+
+        EtaService.CarPlan first = etaService.plan(1L);
+        assertSame(first, etaService.plan(1L));
+
+        fleetStateService.put(car(1L, 1).withStatus(ElevatorStatus.MOVING_UP));
+        EtaService.CarPlan moved = etaService.plan(1L);
+
+        assertNotSame(first, moved);
+        assertEquals(2000L, moved.offsetMs[0]); // one floor closer to floor 3
+    }
+
+    @Test
+    public void testPendingRequest_EstimatedFromDispatchCost() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(11L);
+        request.setSourceFloor(3);
+        request.setDestinationFloor(0);
+        ElevatorState best = car(2L, 7);
+        when(schedulerService.findNearbyBestElevator(request)).thenReturn(best);
+        when(schedulerService.calculateCost(best, request)).thenReturn(4);
+
+        RequestEtaDTO eta = etaService.estimate(request);
+
+        assertEquals(RequestEtaDTO.Basis.DISPATCH_COST, eta.getBasis());
+        assertEquals(2L, eta.getElevatorId());
+        assertEquals(4L, eta.getPickupInSeconds());
+        assertEquals(9L, eta.getDropoffInSeconds()); // + 2s dwell + 3 floors
+    }
+
+    @Test
+    public void testOutOfServiceCar_Unavailable() {
+        fleetStateService.put(car(1L, 0).withOperational(false));
+        fleetStateService.addRequestStops(1L, 2, 5);
+
+        RequestEtaDTO eta = etaService.estimate(assigned(10L, 1L, 2, 5));
+
+        assertEquals(RequestEtaDTO.Basis.UNAVAILABLE, eta.getBasis());
+        assertNull(eta.getPickupTime());
+    }
+
+    @Test
+    public void testGetEtas_KeepsRequestedOrderAndSkipsUnknownIds() {
+        fleetStateService.put(car(1L, 0));
+        fleetStateService.addRequestStops(1L, 1, 2);
+        ElevatorRequest a = assigned(10L, 1L, 1, 2);
+        ElevatorRequest b = assigned(11L, 1L, 2, 1);
+        List<Long> ids = Arrays.asList(11L, 99L, 10L);
+        when(requestRepository.findAllById(ids)).thenReturn(Arrays.asList(a, b));
+
+        List<RequestEtaDTO> etas = etaService.getEtas(ids);
+
+        assertEquals(2, etas.size());
+        assertEquals(11L, etas.get(0).getRequestId());
+        assertEquals(10L, etas.get(1).getRequestId());
+    }
+
+    @Test
+    public void testGetEtas_QueuedAndCarriedRequestsServedWithoutTheDatabase() {
+        fleetStateService.put(car(1L, 0));
+        fleetStateService.addRequestStops(1L, 1, 2);
+        ElevatorRequest carried = assigned(10L, 1L, 1, 2);
+        fleetStateService.addTrip(1L, carried);
+        ElevatorRequest waiting = assigned(11L, null, 3, 5);
+        waiting.setStatus(RequestStatus.PENDING);
+        pendingRequestQueue.add(waiting);
+        ElevatorRequest finished = assigned(12L, 1L, 4, 0);
+        when(requestRepository.findAllById(Arrays.asList(12L))).thenReturn(Arrays.asList(finished));
+
+        List<RequestEtaDTO> etas = etaService.getEtas(Arrays.asList(10L, 11L, 12L));
+
+        assertEquals(3, etas.size());
+        assertEquals(RequestEtaDTO.Basis.ROUTE, etas.get(0).getBasis());
+        assertEquals(RequestStatus.PENDING, etas.get(1).getStatus());
+        assertEquals(12L, etas.get(2).getRequestId());
+        verify(requestRepository).findAllById(Arrays.asList(12L)); // only the id nothing in memory knows
+        verifyNoMoreInteractions(requestRepository);
+    }
+
+    @Test
+    public void testGetEta_CarriedRequestNotReadFromTheDatabase() {
+        fleetStateService.put(car(1L, 0));
+        fleetStateService.addRequestStops(1L, 2, 4);
+        fleetStateService.addTrip(1L, assigned(10L, 1L, 2, 4));
+
+        RequestEtaDTO eta = etaService.getEta(10L);
+
+        assertEquals(2L, eta.getPickupInSeconds());
+        verifyNoInteractions(requestRepository);
+    }
+
+    @Test
+    public void testGetEta_JoinedRiderTimedToTheirOwnDropOff() {
+        fleetStateService.put(car(1L, 0));
+        fleetStateService.addRequestStops(1L, 2, 8);
+        fleetStateService.addStop(1L, 5, Direction.UP);
+        ElevatorRequest call = assigned(10L, 1L, 2, 8);
+        call.getAdditionalDestinations().add(5);
+        fleetStateService.addTrip(1L, call);
+
+        RequestEtaDTO eta = etaService.getEta(10L, 5);
+
+        // 0 -> 2 (2s) pickup; + dwell, -> 5 (3s) drop-off at 7s
+        assertEquals(5, eta.getDestinationFloor());
+        assertEquals(2L, eta.getPickupInSeconds());
+        assertEquals(7L, eta.getDropoffInSeconds());
+        assertEquals(12L, etaService.getEta(10L).getDropoffInSeconds()); // + dwell, -> 8 (3s)
+        assertThrows(ResourceNotFoundException.class, () -> etaService.getEta(10L, 6));
+    }
+
+    private static ElevatorState car(Long id, int floor) {
+        return ElevatorState.builder()
+                .id(id)
+                .currentFloor(floor)
+                .status(ElevatorStatus.IDLE)
+                .direction(Direction.STOPPED)
+                .capacity(10)
+                .operational(true)
+                .build();
+    }
+
+    private static ElevatorRequest assigned(Long id, Long elevatorId, int source, int destination) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(id);
+        request.setSourceFloor(source);
+        request.setDestinationFloor(destination);
+        request.setStatus(RequestStatus.ASSIGNED);
+        request.setAssignedElevatorId(elevatorId);
+        return request;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorEventType;
+import com.example.elevator.model.ElevatorLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testAppendAndRead_RoundTripsEveryField() {
+        try (EventJournal journal = new EventJournal(dir, 16)) {
+            ElevatorEvent event = ElevatorEvent.forRequest(ElevatorEventType.ASSIGNMENT_FAILED, 3L, 42L)
+                    .withFloor(-2)
+                    .withValue(Long.MAX_VALUE);
+
+            long position = journal.append(event);
+
+            assertEquals(0, position);
+            assertEquals(event, journal.read(position));
+            assertNull(journal.read(1), "not written yet");
+        }
+    }
+
+    @Test
+    public void testAppend_RollsOverToNewSegments() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i));
+            }
+
+            assertEquals(10, journal.size());
+            assertEquals(9, journal.read(9).getFloor());
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(3, files.count());
+        }
+        assertTrue(Files.exists(dir.resolve("00000000000000000004.journal")));
+    }
+
+    @Test
+    public void testReopen_ContinuesAfterLastWrittenRecord() {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 6; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.MOVING, 1L, i));
+            }
+        }
+
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            assertEquals(6, journal.getNextPosition());
+            assertEquals(5, journal.read(5).getFloor());
+            assertEquals(6, journal.append(ElevatorEvent.atFloor(ElevatorEventType.MOVING, 1L, 6)));
+        }
+    }
+
+    @Test
+    public void testReader_SkipsHoleLeftByCrash() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, 8)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i));
+            }
+        }
+        // A writer claimed position 1 but died before publishing it
+        try (FileChannel channel = FileChannel.open(dir.resolve("00000000000000000000.journal"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 0),
+                    EventJournal.RECORD_SIZE + 36);
+        }
+
+        try (EventJournal journal = new EventJournal(dir, 8)) {
+            EventJournal.Reader reader = journal.reader(0);
+            assertEquals(0, reader.next().getFloor());
+            assertEquals(2, reader.next().getFloor());
+            assertNull(reader.next());
+
+            journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, 3));
+            assertEquals(3, reader.next().getFloor(), "follows the journal as it grows");
+        }
+    }
+
+    @Test
+    public void testPage_NewestFirstWhenSortedDescending() {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 2L, i));
+            }
+
+            Page<ElevatorLog> page = journal.page(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "timestamp")));
+
+            assertEquals(5, page.getTotalElements());
+            assertEquals(3, page.getTotalPages());
+            assertEquals("Stopped at floor 4", page.getContent().get(0).getMessage());
+            assertEquals(5L, page.getContent().get(0).getId());
+            assertEquals(2L, page.getContent().get(1).getElevatorId());
+
+            Page<ElevatorLog> last = journal.page(PageRequest.of(2, 2));
+            assertEquals(1, last.getNumberOfElements());
+            assertEquals("Stopped at floor 4", last.getContent().get(0).getMessage());
+        }
+    }
+
+    @Test
+    public void testPageByTime_FindsRangeByBinarySearch() {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i).withTimestamp(1_000L * i));
+            }
+
+            Page<ElevatorLog> page = journal.page(3_000L, 6_500L, PageRequest.of(0, 10));
+
+            assertEquals(4, page.getTotalElements());
+            assertEquals("Stopped at floor 3", page.getContent().get(0).getMessage());
+            assertEquals("Stopped at floor 6", page.getContent().get(3).getMessage());
+            assertEquals(0, journal.page(20_000L, 30_000L, PageRequest.of(0, 10)).getTotalElements());
+        }
+    }
+
+    @Test
+    public void testPageByTime_FindsEventPastOneStampedBeforeItsSlot() {
+        // Position 4 was stamped at 2.9s but claimed its slot after 3's writer, stamped at 3s
+        long[] stamps = {1_000, 2_000, 2_500, 3_000, 2_900, 3_100, 3_200, 3_300};
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < stamps.length; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i).withTimestamp(stamps[i]));
+            }
+
+            assertEquals(3, journal.positionAt(2_950, journal.getNextPosition()));
+            Page<ElevatorLog> page = journal.page(2_950L, 10_000L, PageRequest.of(0, 10));
+            assertEquals("Stopped at floor 3", page.getContent().get(0).getMessage());
+            assertEquals(5, page.getTotalElements());
+        }
+    }
+
+    @Test
+    public void testSliceBefore_PagesBackwardsForOneElevator() {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, i % 2 == 0 ? 1L : 2L, i));
+            }
+
+            Slice<ElevatorLog> first = journal.sliceBefore(Long.MAX_VALUE, Long.MIN_VALUE, 1L, 3);
+            assertEquals(List.of("Stopped at floor 8", "Stopped at floor 6", "Stopped at floor 4"),
+                    first.map(ElevatorLog::getMessage).getContent());
+            assertTrue(first.hasNext());
+
+            // The id of the last entry is its position plus one
+            Slice<ElevatorLog> second = journal.sliceBefore(first.getContent().get(2).getId() - 1, Long.MIN_VALUE, 1L, 3);
+            assertEquals(List.of("Stopped at floor 2", "Stopped at floor 0"), second.map(ElevatorLog::getMessage).getContent());
+            assertFalse(second.hasNext());
+        }
+    }
+
+    @Test
+    public void testRemoveBefore_DeletesExpiredSegmentsOnly() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i).withTimestamp(10_000L * i));
+            }
+            EventJournal.Reader lagging = journal.reader(0);
+
+            // Positions 0-3 are all older; 4-7 hold the first event to keep, at 50s
+            assertEquals(1, journal.removeBefore(45_000L));
+
+            assertEquals(4, journal.getFirstPosition());
+            assertEquals(6, journal.size());
+            assertNull(journal.read(3));
+            assertEquals(4, journal.read(4).getFloor());
+            assertEquals(4, lagging.next().getFloor(), "a reader behind the removed segments resumes at the first kept");
+            assertEquals(0, journal.removeBefore(45_000L));
+        }
+        assertFalse(Files.exists(dir.resolve("00000000000000000000.journal")));
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            assertEquals(4, journal.getFirstPosition());
+            assertEquals(10, journal.getNextPosition());
+        }
+    }
+
+    @Test
+    public void testRemoveBefore_KeepsSegmentBeingWritten() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 6; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i).withTimestamp(i));
+            }
+
+            assertEquals(1, journal.removeBefore(Long.MAX_VALUE));
+
+            assertEquals(4, journal.getFirstPosition());
+            assertEquals(6, journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, 6)));
+            assertEquals(6, journal.read(6).getFloor());
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testRead_DoesNotRecreateDeletedSegment() throws IOException {
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            for (int i = 0; i < 6; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i));
+            }
+        }
+        Path first = dir.resolve("00000000000000000000.journal");
+        try (EventJournal journal = new EventJournal(dir, 4)) {
+            Files.delete(first); // Removed by hand while the journal was open
+
+            assertNull(journal.read(1));
+            assertEquals(4, journal.reader(0).next().getFloor(), "the missing segment reads as a gap");
+            assertEquals(5, journal.read(5).getFloor());
+        }
+        assertFalse(Files.exists(first));
+    }
+
+    @Test
+    public void testRead_KeepsFewSegmentsMapped() {
+        try (EventJournal journal = new EventJournal(dir, 2)) {
+            for (int i = 0; i < 40; i++) {
+                journal.append(ElevatorEvent.atFloor(ElevatorEventType.STOPPED, 1L, i));
+            }
+            for (int i = 0; i < 40; i++) {
+                assertEquals(i, journal.read(i).getFloor());
+            }
+
+            Map<?, ?> mapped = (Map<?, ?>) ReflectionTestUtils.getField(journal, "mapped");
+            assertTrue(mapped.size() <= 4, "20 segments written and read, " + mapped.size() + " still mapped");
+        }
+    }
+
+    @Test
+    public void testConcurrentAppends_EachGetsItsOwnSlot() throws Exception {
+        int writers = 4;
+        int perWriter = 2_000;
+        try (EventJournal journal = new EventJournal(dir, 1_000)) {
+            ExecutorService pool = Executors.newFixedThreadPool(writers);
+            CountDownLatch start = new CountDownLatch(1);
+            for (int w = 0; w < writers; w++) {
+                long elevatorId = w + 1;
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perWriter; i++) {
+                        journal.append(ElevatorEvent.atFloor(ElevatorEventType.MOVING, elevatorId, i));
+                    }
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+            Set<String> seen = new HashSet<>();
+            EventJournal.Reader reader = journal.reader(0);
+            for (ElevatorEvent event = reader.next(); event != null; event = reader.next()) {
+                assertTrue(seen.add(event.getElevatorId() + "/" + event.getFloor()));
+            }
+            assertEquals(writers * perWriter, seen.size());
+        }
+    }
+
+    @Test
+    public void testSegmentSize_MustFitOneMapping() {
+        assertThrows(IllegalArgumentException.class, () -> new EventJournal(dir, 0));
+        assertThrows(IllegalArgumentException.class, () -> new EventJournal(dir, Integer.MAX_VALUE / 8));
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.repository.ElevatorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FleetStateServiceTest {
+
+    @Mock
+    private ElevatorRepository elevatorRepository;
+
+    private FleetStateService fleetStateService;
+
+    @BeforeEach
+    void setUp() {
+        fleetStateService = new FleetStateService();
+        ReflectionTestUtils.setField(fleetStateService, "elevatorRepository", elevatorRepository);
+        fleetStateService.update(elevator(1L, 3L));
+    }
+
+    @Test
+    public void testCompareAndSet_FailsOnceAnotherWriterGotIn() {
+        ElevatorState read = fleetStateService.get(1L).orElseThrow();
+        ElevatorState other = fleetStateService.get(1L).orElseThrow();
+
+        assertTrue(fleetStateService.compareAndSet(read, read.withEcoMode(true)));
+        assertFalse(fleetStateService.compareAndSet(other, other.withOperational(false)), "based on an older version");
+
+        ElevatorState stored = fleetStateService.get(1L).orElseThrow();
+        assertTrue(stored.isEcoMode());
+        assertTrue(stored.isOperational());
+        assertEquals(read.getVersion() + 1, stored.getVersion());
+    }
+
+    @Test
+    public void testTransition_ConcurrentWritersLoseNoUpdates() throws Exception {
+        int writers = 4;
+        int perWriter = 1_000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int w = 0; w < writers; w++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perWriter; i++) {
+                    fleetStateService.transition(1L, current -> current.withCurrentLoad(current.getCurrentLoad() + 1));
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        ElevatorState stored = fleetStateService.get(1L).orElseThrow();
+        assertEquals(writers * perWriter, stored.getCurrentLoad());
+        assertEquals(1 + writers * perWriter, stored.getVersion());
+    }
+
+    @Test
+    public void testTransition_NotAppliedWhenFunctionDeclines() {
+        long version = fleetStateService.get(1L).orElseThrow().getVersion();
+
+        assertFalse(fleetStateService.transition(1L, current -> null).isPresent());
+        assertFalse(fleetStateService.transition(1L, current -> current.withEcoMode(false)).isPresent(), "unchanged");
+        assertFalse(fleetStateService.transition(2L, current -> current.withEcoMode(true)).isPresent(), "unknown car");
+        assertEquals(version, fleetStateService.get(1L).orElseThrow().getVersion());
+    }
+
+    @Test
+    public void testSave_ConflictWritesLatestSnapshotAgainstCurrentRow() {
+        ElevatorState read = fleetStateService.get(1L).orElseThrow();
+        fleetStateService.transition(1L, current -> current.withStatus(ElevatorStatus.OUT_OF_SERVICE).withOperational(false));
+        when(elevatorRepository.save(any(Elevator.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Elevator.class, 1L))
+                .thenAnswer(invocation -> {
+                    Elevator saved = ElevatorState.from(invocation.getArgument(0)).toEntity();
+                    saved.setVersion(saved.getVersion() + 1);
+                    return saved;
+                });
+        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator(1L, 5L)));
+
+        Elevator saved = fleetStateService.save(read);
+
+        ArgumentCaptor<Elevator> written = ArgumentCaptor.forClass(Elevator.class);
+        verify(elevatorRepository, times(2)).save(written.capture());
+        assertEquals(ElevatorStatus.OUT_OF_SERVICE, saved.getStatus());
+        assertEquals(5L, written.getAllValues().get(1).getVersion());
+        assertEquals(6L, fleetStateService.get(1L).orElseThrow().getRowVersion());
+    }
+
+    @Test
+    public void testTrip_EndsOnceTheCarHasServedAllItsStops() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(10L);
+        fleetStateService.addRequestStops(1L, 2, 4);
+        fleetStateService.addTrip(1L, request);
+
+        fleetStateService.arriveAt(1L, 2, Direction.UP);
+        assertSame(request, fleetStateService.getTrip(10L).orElseThrow());
+
+        fleetStateService.arriveAt(1L, 4, Direction.UP);
+        assertTrue(fleetStateService.getTrip(10L).isEmpty());
+    }
+
+    @Test
+    public void testAwaitingPickup_EndsAtThePickupEvenIfTheCarReturnsToTheFloor() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(10L);
+        request.setSourceFloor(3);
+        request.setDestinationFloor(8);
+        fleetStateService.addRequestStops(1L, 3, 8);
+        fleetStateService.addTrip(1L, request);
+        fleetStateService.addRequestStops(1L, 6, 3); // someone else's trip ends at floor 3 on the way down
+
+        fleetStateService.arriveAt(1L, 3, Direction.UP);
+
+        assertFalse(fleetStateService.isAwaitingPickup(1L, 10L));
+        assertTrue(fleetStateService.route(fleetStateService.get(1L).orElseThrow()).contains(3));
+    }
+
+    @Test
+    public void testAwaitingPickup_PassingTheFloorTheOtherWayIsNoPickup() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(10L);
+        request.setSourceFloor(3);
+        request.setDestinationFloor(0);
+        fleetStateService.addRequestStops(1L, 3, 0);
+        fleetStateService.addTrip(1L, request);
+        fleetStateService.addRequestStops(1L, 2, 3);
+        fleetStateService.addStop(1L, 7, Direction.UP);
+
+        fleetStateService.arriveAt(1L, 3, Direction.UP); // a drop-off on the way up to 7
+
+        assertTrue(fleetStateService.isAwaitingPickup(1L, 10L));
+        assertFalse(fleetStateService.isAwaitingPickup(2L, 10L));
+    }
+
+    @Test
+    public void testTrip_KeptWhenThePreviousCarRunsOutOfStops() {
+        fleetStateService.update(elevator(2L, 1L));
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(10L);
+        fleetStateService.addRequestStops(1L, 2, 4);
+        fleetStateService.addTrip(1L, request);
+        fleetStateService.addTrip(2L, request); // moved by an operator
+
+        fleetStateService.arriveAt(1L, 2, Direction.UP);
+        fleetStateService.arriveAt(1L, 4, Direction.UP);
+        assertSame(request, fleetStateService.getTrip(10L).orElseThrow());
+    }
+
+    private static Elevator elevator(Long id, Long version) {
+        Elevator elevator = new Elevator();
+        elevator.setId(id);
+        elevator.setVersion(version);
+        return elevator;
+    }
+}
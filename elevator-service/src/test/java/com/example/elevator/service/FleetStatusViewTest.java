@@ -0,0 +1,91 @@
+package com.example.elevator.service;
+
+import com.example.elevator.dto.ElevatorStatusDTO;
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FleetStatusViewTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private FleetStateService fleetStateService;
+
+    private FleetStatusView fleetStatusView;
+
+    @BeforeEach
+    void setUp() {
+        fleetStateService = new FleetStateService();
+        fleetStateService.update(elevator(2L, 5));
+        fleetStatusView = new FleetStatusView();
+        ReflectionTestUtils.setField(fleetStatusView, "fleetStateService", fleetStateService);
+        ReflectionTestUtils.setField(fleetStatusView, "objectMapper", objectMapper);
+        fleetStatusView.start();
+    }
+
+    @Test
+    public void testSnapshot_FollowsStoreAndMatchesJackson() throws Exception {
+        fleetStateService.update(elevator(1L, 0));
+        fleetStateService.transition(2L, current -> current.toBuilder()
+                .currentFloor(6).status(ElevatorStatus.MOVING_UP).direction(Direction.UP).build());
+
+        FleetStatusView.Snapshot snapshot = fleetStatusView.getSnapshot();
+
+        List<ElevatorStatusDTO> statuses = snapshot.getStatuses();
+        assertEquals(2, statuses.size());
+        assertEquals(1L, statuses.get(0).getId(), "ordered by id");
+        assertEquals(6, statuses.get(1).getCurrentFloor());
+        assertArrayEquals(objectMapper.writeValueAsBytes(statuses), snapshot.getJson());
+    }
+
+    @Test
+    public void testSnapshot_KeepsBodyWhenVisibleStatusIsUnchanged() {
+        FleetStatusView.Snapshot before = fleetStatusView.getSnapshot();
+
+        fleetStateService.addStop(2L, 9, Direction.UP);
+
+        FleetStatusView.Snapshot after = fleetStatusView.getSnapshot();
+        assertNotSame(before, after, "version moved on");
+        assertSame(before.getJson(), after.getJson());
+    }
+
+    @Test
+    public void testWith_IgnoresOlderVersionOfCar() {
+        FleetStatusView.Snapshot snapshot = FleetStatusView.Snapshot.EMPTY
+                .with(entry(1L, 5, 3))
+                .with(entry(1L, 4, 2)); // Refreshed from an older read, published late
+
+        assertEquals(3, snapshot.getStatuses().get(0).getCurrentFloor());
+        assertEquals("[{\"id\":1,\"floor\":3}]", new String(snapshot.getJson()));
+    }
+
+    @Test
+    public void testRemove_DropsCarFromSnapshot() {
+        fleetStateService.update(elevator(1L, 0));
+
+        fleetStateService.remove(2L);
+
+        assertEquals(1, fleetStatusView.getSnapshot().getStatuses().size());
+        assertEquals("[]", new String(FleetStatusView.Snapshot.EMPTY.getJson()));
+    }
+
+    private static FleetStatusView.Entry entry(long id, long version, int floor) {
+        ElevatorStatusDTO status = new ElevatorStatusDTO(id, floor, ElevatorStatus.IDLE, Direction.STOPPED, true, Elevator.DEFAULT_BANK);
+        return new FleetStatusView.Entry(id, version, status, ("{\"id\":" + id + ",\"floor\":" + floor + "}").getBytes());
+    }
+
+    private static Elevator elevator(Long id, int floor) {
+        Elevator elevator = new Elevator();
+        elevator.setId(id);
+        elevator.setCurrentFloor(floor);
+        return elevator;
+    }
+}
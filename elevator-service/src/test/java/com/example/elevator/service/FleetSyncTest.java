@@ -0,0 +1,142 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRepository;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FleetSyncTest {
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    @Mock
+    private ElevatorRepository elevatorRepository;
+
+    @Mock
+    private ElevatorRequestRepository requestRepository;
+
+    @Mock
+    private FleetStateService fleetStateService;
+
+    @Mock
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Mock
+    private SchedulerService schedulerService;
+
+    @Mock
+    private AssignmentPipeline assignmentPipeline;
+
+    @Mock
+    private FleetStatusView fleetStatusView;
+
+    @Mock
+    private WebSocketUpdateService webSocketUpdateService;
+
+    @InjectMocks
+    private FleetSync fleetSync;
+
+    @Test
+    public void testSync_SingleNodeDoesNothing() {
+        when(leaderElection.isClustered()).thenReturn(false);
+
+        fleetSync.sync();
+
+        verifyNoInteractions(elevatorRepository, requestRepository, fleetStateService, pendingRequestQueue);
+    }
+
+    @Test
+    public void testSync_StandbyFollowsDatabase() {
+        List<Elevator> rows = List.of(elevator(1L, true));
+        when(leaderElection.isClustered()).thenReturn(true);
+        when(leaderElection.isLeader()).thenReturn(false);
+        when(elevatorRepository.findAll()).thenReturn(rows);
+        when(fleetStateService.reload(rows)).thenReturn(1);
+        when(fleetStatusView.getSnapshot()).thenReturn(FleetStatusView.Snapshot.EMPTY);
+
+        fleetSync.sync();
+
+        verify(pendingRequestQueue).reload();
+        verify(webSocketUpdateService).sendElevatorStatusUpdate(any());
+        verify(schedulerService, never()).submit(any());
+    }
+
+    @Test
+    public void testTakeOver_ResumesRecentTripsAndDispatches() {
+        ElevatorRequest onWorkingCar = assigned(10L, 1L, 2, 9);
+        onWorkingCar.getAdditionalDestinations().add(6); // a rider who joined the call
+        ElevatorRequest onFaultyCar = assigned(11L, 2L, 4, 0);
+        when(requestRepository.findByStatusAndAssignedTimeGreaterThanEqual(eq(RequestStatus.ASSIGNED), any()))
+                .thenReturn(List.of(onWorkingCar, onFaultyCar));
+        when(fleetStateService.get(1L)).thenReturn(Optional.of(ElevatorState.from(elevator(1L, true))));
+        when(fleetStateService.get(2L)).thenReturn(Optional.of(ElevatorState.from(elevator(2L, false))));
+
+        fleetSync.takeOver(7L);
+
+        verify(fleetStateService).reload(any());
+        verify(pendingRequestQueue).reload();
+        verify(fleetStateService).addRequestStops(1L, 2, 9);
+        verify(fleetStateService).addStop(1L, 6, Direction.UP);
+        verify(fleetStateService, never()).addRequestStops(eq(2L), anyInt(), anyInt());
+        verify(schedulerService).scheduleElevators();
+    }
+
+    @Test
+    public void testPickUpRequests_SubmitsOnlyRequestsAcceptedElsewhere() {
+        ElevatorRequest known = pending(20L, LocalDateTime.now().minusSeconds(5));
+        ElevatorRequest inFlight = pending(21L, LocalDateTime.now().minusSeconds(5));
+        ElevatorRequest fresh = pending(22L, LocalDateTime.now());
+        ElevatorRequest fromStandby = pending(23L, LocalDateTime.now().minusSeconds(5));
+        when(requestRepository.findByStatus(RequestStatus.PENDING)).thenReturn(List.of(known, inFlight, fresh, fromStandby));
+        when(pendingRequestQueue.contains(20L)).thenReturn(true);
+        when(assignmentPipeline.isInFlight(21L)).thenReturn(true);
+
+        fleetSync.pickUpRequests();
+
+        verify(schedulerService).submit(fromStandby);
+        verifyNoMoreInteractions(schedulerService);
+    }
+
+    private static Elevator elevator(Long id, boolean operational) {
+        Elevator elevator = new Elevator();
+        elevator.setId(id);
+        elevator.setOperational(operational);
+        return elevator;
+    }
+
+    private static ElevatorRequest assigned(Long id, Long elevatorId, int sourceFloor, int destinationFloor) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(id);
+        request.setSourceFloor(sourceFloor);
+        request.setDestinationFloor(destinationFloor);
+        request.setStatus(RequestStatus.ASSIGNED);
+        request.setAssignedElevatorId(elevatorId);
+        request.setAssignedTime(LocalDateTime.now().minusSeconds(30));
+        return request;
+    }
+
+    private static ElevatorRequest pending(Long id, LocalDateTime requestTime) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(id);
+        request.setRequestTime(requestTime);
+        return request;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HallCallServiceTest {
+
+    @Mock
+    private ElevatorRequestRepository requestRepository;
+
+    @Mock
+    private SchedulerService schedulerService;
+
+    @Mock
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Mock
+    private FleetStateService fleetStateService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private LeaderElection leaderElection = new LeaderElection(); // A single node, always leading
+
+    @InjectMocks
+    private HallCallService hallCallService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        hallCallService.start();
+        lenient().when(requestRepository.save(any(ElevatorRequest.class))).thenAnswer(invocation -> {
+            ElevatorRequest saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(ids.incrementAndGet());
+            }
+            return saved;
+        });
+        lenient().when(pendingRequestQueue.getPending(anyString(), anyInt(), any(Direction.class))).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    public void testPressesAtSameFloorAndDirection_JoinOneCall() {
+        ElevatorRequest first = hallCallService.accept(press(0, 9));
+        ElevatorRequest second = hallCallService.accept(press(0, 4));
+        ElevatorRequest third = hallCallService.accept(press(0, 9));
+
+        assertEquals(first.getId(), second.getId());
+        assertSame(first, third);
+        assertEquals(3, first.getRiderCount());
+        assertEquals(Collections.singleton(4), first.getAdditionalDestinations());
+        verify(requestRepository, times(1)).save(any(ElevatorRequest.class));
+        verify(requestRepository).updateRiders(first.getId(), 3, Collections.singleton(4), 1L); // survives a restart
+        verify(schedulerService, times(1)).submit(first);
+        assertEquals(2.0, meterRegistry.counter("elevator.requests.coalesced").count());
+    }
+
+    @Test
+    public void testOppositeDirections_StaySeparate() {
+        ElevatorRequest up = hallCallService.accept(press(5, 9));
+        ElevatorRequest down = hallCallService.accept(press(5, 0));
+
+        assertNotSame(up, down);
+        verify(schedulerService).submit(up);
+        verify(schedulerService).submit(down);
+    }
+
+    @Test
+    public void testHigherPriorityPress_RaisesTheWaitingCall() {
+        ElevatorRequest call = hallCallService.accept(press(2, 7));
+        ElevatorRequest urgent = press(2, 7);
+        urgent.setPriority(5);
+
+        hallCallService.accept(urgent);
+
+        assertEquals(5, call.getPriority());
+        verify(pendingRequestQueue).add(call);
+    }
+
+    @Test
+    public void testAssignedCallBeforePickup_AddsDropOffToItsCar() {
+        ElevatorRequest call = hallCallService.accept(press(3, 8));
+        assign(call, 7L, true);
+
+        ElevatorRequest joined = hallCallService.accept(press(3, 10));
+
+        assertEquals(call.getId(), joined.getId());
+        assertEquals(2, call.getRiderCount());
+        verify(fleetStateService).addStop(7L, 10, Direction.UP);
+        verify(requestRepository).updateRiders(call.getId(), 2, Collections.singleton(10), 1L);
+        verify(requestRepository, times(1)).save(any(ElevatorRequest.class)); // never the whole call again
+    }
+
+    @Test
+    public void testJoiningRider_AnsweredWithTheirOwnDestination() {
+        ElevatorRequest call = hallCallService.accept(press(3, 8));
+        assign(call, 7L, true);
+
+        ElevatorRequest joined = hallCallService.accept(press(3, 10));
+
+        assertEquals(call.getId(), joined.getId());
+        assertEquals(10, joined.getDestinationFloor());
+        assertEquals(7L, joined.getAssignedElevatorId());
+        assertEquals(8, call.getDestinationFloor());
+    }
+
+    @Test
+    public void testAssignedCall_DropOffAnotherRiderAskedForQueuedOnce() {
+        ElevatorRequest call = hallCallService.accept(press(3, 8));
+        assign(call, 7L, true);
+        call.getAdditionalDestinations().add(10);
+
+        hallCallService.accept(press(3, 10));
+
+        assertEquals(2, call.getRiderCount());
+        verify(fleetStateService, never()).addStop(anyLong(), anyInt(), any(Direction.class));
+    }
+
+    @Test
+    public void testAssignedCallAfterPickup_OpensNewCall() {
+        ElevatorRequest call = hallCallService.accept(press(3, 8));
+        assign(call, 7L, false); // already picked up, though the car may still stop at floor 3 for others
+
+        ElevatorRequest next = hallCallService.accept(press(3, 8));
+
+        assertNotSame(call, next);
+        assertEquals(1, call.getRiderCount());
+        verify(fleetStateService, never()).addStop(anyLong(), anyInt(), any(Direction.class));
+    }
+
+    @Test
+    public void testExpiredWindow_OpensNewCall() {
+        ElevatorRequest call = hallCallService.accept(press(1, 6));
+        call.setRequestTime(LocalDateTime.now().minusMinutes(1));
+
+        assertNotSame(call, hallCallService.accept(press(1, 6)));
+    }
+
+    @Test
+    public void testWaitingCallFromBeforeRestart_IsJoined() {
+        ElevatorRequest waiting = press(4, 0);
+        waiting.setId(99L);
+        when(pendingRequestQueue.getPending("main", 4, Direction.DOWN)).thenReturn(Collections.singletonList(waiting));
+
+        assertEquals(99L, hallCallService.accept(press(4, 1)).getId());
+        assertEquals(Collections.singleton(1), waiting.getAdditionalDestinations());
+        verify(requestRepository, never()).save(any(ElevatorRequest.class));
+    }
+
+    @Test
+    public void testZeroWindow_EveryPressIsItsOwnRequest() {
+        ReflectionTestUtils.setField(hallCallService, "coalesceWindowMs", 0L);
+
+        ElevatorRequest first = hallCallService.accept(press(0, 9));
+        ElevatorRequest second = hallCallService.accept(press(0, 9));
+
+        assertNotSame(first, second);
+        verify(requestRepository, times(2)).save(any(ElevatorRequest.class));
+    }
+
+    private void assign(ElevatorRequest call, Long elevatorId, boolean awaitingPickup) {
+        call.setStatus(RequestStatus.ASSIGNED);
+        call.setAssignedElevatorId(elevatorId);
+        ElevatorState car = ElevatorState.builder()
+                .id(elevatorId)
+                .currentFloor(0)
+                .status(ElevatorStatus.MOVING_UP)
+                .direction(Direction.UP)
+                .capacity(10)
+                .operational(true)
+                .build();
+        when(fleetStateService.get(elevatorId)).thenReturn(Optional.of(car));
+        when(fleetStateService.isAwaitingPickup(elevatorId, call.getId())).thenReturn(awaitingPickup);
+    }
+
+    private static ElevatorRequest press(int source, int destination) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setSourceFloor(source);
+        request.setDestinationFloor(destination);
+        return request;
+    }
+}
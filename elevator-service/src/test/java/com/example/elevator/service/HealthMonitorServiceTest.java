@@ -1,23 +1,26 @@
 package com.example.elevator.service;
 
 import com.example.elevator.model.Elevator;
-import com.example.elevator.model.ElevatorLog;
+import com.example.elevator.model.ElevatorEvent;
+import com.example.elevator.model.ElevatorState;
 import com.example.elevator.model.ElevatorStatus;
-import com.example.elevator.repository.ElevatorLogRepository;
 import com.example.elevator.repository.ElevatorRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.Optional;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,11 +30,24 @@ public class HealthMonitorServiceTest {
     private ElevatorRepository elevatorRepository;
 
     @Mock
-    private ElevatorLogRepository logRepository;
+    private ElevatorLogWriter logWriter;
+
+    private FleetStateService fleetStateService;
 
-    @InjectMocks
     private HealthMonitorService healthMonitorService;
 
+    @BeforeEach
+    void setUp() {
+        fleetStateService = new FleetStateService();
+        ReflectionTestUtils.setField(fleetStateService, "elevatorRepository", elevatorRepository);
+        healthMonitorService = new HealthMonitorService();
+        ReflectionTestUtils.setField(healthMonitorService, "fleetStateService", fleetStateService);
+        ReflectionTestUtils.setField(healthMonitorService, "logWriter", logWriter);
+        ReflectionTestUtils.setField(healthMonitorService, "elevatorRepository", elevatorRepository);
+        ReflectionTestUtils.setField(healthMonitorService, "leaderElection", new LeaderElection());
+        lenient().when(elevatorRepository.save(any(Elevator.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
     @Test
     public void testCheckElevatorHealth_MarksDown() {
         Elevator elevator = new Elevator();
@@ -40,13 +56,18 @@ public class HealthMonitorServiceTest {
         // Last heartbeat was 70 seconds ago (threshold is 60)
         elevator.setLastHeartbeat(LocalDateTime.now().minusSeconds(70));
 
-        when(elevatorRepository.findAll()).thenReturn(Collections.singletonList(elevator));
+        fleetStateService.update(elevator);
 
         healthMonitorService.checkElevatorHealth();
 
-        assertFalse(elevator.isOperational());
-        verify(elevatorRepository).save(elevator);
-        verify(logRepository).save(any(ElevatorLog.class));
+        ArgumentCaptor<Elevator> saved = ArgumentCaptor.forClass(Elevator.class);
+        verify(elevatorRepository).save(saved.capture());
+        assertFalse(saved.getValue().isOperational());
+        assertEquals(ElevatorStatus.OUT_OF_SERVICE, saved.getValue().getStatus());
+        ElevatorState stored = fleetStateService.get(1L).orElseThrow();
+        assertFalse(stored.isOperational());
+        assertEquals(ElevatorStatus.OUT_OF_SERVICE, stored.getStatus());
+        verify(logWriter).log(any(ElevatorEvent.class));
     }
 
     @Test
@@ -57,14 +78,15 @@ public class HealthMonitorServiceTest {
         // Down for 130 seconds (restart threshold is 120)
         elevator.setLastHeartbeat(LocalDateTime.now().minusSeconds(130));
 
-        when(elevatorRepository.findAll()).thenReturn(Collections.singletonList(elevator));
+        fleetStateService.update(elevator);
 
         healthMonitorService.checkElevatorHealth();
 
-        assertTrue(elevator.isOperational());
-        verify(elevatorRepository).save(elevator);
+        ArgumentCaptor<Elevator> saved = ArgumentCaptor.forClass(Elevator.class);
+        verify(elevatorRepository).save(saved.capture());
+        assertTrue(saved.getValue().isOperational());
         // Should log restart attempt and success
-        verify(logRepository, times(2)).save(any(ElevatorLog.class));
+        verify(logWriter, times(2)).log(any(ElevatorEvent.class));
     }
 
     @Test
@@ -73,12 +95,50 @@ public class HealthMonitorServiceTest {
         elevator.setId(1L);
         elevator.setOperational(false);
 
-        when(elevatorRepository.findById(1L)).thenReturn(Optional.of(elevator));
+        fleetStateService.update(elevator);
+
+        healthMonitorService.receiveHeartbeat(1L);
+
+        ArgumentCaptor<Elevator> saved = ArgumentCaptor.forClass(Elevator.class);
+        verify(elevatorRepository).save(saved.capture());
+        assertTrue(saved.getValue().isOperational());
+        verify(logWriter).log(any(ElevatorEvent.class));
+    }
+
+    @Test
+    public void testReceiveHeartbeat_StandbyOnlyRecordsIt() {
+        ReflectionTestUtils.setField(healthMonitorService, "leaderElection", mock(LeaderElection.class));
+        Elevator elevator = new Elevator();
+        elevator.setId(1L);
+        elevator.setOperational(false);
+        fleetStateService.update(elevator);
 
         healthMonitorService.receiveHeartbeat(1L);
 
-        assertTrue(elevator.isOperational());
-        verify(elevatorRepository).save(elevator);
-        verify(logRepository).save(any(ElevatorLog.class));
+        verify(elevatorRepository).recordHeartbeat(eq(1L), any(LocalDateTime.class));
+        verify(elevatorRepository, never()).save(any());
+        assertFalse(fleetStateService.get(1L).get().isOperational(), "left to the leader");
+    }
+
+    @Test
+    public void testCheckElevatorHealth_LeaderAdoptsHeartbeatsRecordedByStandbys() {
+        LeaderElection leaderElection = mock(LeaderElection.class);
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(leaderElection.isClustered()).thenReturn(true);
+        ReflectionTestUtils.setField(healthMonitorService, "leaderElection", leaderElection);
+        Elevator down = new Elevator();
+        down.setId(1L);
+        down.setOperational(false);
+        down.setLastHeartbeat(LocalDateTime.now().minusSeconds(90));
+        fleetStateService.update(down);
+        LocalDateTime beat = LocalDateTime.now().minusSeconds(2);
+        when(elevatorRepository.findHeartbeats()).thenReturn(List.<Object[]>of(new Object[]{1L, beat}));
+
+        healthMonitorService.checkElevatorHealth();
+
+        ElevatorState state = fleetStateService.get(1L).get();
+        assertTrue(state.isOperational());
+        assertEquals(beat, state.getLastHeartbeat());
+        verify(elevatorRepository).save(any(Elevator.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.example.elevator.service;
+
+import com.example.elevator.repository.ElevatorLogRepository;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HistoryRetentionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ElevatorLogRepository logRepository;
+
+    @Mock
+    private ElevatorRequestRepository requestRepository;
+
+    @Mock
+    private ElevatorLogWriter logWriter;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HistoryRetentionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HistoryRetentionService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "logRepository", logRepository);
+        ReflectionTestUtils.setField(service, "requestRepository", requestRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "leaderElection", new LeaderElection());
+        ReflectionTestUtils.setField(service, "logWriter", logWriter);
+        ReflectionTestUtils.setField(service, "retentionDays", 90);
+        ReflectionTestUtils.setField(service, "partitionsAhead", 1);
+        ReflectionTestUtils.setField(service, "clock",
+                Clock.fixed(LocalDate.of(2025, 6, 15).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void database(String product) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(product);
+    }
+
+    @Test
+    public void testUnpartitionedTables_DeleteExpiredRows() {
+        database("H2");
+        when(logRepository.deleteOlderThan(any())).thenReturn(12);
+
+        service.maintain();
+
+        LocalDateTime cutoff = LocalDate.of(2025, 3, 17).atStartOfDay();
+        verify(logRepository).deleteOlderThan(cutoff);
+        verify(requestRepository).deleteOlderThan(cutoff);
+        verify(jdbcTemplate, never()).execute(anyString());
+        assertEquals(12.0, meterRegistry.counter("elevator.history.rows.deleted", "table", "elevator_log").count());
+    }
+
+    @Test
+    public void testPartitionedTables_CreateAheadAndDropExpiredMonths() {
+        database("PostgreSQL");
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyString())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("elevator_log")))
+                .thenReturn(List.of("elevator_log_p2025_02", "elevator_log_p2025_03", "elevator_log_default"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("elevator_request")))
+                .thenReturn(List.of("elevator_request_p2025_01"));
+
+        service.maintain();
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS elevator_log_p2025_06 PARTITION OF elevator_log"
+                + " FOR VALUES FROM ('2025-06-01') TO ('2025-07-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS elevator_log_p2025_07 PARTITION OF elevator_log"
+                + " FOR VALUES FROM ('2025-07-01') TO ('2025-08-01')");
+        // February ends before the cutoff (March 17); March still holds rows inside the window
+        verify(jdbcTemplate).execute("DROP TABLE elevator_log_p2025_02");
+        verify(jdbcTemplate, never()).execute("DROP TABLE elevator_log_p2025_03");
+        verify(jdbcTemplate, never()).execute("DROP TABLE elevator_log_default");
+        verify(jdbcTemplate).execute("DROP TABLE elevator_request_p2025_01");
+        verifyNoInteractions(logRepository, requestRepository);
+    }
+
+    @Test
+    public void testDetachAction_KeepsPartitionAsTable() {
+        ReflectionTestUtils.setField(service, "retentionAction", RetentionAction.DETACH);
+        database("PostgreSQL");
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyString())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("elevator_request_p2024_12"));
+
+        service.maintain();
+
+        verify(jdbcTemplate).execute("ALTER TABLE elevator_request DETACH PARTITION elevator_request_p2024_12");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+        assertEquals(1.0, meterRegistry.counter("elevator.history.partitions.removed", "table", "elevator_request").count());
+    }
+
+    @Test
+    public void testPartitionedRequests_PartitionWithLiveRequestsIsKept() {
+        database("PostgreSQL");
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyString())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("elevator_log"))).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("elevator_request")))
+                .thenReturn(List.of("elevator_request_p2024_12", "elevator_request_p2025_01"));
+        when(jdbcTemplate.queryForObject(contains("elevator_request_p2024_12"), eq(Boolean.class))).thenReturn(false);
+        // A call from January still waiting for a car
+        when(jdbcTemplate.queryForObject(contains("elevator_request_p2025_01"), eq(Boolean.class))).thenReturn(true);
+
+        service.maintain();
+
+        verify(jdbcTemplate).execute("DROP TABLE elevator_request_p2024_12");
+        verify(jdbcTemplate, never()).execute("DROP TABLE elevator_request_p2025_01");
+        assertEquals(1.0, meterRegistry.counter("elevator.history.partitions.removed", "table", "elevator_request").count());
+    }
+
+    @Test
+    public void testJournal_ExpiredSegmentsRemovedOnStandbyToo() {
+        LeaderElection standby = mock(LeaderElection.class);
+        ReflectionTestUtils.setField(service, "leaderElection", standby);
+        EventJournal journal = mock(EventJournal.class);
+        when(logWriter.getJournal()).thenReturn(journal);
+        when(journal.removeBefore(anyLong())).thenReturn(2);
+
+        service.maintain();
+
+        // Every node has a journal of its own, while the shared tables are left to the leader
+        verify(journal).removeBefore(LocalDate.of(2025, 3, 17).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli());
+        verifyNoInteractions(jdbcTemplate, logRepository, requestRepository);
+        assertEquals(2.0, meterRegistry.counter("elevator.history.journal.segments.removed").count());
+    }
+
+    @Test
+    public void testZeroRetention_KeepsEverything() {
+        ReflectionTestUtils.setField(service, "retentionDays", 0);
+        database("H2");
+
+        service.maintain();
+
+        verifyNoInteractions(logRepository, requestRepository);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.elevator.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stands in for Redis in election tests: one lease with an expiry on a shared clock, and a token counter. Can be told
+ * to fail like an unreachable server.
+ */
+class InMemoryLeaseStore implements LeaseStore {
+
+    private final LongSupplier nanoTime;
+
+    private String owner;
+    private long expiresAtNanos;
+    private long fence;
+    private boolean down;
+
+    InMemoryLeaseStore(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    void setDown(boolean down) {
+        this.down = down;
+    }
+
+    String getOwner() {
+        return held() ? owner : null;
+    }
+
+    @Override
+    public synchronized long tryAcquire(String owner, long leaseMs) {
+        check();
+        if (held()) {
+            return 0;
+        }
+        this.owner = owner;
+        expiresAtNanos = nanoTime.getAsLong() + leaseMs * 1_000_000;
+        return ++fence;
+    }
+
+    @Override
+    public synchronized boolean renew(String owner, long leaseMs) {
+        check();
+        if (!held() || !this.owner.equals(owner)) {
+            return false;
+        }
+        expiresAtNanos = nanoTime.getAsLong() + leaseMs * 1_000_000;
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String owner) {
+        check();
+        if (held() && this.owner.equals(owner)) {
+            this.owner = null;
+        }
+    }
+
+    private boolean held() {
+        return owner != null && nanoTime.getAsLong() < expiresAtNanos;
+    }
+
+    private void check() {
+        if (down) {
+            throw new IllegalStateException("Unable to connect to Redis");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.elevator.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.LongConsumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class KafkaConsumerServiceTest {
+
+    @Mock
+    private ElevatorService elevatorService;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    @InjectMocks
+    private KafkaConsumerService kafkaConsumerService;
+
+    @Test
+    public void testClusteredNode_ListensOnlyWhileLeading() {
+        when(leaderElection.isClustered()).thenReturn(true);
+        when(listenerRegistry.getListenerContainer(KafkaConsumerService.LISTENER_ID)).thenReturn(container);
+        kafkaConsumerService.start();
+        ArgumentCaptor<LongConsumer> elected = ArgumentCaptor.forClass(LongConsumer.class);
+        ArgumentCaptor<Runnable> revoked = ArgumentCaptor.forClass(Runnable.class);
+        verify(leaderElection).addElectedListener(elected.capture());
+        verify(leaderElection).addRevokedListener(revoked.capture());
+
+        elected.getValue().accept(3L);
+        verify(container).start();
+
+        when(container.isRunning()).thenReturn(true);
+        revoked.getValue().run();
+        verify(container).stop(any(Runnable.class));
+    }
+
+    @Test
+    public void testListenerTurnedOff_NeverStarted() {
+        ReflectionTestUtils.setField(kafkaConsumerService, "autoStartup", false);
+
+        kafkaConsumerService.start();
+
+        verify(leaderElection, never()).addElectedListener(any());
+        verifyNoInteractions(listenerRegistry);
+    }
+}
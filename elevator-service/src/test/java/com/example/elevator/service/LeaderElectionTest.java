@@ -0,0 +1,127 @@
+package com.example.elevator.service;
+
+import com.example.elevator.exception.NotLeaderException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes competing for one lease on a shared, manually advanced clock.
+ */
+public class LeaderElectionTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final InMemoryLeaseStore leaseStore = new InMemoryLeaseStore(now::get);
+
+    private final List<String> events = new ArrayList<>();
+
+    private LeaderElection nodeA;
+    private LeaderElection nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node("A");
+        nodeB = node("B");
+    }
+
+    @Test
+    public void testSingleNode_AlwaysLeads() {
+        LeaderElection single = new LeaderElection();
+
+        single.renew();
+
+        assertTrue(single.isLeader());
+        assertFalse(single.isClustered());
+        assertEquals(1, single.getFencingToken());
+    }
+
+    @Test
+    public void testRenew_OneNodeLeadsAndTheOtherStandsBy() {
+        nodeA.renew();
+        nodeB.renew();
+
+        assertTrue(nodeA.isLeader());
+        assertFalse(nodeB.isLeader());
+        assertEquals(1, nodeA.getFencingToken());
+        assertEquals(0, nodeB.getFencingToken());
+        assertThrows(NotLeaderException.class, nodeB::requireLeader);
+        assertEquals(List.of("A elected 1"), events);
+    }
+
+    @Test
+    public void testRenew_StandbyTakesOverWithHigherTokenOnceLeaseLapses() {
+        nodeA.renew();
+        advance(3000);
+        nodeA.renew(); // Lease now runs until 8000 ms
+        advance(4000);
+        nodeB.renew();
+        assertFalse(nodeB.isLeader(), "lease still held");
+
+        // A stops renewing, e.g. a long pause
+        advance(2000);
+        assertFalse(nodeA.isLeader(), "A gave up before the lease lapsed in the store");
+        nodeB.renew();
+
+        assertTrue(nodeB.isLeader());
+        assertEquals(2, nodeB.getFencingToken());
+        assertEquals(0, nodeA.getFencingToken());
+
+        nodeA.renew(); // Back from the pause, finds its lease taken
+        assertFalse(nodeA.isLeader());
+        assertEquals(List.of("A elected 1", "B elected 2", "A revoked"), events);
+    }
+
+    @Test
+    public void testRenew_UnreachableStoreKeepsLeadershipUntilLeaseWouldLapse() {
+        nodeA.renew();
+        leaseStore.setDown(true);
+
+        advance(3000);
+        nodeA.renew();
+        assertTrue(nodeA.isLeader());
+        assertEquals(1, nodeA.getFencingToken());
+
+        advance(2000);
+        nodeA.renew();
+        assertFalse(nodeA.isLeader());
+        assertEquals(List.of("A elected 1", "A revoked"), events);
+    }
+
+    @Test
+    public void testStop_ReleasesLeaseForImmediateTakeover() {
+        nodeA.renew();
+
+        nodeA.stop();
+        nodeB.renew();
+
+        assertFalse(nodeA.isLeader());
+        assertTrue(nodeB.isLeader());
+        assertEquals(2, nodeB.getFencingToken());
+    }
+
+    private LeaderElection node(String name) {
+        LeaderElection node = new LeaderElection();
+        ReflectionTestUtils.setField(node, "mode", LeaderElectionMode.REDIS);
+        ReflectionTestUtils.setField(node, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(node, "leaseStore", leaseStore);
+        ReflectionTestUtils.setField(node, "nanoTime", (LongSupplier) now::get);
+        node.start();
+        node.addElectedListener(token -> events.add(name + " elected " + token));
+        node.addRevokedListener(() -> events.add(name + " revoked"));
+        return node;
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MovementEngineTest {
+
+    @Mock
+    private PositionWriter positionWriter;
+
+    @Mock
+    private ElevatorLogWriter logWriter;
+
+    private FleetStateService fleetStateService;
+
+    private MovementEngine movementEngine;
+
+    private final List<Integer> visitedFloors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fleetStateService = new FleetStateService();
+        movementEngine = new MovementEngine();
+        ReflectionTestUtils.setField(movementEngine, "positionWriter", positionWriter);
+        ReflectionTestUtils.setField(movementEngine, "fleetStateService", fleetStateService);
+        ReflectionTestUtils.setField(movementEngine, "logWriter", logWriter);
+        ReflectionTestUtils.setField(movementEngine, "mode", MovementMode.VIRTUAL);
+        // Register the activation listener without starting the background thread
+        fleetStateService.addActivationListener(movementEngine::schedule);
+
+        // Recording writes the new position into the store, as the real PositionWriter does
+        lenient().when(positionWriter.record(any(ElevatorState.class), anyInt(), any(), any())).thenAnswer(invocation -> {
+            ElevatorState from = invocation.getArgument(0);
+            int floor = invocation.getArgument(1);
+            visitedFloors.add(floor);
+            return Optional.of(fleetStateService.put(from.toBuilder().currentFloor(floor)
+                    .status(invocation.getArgument(2)).direction(invocation.getArgument(3)).build()));
+        });
+    }
+
+    @Test
+    public void testVirtualClock_ServesAllStopsWithoutWaiting() {
+        fleetStateService.update(elevator(1L, 0));
+        fleetStateService.addRequestStops(1L, 2, 5);
+
+        long started = System.nanoTime();
+        int events = movementEngine.runUntilIdle();
+
+        assertTrue(System.nanoTime() - started < 1_000_000_000L, "virtual mode must not sleep");
+        assertEquals(5, events);
+        assertEquals(5000, movementEngine.now()); // five floors at the default 1s per floor
+        ElevatorState state = fleetStateService.get(1L).orElseThrow();
+        assertEquals(5, state.getCurrentFloor());
+        assertEquals(ElevatorStatus.IDLE, state.getStatus());
+        assertFalse(fleetStateService.isActive(1L));
+        assertEquals(0, movementEngine.getPendingEvents());
+    }
+
+    @Test
+    public void testVirtualClock_InterleavesCarsByArrivalTime() {
+        fleetStateService.update(elevator(1L, 0));
+        fleetStateService.update(elevator(2L, 10));
+        fleetStateService.addStop(1L, 3, Direction.UP);
+        fleetStateService.addStop(2L, 7, Direction.DOWN);
+
+        movementEngine.runUntilIdle();
+
+        // Both cars move one floor per event, alternating, and finish at the same virtual time
+        assertEquals(List.of(1, 9, 2, 8, 3, 7), visitedFloors);
+        assertEquals(3000, movementEngine.now());
+    }
+
+    @Test
+    public void testVirtualClock_HoldsDoorsOpenAtIntermediateStops() {
+        ReflectionTestUtils.setField(movementEngine, "doorDwellMs", 2000L);
+        fleetStateService.update(elevator(1L, 0));
+        fleetStateService.addRequestStops(1L, 2, 5);
+
+        movementEngine.runUntilIdle();
+
+        // Five floors, plus one dwell at the pickup; the last stop has nothing after it to delay
+        assertEquals(7000, movementEngine.now());
+    }
+
+    @Test
+    public void testSchedule_KeepsOneEventPerCar() {
+        fleetStateService.update(elevator(1L, 0));
+        fleetStateService.addStop(1L, 4, Direction.UP);
+        fleetStateService.addStop(1L, 8, Direction.UP);
+        movementEngine.schedule(1L);
+
+        assertEquals(1, movementEngine.getPendingEvents());
+    }
+
+    @Test
+    public void testStep_OutOfServiceCarResumesAfterRepair() {
+        Elevator broken = elevator(1L, 0);
+        broken.setOperational(false);
+        fleetStateService.update(broken);
+        fleetStateService.addStop(1L, 4, Direction.UP);
+
+        movementEngine.runUntilIdle();
+
+        assertFalse(fleetStateService.isActive(1L));
+        verify(positionWriter, never()).record(any(), anyInt(), any(), any());
+
+        fleetStateService.update(elevator(1L, 0)); // repaired
+        movementEngine.runUntilIdle();
+
+        assertEquals(4, fleetStateService.get(1L).orElseThrow().getCurrentFloor());
+    }
+
+    private static Elevator elevator(Long id, int floor) {
+        Elevator elevator = new Elevator();
+        elevator.setId(id);
+        elevator.setCurrentFloor(floor);
+        elevator.setStatus(ElevatorStatus.IDLE);
+        elevator.setDirection(Direction.STOPPED);
+        elevator.setCapacity(10);
+        elevator.setOperational(true);
+        return elevator;
+    }
+}
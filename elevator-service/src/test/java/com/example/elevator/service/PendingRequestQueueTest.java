@@ -0,0 +1,154 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.RequestStatus;
+import com.example.elevator.repository.ElevatorRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PendingRequestQueueTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Mock
+    private ElevatorRequestRepository requestRepository;
+
+    @InjectMocks
+    private PendingRequestQueue queue;
+
+    @Test
+    public void testLoad_RebuildsFromPendingRequests() {
+        ElevatorRequest older = request(1L, 0, 5, 0, NOW);
+        ElevatorRequest newer = request(2L, 0, 9, 0, NOW.plusSeconds(5));
+        when(requestRepository.findByStatus(RequestStatus.PENDING)).thenReturn(Arrays.asList(newer, older));
+
+        queue.load();
+
+        assertEquals(Arrays.asList(older, newer), queue.getPending());
+    }
+
+    @Test
+    public void testGetPending_HigherPriorityFirstThenOldest() {
+        ElevatorRequest oldest = request(1L, 3, 0, 0, NOW);
+        ElevatorRequest urgent = request(2L, 7, 1, 5, NOW.plusSeconds(30));
+        ElevatorRequest newest = request(3L, 2, 8, 0, NOW.plusSeconds(60));
+        queue.add(newest);
+        queue.add(oldest);
+        queue.add(urgent);
+
+        assertEquals(Arrays.asList(urgent, oldest, newest), queue.getPending());
+    }
+
+    @Test
+    public void testBuckets_BySourceFloorAndDirection() {
+        ElevatorRequest up = request(1L, 4, 9, 0, NOW);
+        ElevatorRequest down = request(2L, 4, 0, 0, NOW.plusSeconds(1));
+        ElevatorRequest laterUp = request(3L, 4, 6, 0, NOW.plusSeconds(2));
+        ElevatorRequest elsewhere = request(4L, 10, 0, 0, NOW);
+        queue.add(up);
+        queue.add(down);
+        queue.add(laterUp);
+        queue.add(elsewhere);
+
+        assertEquals(Arrays.asList(up, laterUp), queue.getPending("main", 4, Direction.UP));
+        assertEquals(Collections.singletonList(down), queue.getPending("main", 4, Direction.DOWN));
+        assertTrue(queue.getPending("main", 10, Direction.UP).isEmpty());
+
+        Map<Integer, Integer> expected = new TreeMap<>();
+        expected.put(4, 3);
+        expected.put(10, 1);
+        assertEquals(expected, queue.ridersBySourceFloor("main"));
+    }
+
+    @Test
+    public void testRidersBySourceFloor_CountsEveryRiderOfACoalescedCall() {
+        ElevatorRequest crowd = request(1L, 0, 9, 0, NOW);
+        crowd.setRiderCount(40);
+        queue.add(crowd);
+        queue.add(request(2L, 6, 0, 0, NOW));
+        queue.add(request(3L, 6, 9, 0, NOW.plusSeconds(1)));
+
+        Map<Integer, Integer> riders = queue.ridersBySourceFloor("main");
+
+        assertEquals(40, riders.get(0));
+        assertEquals(2, riders.get(6));
+        assertEquals(0, ElevatorService.busiestFloor(riders), "one call of 40 riders outranks two single presses");
+    }
+
+    @Test
+    public void testRemove_EmptiesBuckets() {
+        ElevatorRequest request = request(1L, 4, 9, 0, NOW);
+        queue.add(request);
+
+        assertTrue(queue.remove(1L));
+        assertFalse(queue.remove(1L));
+        assertEquals(0, queue.size());
+        assertTrue(queue.getPending("main", 4, Direction.UP).isEmpty());
+        assertTrue(queue.ridersBySourceFloor("main").isEmpty());
+    }
+
+    @Test
+    public void testAdd_IgnoresUnsavedAndNonPendingRequests() {
+        ElevatorRequest unsaved = request(null, 1, 2, 0, NOW);
+        ElevatorRequest assigned = request(2L, 1, 2, 0, NOW);
+        assigned.setStatus(RequestStatus.ASSIGNED);
+
+        assertFalse(queue.add(unsaved));
+        assertFalse(queue.add(assigned));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testAdd_SameRequestTwiceKeepsOneEntry() {
+        ElevatorRequest request = request(1L, 1, 2, 0, NOW);
+        queue.add(request);
+        request.setPriority(3); // Re-queued with new sort keys, e.g. after a failed assignment
+        queue.add(request);
+
+        assertEquals(1, queue.size());
+        assertEquals(Collections.singletonList(request), queue.getPending());
+        assertTrue(queue.contains(1L));
+    }
+
+    @Test
+    public void testBanks_AreKeptApart() {
+        ElevatorRequest main = request(1L, 4, 9, 0, NOW.plusSeconds(1));
+        ElevatorRequest east = request(2L, 4, 9, 0, NOW);
+        east.setBank("east");
+        queue.add(main);
+        queue.add(east);
+
+        assertEquals(Collections.singletonList(main), queue.getPending("main"));
+        assertEquals(Collections.singletonList(east), queue.getPending("east", 4, Direction.UP));
+        assertEquals(Collections.singletonMap(4, 1), queue.ridersBySourceFloor("east"));
+        assertEquals(Arrays.asList(east, main), queue.getPending(), "all banks, in dispatch order");
+
+        assertTrue(queue.remove(2L));
+        assertEquals(0, queue.size("east"));
+        assertEquals(1, queue.size());
+    }
+
+    private static ElevatorRequest request(Long id, int source, int destination, int priority, LocalDateTime time) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(id);
+        request.setSourceFloor(source);
+        request.setDestinationFloor(destination);
+        request.setPriority(priority);
+        request.setRequestTime(time);
+        return request;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.elevator.service;
+
+import com.example.elevator.model.Direction;
+import com.example.elevator.model.Elevator;
+import com.example.elevator.model.ElevatorState;
+import com.example.elevator.model.ElevatorStatus;
+import com.example.elevator.repository.ElevatorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PositionWriterTest {
+
+    @Mock
+    private ElevatorRepository elevatorRepository;
+
+    @Mock
+    private WebSocketUpdateService webSocketUpdateService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final FleetStateService fleetStateService = new FleetStateService();
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("elevators");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PositionWriter positionWriter;
+
+    @BeforeEach
+    void setUp() {
+        positionWriter = new PositionWriter();
+        ReflectionTestUtils.setField(positionWriter, "elevatorRepository", elevatorRepository);
+        ReflectionTestUtils.setField(positionWriter, "fleetStateService", fleetStateService);
+        ReflectionTestUtils.setField(positionWriter, "webSocketUpdateService", webSocketUpdateService);
+        FleetStatusView fleetStatusView = new FleetStatusView();
+        ReflectionTestUtils.setField(fleetStatusView, "fleetStateService", fleetStateService);
+        ReflectionTestUtils.setField(fleetStatusView, "objectMapper", new ObjectMapper());
+        fleetStatusView.start();
+        ReflectionTestUtils.setField(positionWriter, "fleetStatusView", fleetStatusView);
+        ReflectionTestUtils.setField(positionWriter, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(positionWriter, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(positionWriter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(positionWriter, "leaderElection", new LeaderElection());
+        positionWriter.init();
+        fleetStateService.update(elevator(1L));
+        fleetStateService.update(elevator(2L));
+        lenient().when(elevatorRepository.updatePosition(anyLong(), anyInt(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    public void testFlush_CoalescesMovesIntoOneUpdatePerCar() {
+        for (int floor = 1; floor <= 10; floor++) {
+            move(1L, floor);
+        }
+        move(2L, 1);
+        move(2L, 2);
+        cacheManager.getCache("elevators").put(1L, new Elevator());
+
+        assertEquals(10, fleetStateService.get(1L).orElseThrow().getCurrentFloor(), "applied in memory at once");
+        verifyNoInteractions(elevatorRepository);
+
+        assertEquals(2, positionWriter.flush());
+
+        verify(elevatorRepository).updatePosition(1L, 10, ElevatorStatus.MOVING_UP, Direction.UP);
+        verify(elevatorRepository).updatePosition(2L, 2, ElevatorStatus.MOVING_UP, Direction.UP);
+        verifyNoMoreInteractions(elevatorRepository);
+        verify(webSocketUpdateService, times(1)).sendElevatorStatusUpdate(any());
+        Elevator cached = cacheManager.getCache("elevators").get(1L, Elevator.class);
+        assertEquals(10, cached.getCurrentFloor(), "refreshed, not evicted");
+        assertNull(cacheManager.getCache("elevators").get(3L));
+        assertEquals(12, meterRegistry.counter("elevator.position.updates").count());
+        assertEquals(2, meterRegistry.counter("elevator.position.written").count());
+
+        assertEquals(0, positionWriter.flush(), "nothing moved since");
+        verifyNoMoreInteractions(elevatorRepository);
+    }
+
+    @Test
+    public void testFlush_SkipsCarTakenOutOfServiceMeanwhile() {
+        move(1L, 3);
+        // Written through by the fault path, which also updates the store
+        fleetStateService.put(fleetStateService.get(1L).orElseThrow().toBuilder()
+                .operational(false).status(ElevatorStatus.OUT_OF_SERVICE).direction(Direction.STOPPED).build());
+
+        assertEquals(0, positionWriter.flush());
+
+        verifyNoInteractions(elevatorRepository);
+        assertEquals(0, positionWriter.getPending());
+    }
+
+    @Test
+    public void testRecord_DropsMoveFromOutdatedPosition() {
+        ElevatorState before = fleetStateService.get(1L).orElseThrow();
+        move(1L, 1);
+
+        assertFalse(positionWriter.record(before, 1, ElevatorStatus.MOVING_UP, Direction.UP).isPresent(),
+                "based on floor 0, but the car is on floor 1 by now");
+        fleetStateService.transition(1L, current -> current.withOperational(false));
+        assertFalse(positionWriter.record(fleetStateService.get(1L).orElseThrow(), 2, ElevatorStatus.MOVING_UP,
+                Direction.UP).isPresent(), "out of service");
+        assertEquals(1, fleetStateService.get(1L).orElseThrow().getCurrentFloor());
+    }
+
+    @Test
+    public void testFlush_FailedWriteIsRetriedWithLatestPosition() {
+        move(1L, 3);
+        when(elevatorRepository.updatePosition(anyLong(), anyInt(), any(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        assertEquals(0, positionWriter.flush());
+        assertEquals(1, positionWriter.getPending());
+        move(1L, 4);
+
+        assertEquals(1, positionWriter.flush());
+        verify(elevatorRepository).updatePosition(eq(1L), eq(4), any(), any());
+        assertEquals(1, meterRegistry.counter("elevator.position.write.failures").count());
+    }
+
+    private void move(Long id, int floor) {
+        positionWriter.record(fleetStateService.get(id).orElseThrow(), floor, ElevatorStatus.MOVING_UP, Direction.UP);
+    }
+
+    private static Elevator elevator(Long id) {
+        Elevator elevator = new Elevator();
+        elevator.setId(id);
+        elevator.setCurrentFloor(0);
+        elevator.setStatus(ElevatorStatus.IDLE);
+        elevator.setDirection(Direction.STOPPED);
+        elevator.setOperational(true);
+        elevator.setCapacity(10);
+        return elevator;
+    }
+}
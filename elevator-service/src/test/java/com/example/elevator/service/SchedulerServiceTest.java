@@ -2,19 +2,29 @@ package com.example.elevator.service;
 
 import com.example.elevator.model.Elevator;
 import com.example.elevator.model.ElevatorRequest;
+import com.example.elevator.model.ElevatorState;
 import com.example.elevator.model.ElevatorStatus;
 import com.example.elevator.model.RequestStatus;
-import com.example.elevator.repository.ElevatorRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,14 +34,26 @@ public class SchedulerServiceTest {
     private ElevatorService elevatorService;
 
     @Mock
-    private ElevatorRequestRepository requestRepository;
+    private PendingRequestQueue pendingRequestQueue;
+
+    @Mock
+    private AIPredictiveService aiPredictiveService;
+
+    @Mock
+    private AssignmentPipeline assignmentPipeline;
+
+    @Spy
+    private DispatchLocks dispatchLocks = new DispatchLocks();
+
+    @Spy
+    private LeaderElection leaderElection = new LeaderElection(); // A single node, always leading
 
     @InjectMocks
     private SchedulerService schedulerService;
 
     @Test
     public void testScheduleElevators_NoRequests() {
-        when(requestRepository.findByStatus(RequestStatus.PENDING)).thenReturn(Collections.emptyList());
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.emptyList());
         when(elevatorService.getAvailableElevators()).thenReturn(Collections.emptyList());
 
         schedulerService.scheduleElevators();
@@ -60,14 +82,13 @@ public class SchedulerServiceTest {
         e2.setStatus(ElevatorStatus.MOVING_UP);
         e2.setOperational(true);
 
-        when(requestRepository.findByStatus(RequestStatus.PENDING)).thenReturn(Collections.singletonList(request));
-        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(e1, e2));
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(ElevatorState.from(e1), ElevatorState.from(e2)));
 
         schedulerService.scheduleElevators();
 
         // Should pick e2 because it's closer and moving in the right direction
-        verify(elevatorService).assignRequestToElevator(e2, request);
-        verify(requestRepository).save(request);
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e2), request);
     }
 
     @Test
@@ -89,12 +110,377 @@ public class SchedulerServiceTest {
         e2.setCurrentLoad(0); // But empty
         e2.setOperational(true);
 
-        when(requestRepository.findByStatus(RequestStatus.PENDING)).thenReturn(Collections.singletonList(request));
-        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(e1, e2));
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(ElevatorState.from(e1), ElevatorState.from(e2)));
 
         schedulerService.scheduleElevators();
 
         // Should pick e2 because e1 is full
-        verify(elevatorService).assignRequestToElevator(e2, request);
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e2), request);
+    }
+
+    @Test
+    public void testDispatch_AssignsNewRequestImmediately() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(7L);
+        request.setSourceFloor(3);
+        request.setDestinationFloor(0);
+
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setCurrentFloor(2);
+        e1.setOperational(true);
+
+        when(elevatorService.getNearestDispatchable("main", 3, SchedulerService.SEED_CANDIDATES)).thenReturn(Collections.singletonList(ElevatorState.from(e1)));
+        when(elevatorService.getDispatchableWithin("main", 3, 1)).thenReturn(Collections.singletonList(ElevatorState.from(e1)));
+
+        schedulerService.dispatch(request);
+
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e1), request);
+        assertEquals(RequestStatus.ASSIGNED, request.getStatus());
+        verify(pendingRequestQueue, never()).getPending();
+    }
+
+    @Test
+    public void testDispatch_LooksBeyondNearestCarsUpToCostBound() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(10L);
+        request.setSourceFloor(10);
+        request.setDestinationFloor(0);
+
+        // Nearest car, but sweeping up to floor 30 before it can come back for a DOWN rider
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setCurrentFloor(10);
+        e1.setStatus(ElevatorStatus.MOVING_UP);
+        ElevatorState sweeping = ElevatorState.from(e1).toBuilder().stopCount(1).lowestStop(30).highestStop(30).build();
+
+        // Outside the seed set, but idle and well within the nearest car's cost
+        Elevator e2 = new Elevator();
+        e2.setId(2L);
+        e2.setCurrentFloor(16);
+
+        when(elevatorService.getNearestDispatchable("main", 10, SchedulerService.SEED_CANDIDATES)).thenReturn(Collections.singletonList(sweeping));
+        when(elevatorService.getDispatchableWithin("main", 10, 50)).thenReturn(Arrays.asList(sweeping, ElevatorState.from(e2)));
+
+        schedulerService.dispatch(request);
+
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e2), request);
+        verify(elevatorService, never()).getAvailableElevators();
+    }
+
+    @Test
+    public void testFindNearbyBestElevator_CostsSameAsFullScan() {
+        FleetStateService fleet = new FleetStateService();
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            ElevatorStatus status = ElevatorStatus.values()[random.nextInt(3)];
+            ElevatorState.ElevatorStateBuilder car = ElevatorState.builder()
+                    .id((long) i)
+                    .currentFloor(random.nextInt(80))
+                    .status(status)
+                    .capacity(10)
+                    .currentLoad(random.nextInt(11))
+                    .operational(random.nextInt(10) != 0);
+            if (status != ElevatorStatus.IDLE) {
+                int a = random.nextInt(80);
+                int b = random.nextInt(80);
+                car.stopCount(2).lowestStop(Math.min(a, b)).highestStop(Math.max(a, b));
+            }
+            fleet.put(car.build());
+        }
+        when(elevatorService.getNearestDispatchable(anyString(), anyInt(), anyInt())).thenAnswer(call ->
+                fleet.getNearest(call.getArgument(0), call.getArgument(1), null, call.getArgument(2), ElevatorState::isDispatchable));
+        when(elevatorService.getDispatchableWithin(anyString(), anyInt(), anyInt())).thenAnswer(call ->
+                fleet.getWithin(call.getArgument(0), call.getArgument(1), call.getArgument(2), ElevatorState::isDispatchable));
+
+        for (int i = 0; i < 500; i++) {
+            ElevatorRequest request = new ElevatorRequest();
+            request.setSourceFloor(random.nextInt(80));
+            request.setDestinationFloor(random.nextInt(80));
+
+            ElevatorState nearby = schedulerService.findNearbyBestElevator(request);
+            ElevatorState scanned = schedulerService.findBestElevator(request, fleet.getOperational());
+            assertEquals(schedulerService.calculateCost(scanned, request), schedulerService.calculateCost(nearby, request));
+        }
+    }
+
+    @Test
+    public void testDispatch_IgnoresAlreadyAssignedRequest() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(8L);
+        request.setStatus(RequestStatus.ASSIGNED);
+
+        schedulerService.dispatch(request);
+
+        verify(elevatorService, never()).assignRequestToElevator(any(), any());
+    }
+
+    @Test
+    public void testScheduleElevators_BatchPolicyCountsRidersOfCoalescedCalls() {
+        ReflectionTestUtils.setField(schedulerService, "policy", DispatchPolicy.BATCH);
+        ElevatorRequest lobby = call(1L, 0, 9, 6);
+        ElevatorRequest mezzanine = call(2L, 1, 9, 6); // together 12 riders for a 10-seat car
+
+        Elevator near = new Elevator();
+        near.setId(1L);
+        near.setCurrentFloor(0);
+        near.setCapacity(10);
+
+        Elevator far = new Elevator();
+        far.setId(2L);
+        far.setCurrentFloor(20);
+        far.setCapacity(10);
+
+        when(pendingRequestQueue.getPending()).thenReturn(Arrays.asList(lobby, mezzanine));
+        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(ElevatorState.from(near), ElevatorState.from(far)));
+
+        schedulerService.scheduleElevators();
+
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(near), lobby);
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(far), mezzanine);
+    }
+
+    @Test
+    public void testScheduleElevators_BatchPolicyKeepsSeatsOfQueuedTrips() {
+        ReflectionTestUtils.setField(schedulerService, "policy", DispatchPolicy.BATCH);
+        ElevatorRequest request = call(1L, 0, 9, 3);
+
+        Elevator busy = new Elevator();
+        busy.setId(1L);
+        busy.setCurrentFloor(0);
+        busy.setCapacity(10);
+
+        Elevator far = new Elevator();
+        far.setId(2L);
+        far.setCurrentFloor(20);
+        far.setCapacity(10);
+
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(ElevatorState.from(busy), ElevatorState.from(far)));
+        when(elevatorService.getRiders(1L)).thenReturn(8); // riders of trips it has already been given
+
+        schedulerService.scheduleElevators();
+
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(far), request);
+    }
+
+    @Test
+    public void testScheduleElevators_BatchPolicyDoesNotOverbookCar() {
+        ReflectionTestUtils.setField(schedulerService, "policy", DispatchPolicy.BATCH);
+
+        ElevatorRequest r1 = new ElevatorRequest();
+        r1.setId(1L);
+        r1.setSourceFloor(5);
+        r1.setDestinationFloor(9);
+
+        ElevatorRequest r2 = new ElevatorRequest();
+        r2.setId(2L);
+        r2.setSourceFloor(6);
+        r2.setDestinationFloor(9);
+
+        // Close to both requests, but only one free place left
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setCurrentFloor(5);
+        e1.setCapacity(10);
+        e1.setCurrentLoad(9);
+
+        Elevator e2 = new Elevator();
+        e2.setId(2L);
+        e2.setCurrentFloor(20);
+
+        when(pendingRequestQueue.getPending()).thenReturn(Arrays.asList(r1, r2));
+        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(ElevatorState.from(e1), ElevatorState.from(e2)));
+
+        schedulerService.scheduleElevators();
+
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e1), r1);
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e2), r2);
+    }
+
+    @Test
+    public void testScheduleElevators_PricesRequestAgainstCurrentSweep() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setSourceFloor(6);
+        request.setDestinationFloor(2);
+
+        // Closer, but heading up to floor 15 before it can come back for a DOWN rider
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setCurrentFloor(5);
+        e1.setStatus(ElevatorStatus.MOVING_UP);
+        ElevatorState sweeping = ElevatorState.from(e1).toBuilder().stopCount(1).lowestStop(15).highestStop(15).build();
+
+        // Further away, but idle
+        Elevator e2 = new Elevator();
+        e2.setId(2L);
+        e2.setCurrentFloor(12);
+
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(sweeping, ElevatorState.from(e2)));
+
+        schedulerService.scheduleElevators();
+
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e2), request);
+    }
+
+    @Test
+    public void testScheduleElevators_SkipsAssignmentsStillBeingPersisted() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(9L);
+        request.setSourceFloor(4);
+        request.setDestinationFloor(1);
+
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setOperational(true);
+
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+        when(elevatorService.getAvailableElevators()).thenReturn(Collections.singletonList(ElevatorState.from(e1)));
+        when(assignmentPipeline.isInFlight(9L)).thenReturn(true);
+
+        schedulerService.scheduleElevators();
+
+        verify(elevatorService, never()).assignRequestToElevator(any(), any());
+    }
+
+    @Test
+    public void testScheduleElevators_SkipsRequestTheDispatcherAssignedMeanwhile() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(9L);
+        request.setSourceFloor(4);
+        request.setDestinationFloor(1);
+
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setOperational(true);
+
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+        // The dispatcher thread assigns it after the sweep read the pending requests and its queue entry is gone
+        when(elevatorService.getAvailableElevators()).thenAnswer(call -> {
+            request.setStatus(RequestStatus.ASSIGNED);
+            return Collections.singletonList(ElevatorState.from(e1));
+        });
+
+        schedulerService.scheduleElevators();
+
+        verify(elevatorService, never()).assignRequestToElevator(any(), any());
+    }
+
+    @Test
+    public void testDispatchBatch_SkipsAssignmentsStillBeingPersisted() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(9L);
+        request.setSourceFloor(4);
+
+        when(assignmentPipeline.isInFlight(9L)).thenReturn(true);
+
+        assertEquals(0, schedulerService.dispatchBatch(Collections.singletonList(request)));
+        verify(elevatorService, never()).assignRequestToElevator(any(), any());
+    }
+
+    @Test
+    public void testSubmit_QueuedBeforeTheSweepCanSeeIt() {
+        ReflectionTestUtils.setField(schedulerService, "meterRegistry", new SimpleMeterRegistry());
+        schedulerService.startDispatcher();
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(9L);
+        request.setSourceFloor(4);
+
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setOperational(true);
+
+        lenient().when(elevatorService.getAvailableElevators()).thenReturn(Collections.singletonList(ElevatorState.from(e1)));
+        // A sweep running the moment the request becomes pending leaves it to the dispatcher
+        doAnswer(call -> {
+            when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+            schedulerService.scheduleElevators();
+            return true;
+        }).when(pendingRequestQueue).add(request);
+
+        try {
+            assertTrue(schedulerService.submit(request));
+        } finally {
+            schedulerService.stopDispatcher();
+        }
+        verify(elevatorService, never()).assignRequestToElevator(any(), any());
+    }
+
+    @Test
+    public void testScheduleElevators_OnlyAssignsCarsOfTheRequestsBank() {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setSourceFloor(5);
+        request.setDestinationFloor(9);
+        request.setBank("east");
+
+        // Elevator 1: waiting right at the floor, but in another building
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setCurrentFloor(5);
+        e1.setOperational(true);
+
+        Elevator e2 = new Elevator();
+        e2.setId(2L);
+        e2.setCurrentFloor(0);
+        e2.setOperational(true);
+        e2.setBank("east");
+
+        when(pendingRequestQueue.getPending()).thenReturn(Collections.singletonList(request));
+        when(elevatorService.getAvailableElevators()).thenReturn(Arrays.asList(ElevatorState.from(e1), ElevatorState.from(e2)));
+
+        schedulerService.scheduleElevators();
+
+        verify(elevatorService).assignRequestToElevator(ElevatorState.from(e2), request);
+        verify(elevatorService, never()).assignRequestToElevator(eq(ElevatorState.from(e1)), any());
+    }
+
+    @Test
+    public void testDispatch_SlowBankDoesNotHoldUpOtherBanks() throws Exception {
+        ElevatorRequest slow = new ElevatorRequest();
+        slow.setId(1L);
+        slow.setSourceFloor(3);
+        slow.setBank("east");
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(2L);
+        request.setSourceFloor(3);
+
+        Elevator e1 = new Elevator();
+        e1.setId(1L);
+        e1.setCurrentFloor(2);
+        e1.setOperational(true);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(elevatorService.getNearestDispatchable("east", 3, SchedulerService.SEED_CANDIDATES)).thenAnswer(call -> {
+            entered.countDown();
+            release.await();
+            return Collections.emptyList();
+        });
+        when(elevatorService.getNearestDispatchable("main", 3, SchedulerService.SEED_CANDIDATES)).thenReturn(Collections.singletonList(ElevatorState.from(e1)));
+        when(elevatorService.getDispatchableWithin("main", 3, 1)).thenReturn(Collections.singletonList(ElevatorState.from(e1)));
+
+        Thread east = new Thread(() -> schedulerService.dispatch(slow));
+        east.start();
+        try {
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            // The east shard's lock is held for as long as its dispatch runs
+            assertTrue(assertTimeoutPreemptively(Duration.ofSeconds(5), () -> schedulerService.dispatch(request)));
+        } finally {
+            release.countDown();
+            east.join();
+        }
+        assertEquals(RequestStatus.PENDING, slow.getStatus());
+        assertEquals(RequestStatus.ASSIGNED, request.getStatus());
+    }
+
+    private static ElevatorRequest call(Long id, int source, int destination, int riders) {
+        ElevatorRequest request = new ElevatorRequest();
+        request.setId(id);
+        request.setSourceFloor(source);
+        request.setDestinationFloor(destination);
+        request.setRiderCount(riders);
+        return request;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.example.elevator.service;
+
+import com.example.elevator.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScrollCursorTest {
+
+    @Test
+    public void testEncodeDecode_RoundTripsTimeToTheNanosecond() {
+        LocalDateTime time = LocalDateTime.of(2025, 6, 1, 8, 30, 15, 123_456_789);
+
+        ScrollCursor cursor = ScrollCursor.decode(new ScrollCursor(time, 42L).encode());
+
+        assertEquals(time, cursor.getTime());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    public void testEncode_IsUrlSafe() {
+        String token = new ScrollCursor(LocalDateTime.of(2025, 6, 1, 8, 0), Long.MAX_VALUE).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    public void testDecode_RejectsTamperedTokens() {
+        assertThrows(InvalidCursorException.class, () -> ScrollCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> ScrollCursor.decode("bm8tc2VwYXJhdG9y")); // "no-separator"
+        assertThrows(InvalidCursorException.class, () -> ScrollCursor.decode("eWVzdGVyZGF5fDQy")); // "yesterday|42"
+    }
+}